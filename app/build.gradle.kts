@@ -15,6 +15,13 @@ android {
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
 
+        // Room schema JSON per version (app/schemas), kept in git to review and test migrations
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
+
         // ✅ Load .env file nếu có
         val envFile = rootProject.file(".env")
         if (envFile.exists()) {
@@ -46,6 +53,11 @@ android {
         }
     }
 
+    // Exported schemas double as androidTest assets for MigrationTestHelper
+    sourceSets {
+        getByName("androidTest").assets.srcDir("$projectDir/schemas")
+    }
+
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
@@ -61,6 +73,12 @@ dependencies {
     implementation("androidx.cardview:cardview:1.0.0")
     implementation("androidx.fragment:fragment:1.8.2")
     implementation("androidx.activity:activity:1.9.1")
+    // getBindingAdapterPosition() needs 1.2+, newer than Material pulls in
+    implementation("androidx.recyclerview:recyclerview:1.3.2")
+
+    // --- Lifecycle (observable Room queries, screen ViewModels) ---
+    implementation("androidx.lifecycle:lifecycle-livedata:2.8.4")
+    implementation("androidx.lifecycle:lifecycle-viewmodel:2.8.4")
 
     // --- Material Design ---
     implementation("com.google.android.material:material:1.12.0")
@@ -81,9 +99,6 @@ dependencies {
     implementation("com.squareup.retrofit2:converter-gson:2.9.0")
     implementation("com.google.code.gson:gson:2.10.1")
 
-    // --- Chart Library ---
-    implementation("com.github.PhilJay:MPAndroidChart:v3.1.0")
-
     // --- Env Config ---
     implementation("io.github.cdimascio:dotenv-java:3.0.0")
 
@@ -91,4 +106,5 @@ dependencies {
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    androidTestImplementation(libs.room.testing)
 }
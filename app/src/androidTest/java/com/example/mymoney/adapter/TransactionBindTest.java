@@ -0,0 +1,127 @@
+package com.example.mymoney.adapter;
+
+import android.content.Context;
+import android.os.Looper;
+import android.view.ContextThemeWrapper;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.mymoney.R;
+import com.example.mymoney.model.TransactionListItem;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Binding transaction rows must be synchronous: no thread started per
+ * bind, and what a holder shows right after bind() is final.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TransactionBindTest {
+
+    private static final int ROWS = 1_000;
+    private static final int HOLDERS = 12;
+
+    @Test
+    public void binding1000Rows_startsNoThreadAndIsFinal() throws Exception {
+        Context context = new ContextThemeWrapper(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), R.style.Theme_MyMoney);
+        List<TransactionListItem> rows = rows();
+
+        AtomicReference<Set<Thread>> startedDuringBind = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<TransactionAdapter.TransactionViewHolder> holders = new ArrayList<>();
+
+        // Views that are not attached to a window can be bound from any thread with a Looper
+        Thread binder = new Thread(() -> {
+            try {
+                Looper.prepare();
+                FrameLayout parent = new FrameLayout(context);
+                for (int i = 0; i < HOLDERS; i++) {
+                    holders.add(TransactionAdapter.TransactionViewHolder.create(parent, null));
+                }
+
+                // A thread started per bind would still be alive (or queued to post back)
+                // right after the loop, so it shows up as new in the second snapshot
+                Set<Thread> before = liveThreads();
+                // Holders are reused round-robin, like a fling through a recycled list
+                for (int i = 0; i < ROWS; i++) {
+                    holders.get(i % HOLDERS).bind(rows.get(i));
+                }
+                Set<Thread> started = liveThreads();
+                started.removeAll(before);
+                startedDuringBind.set(started);
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        }, "row-binder");
+        binder.start();
+        binder.join();
+        if (failure.get() != null) throw new AssertionError(failure.get());
+
+        assertTrue("threads started while binding: " + startedDuringBind.get(), startedDuringBind.get().isEmpty());
+
+        // Each holder shows the last row bound to it, now and after any late callback could have landed
+        assertHoldersShowLastRows(holders, rows);
+        Thread.sleep(300);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertHoldersShowLastRows(holders, rows);
+    }
+
+    /** Live threads, minus the binder pool the platform grows on its own */
+    private static Set<Thread> liveThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (!thread.getName().toLowerCase(Locale.ROOT).startsWith("binder")) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+
+    private static void assertHoldersShowLastRows(List<TransactionAdapter.TransactionViewHolder> holders,
+                                                  List<TransactionListItem> rows) {
+        for (int h = 0; h < HOLDERS; h++) {
+            TransactionListItem last = rows.get(ROWS - HOLDERS + h);
+            TransactionAdapter.TransactionViewHolder holder = holders.get((ROWS - HOLDERS + h) % HOLDERS);
+            assertEquals(last.categoryName, text(holder, R.id.transaction_category));
+            assertEquals(last.timeLabel, text(holder, R.id.transaction_details));
+            assertEquals(last.amountLabel, text(holder, R.id.transaction_amount));
+        }
+    }
+
+    private static String text(TransactionAdapter.TransactionViewHolder holder, int id) {
+        return ((TextView) holder.itemView.findViewById(id)).getText().toString();
+    }
+
+    /** Every other row comes without prepared labels, so bind's fallback is covered too */
+    private static List<TransactionListItem> rows() {
+        String[] categories = {"Food", "Home", "Transport", "Salary", "Gifts"};
+        long now = System.currentTimeMillis();
+        List<TransactionListItem> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            TransactionListItem row = new TransactionListItem();
+            row.id = i + 1;
+            row.amount = 1_000L * (i + 1);
+            row.type = i % 7 == 0 ? "income" : "expense";
+            row.createdAt = now - i * 60_000L;
+            row.categoryName = categories[i % categories.length];
+            row.currency = "VND";
+            if (i % 2 == 0) row.prepareLabels();
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.mymoney.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.mymoney.database.entity.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Throughput of TransactionDao.insertAll on a database file, at import
+ * sizes, and the totals it leaves behind.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BulkInsertTest {
+
+    private static final String TAG = "BulkInsertTest";
+    private static final String DB_NAME = "bulk-insert-test";
+
+    private Context context;
+    private AppDatabase db;
+    private List<Integer> categories;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = TestDatabases.onDisk(context, DB_NAME).build();
+        categories = TestDatabases.seedLookups(db);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(DB_NAME);
+        StatisticsCache.getInstance().invalidateAll();
+    }
+
+    @Test
+    public void insertAll_10k() {
+        insertAndCheck(10_000);
+    }
+
+    @Test
+    public void insertAll_100k() {
+        insertAndCheck(100_000);
+    }
+
+    /** One insertAll of 1,000 rows must clearly beat 1,000 single-row saves */
+    @Test
+    public void insertAll_beatsRowByRowSaves() {
+        List<Transaction> single = generate(1_000, 1);
+        long start = System.nanoTime();
+        for (Transaction transaction : single) {
+            db.transactionDao().insertWithBalance(transaction);
+        }
+        long rowByRowNanos = System.nanoTime() - start;
+
+        List<Transaction> batch = generate(1_000, 2);
+        start = System.nanoTime();
+        db.transactionDao().insertAll(batch);
+        long batchNanos = System.nanoTime() - start;
+
+        Log.d(TAG, "1000 rows: row by row " + rowByRowNanos / 1_000_000 + " ms, insertAll "
+                + batchNanos / 1_000_000 + " ms");
+        assertTrue("insertAll took " + batchNanos / 1_000_000 + " ms, row by row "
+                + rowByRowNanos / 1_000_000 + " ms", batchNanos * 2 < rowByRowNanos);
+    }
+
+    private void insertAndCheck(int count) {
+        List<Transaction> transactions = generate(count, 42);
+        long expectedBalance = 0;
+        for (Transaction transaction : transactions) {
+            expectedBalance += transaction.signedAmount();
+        }
+
+        long start = System.nanoTime();
+        long[] ids = db.transactionDao().insertAll(transactions);
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        Log.d(TAG, "insertAll " + count + " rows: " + elapsedMs + " ms, "
+                + count * 1000L / elapsedMs + " rows/s");
+
+        assertEquals(count, ids.length);
+        assertEquals(ids[count - 1], transactions.get(count - 1).getId());
+        assertEquals(count, queryLong("SELECT COUNT(*) FROM `transaction`"));
+        // One aggregated delta, equal to the sum of every row
+        assertEquals(expectedBalance, db.walletDao().getWalletById(TestDatabases.WALLET_ID).getBalance());
+        assertEquals(count, queryLong("SELECT COUNT(*) FROM transaction_fts"));
+        assertEquals(count, queryLong("SELECT SUM(tx_count) FROM transaction_daily_rollup"));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM `transaction` WHERE local_day = 0"));
+    }
+
+    /** count rows in the first wallet over the last year, seeded so runs are comparable */
+    private List<Transaction> generate(int count, long seed) {
+        Random random = new Random(seed);
+        long now = System.currentTimeMillis();
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(TestDatabases.transaction(TestDatabases.WALLET_ID,
+                    categories.get(random.nextInt(categories.size())),
+                    random.nextInt(10) == 0 ? "income" : "expense",
+                    1_000 + random.nextInt(500_000),
+                    "Nhập khẩu " + i,
+                    now - (long) (random.nextDouble() * 365 * 24 * 60 * 60 * 1000)));
+        }
+        return transactions;
+    }
+
+    private long queryLong(String sql) {
+        try (Cursor cursor = db.query(sql, null)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+}
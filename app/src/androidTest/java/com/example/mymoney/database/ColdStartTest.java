@@ -0,0 +1,122 @@
+package com.example.mymoney.database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cost of opening the database with the app's callback: the first open
+ * creates and seeds it, every later open must do no seeding I/O.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ColdStartTest {
+
+    private static final String TAG = "ColdStartTest";
+    private static final String DB_NAME = "cold-start-test";
+    private static final int REOPENS = 7;
+
+    private Context context;
+    private SharedPreferences prefs;
+    private int savedSeedVersion;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        prefs = context.getSharedPreferences(DatabaseSeeder.PREFS_NAME, Context.MODE_PRIVATE);
+        // The marker is shared with the app under test, put it back afterwards
+        savedSeedVersion = prefs.getInt(DatabaseSeeder.KEY_SEED_VERSION, 0);
+        prefs.edit().remove(DatabaseSeeder.KEY_SEED_VERSION).commit();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+        prefs.edit().putInt(DatabaseSeeder.KEY_SEED_VERSION, savedSeedVersion).commit();
+    }
+
+    @Test
+    public void reopen_doesNoSeedingAndIsTimed() {
+        AppDatabase first = build();
+        long createMs = timeOpen(first);
+        long[] seeded = counts(first);
+        first.close();
+        assertEquals(DatabaseSeeder.SEED_VERSION, prefs.getInt(DatabaseSeeder.KEY_SEED_VERSION, 0));
+        assertEquals(1, seeded[0]);
+        assertEquals(1, seeded[1]);
+        assertTrue(seeded[2] > 0);
+
+        long[] reopenMs = new long[REOPENS];
+        for (int i = 0; i < REOPENS; i++) {
+            AppDatabase database = build();
+            reopenMs[i] = timeOpen(database);
+            assertArrayEquals(seeded, counts(database));
+            database.close();
+        }
+        Arrays.sort(reopenMs);
+        Log.d(TAG, "⏱ create + seed " + createMs + " ms, reopen median " + reopenMs[REOPENS / 2]
+                + " ms (min " + reopenMs[0] + ", max " + reopenMs[REOPENS - 1] + ")");
+
+        // Once the marker is set the seed check is a preference read: it must not touch the database
+        DatabaseSeeder.seedIfNeeded(context, null);
+    }
+
+    /** A database from before the marker existed is topped up once, without duplicating rows */
+    @Test
+    public void existingDatabaseWithoutMarker_isCheckedOnce() {
+        AppDatabase first = build();
+        timeOpen(first);
+        long[] seeded = counts(first);
+        first.close();
+
+        prefs.edit().remove(DatabaseSeeder.KEY_SEED_VERSION).commit();
+        AppDatabase upgraded = build();
+        timeOpen(upgraded);
+        assertArrayEquals(seeded, counts(upgraded));
+        upgraded.close();
+        assertEquals(DatabaseSeeder.SEED_VERSION, prefs.getInt(DatabaseSeeder.KEY_SEED_VERSION, 0));
+    }
+
+    // ===== Helpers =====
+
+    private AppDatabase build() {
+        return Room.databaseBuilder(context, AppDatabase.class, DB_NAME)
+                .addMigrations(Migrations.ALL)
+                .addCallback(AppDatabase.openCallback(context))
+                .build();
+    }
+
+    /** Room opens lazily: time the first connection, which runs onCreate / onOpen */
+    private static long timeOpen(AppDatabase database) {
+        long start = System.nanoTime();
+        database.getOpenHelper().getWritableDatabase();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /** {users, wallets, categories} */
+    private static long[] counts(AppDatabase database) {
+        long[] counts = new long[3];
+        String[] tables = {"user", "wallet", "category"};
+        for (int i = 0; i < tables.length; i++) {
+            try (Cursor cursor = database.query("SELECT COUNT(*) FROM `" + tables[i] + "`", null)) {
+                assertTrue(cursor.moveToFirst());
+                counts[i] = cursor.getLong(0);
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.mymoney.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.mymoney.database.entity.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Parallel ledger writes must leave every wallet balance equal to the sum
+ * of its transactions: no lost update, no double-applied delete.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LedgerConcurrencyTest {
+
+    private static final String TAG = "LedgerConcurrencyTest";
+    private static final String DB_NAME = "ledger-concurrency-test";
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 400;
+
+    private Context context;
+    private AppDatabase db;
+    private List<Integer> categories;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = TestDatabases.onDisk(context, DB_NAME).build();
+        categories = TestDatabases.seedLookups(db);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(DB_NAME);
+        StatisticsCache.getInstance().invalidateAll();
+    }
+
+    /** The DAO's *WithBalance methods called straight from several threads */
+    @Test
+    public void parallelDaoWrites_keepBalancesExact() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            workers.add(pool.submit(() -> {
+                start.await();
+                runOperations(seed, new Writer() {
+                    @Override
+                    public void insert(Transaction transaction) {
+                        db.transactionDao().insertWithBalance(transaction);
+                    }
+
+                    @Override
+                    public void update(Transaction transaction) {
+                        db.transactionDao().updateWithBalance(transaction);
+                    }
+
+                    @Override
+                    public void delete(int transactionId) {
+                        db.transactionDao().deleteWithBalance(transactionId);
+                    }
+                });
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertBalancesMatchTransactions();
+    }
+
+    /** The same load through LedgerWriteQueue, which should also group the commits */
+    @Test
+    public void parallelQueuedWrites_keepBalancesExactAndGroupCommits() throws Exception {
+        LedgerWriteQueue queue = new LedgerWriteQueue(db);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        long begin = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            workers.add(pool.submit(() -> {
+                start.await();
+                // Wait for each write like a screen would, so ids exist before update/delete
+                runOperations(seed, new Writer() {
+                    @Override
+                    public void insert(Transaction transaction) {
+                        queue.submit(d -> d.transactionDao().insertWithBalance(transaction)).join();
+                    }
+
+                    @Override
+                    public void update(Transaction transaction) {
+                        queue.submit(d -> {
+                            d.transactionDao().updateWithBalance(transaction);
+                            return null;
+                        }).join();
+                    }
+
+                    @Override
+                    public void delete(int transactionId) {
+                        queue.submit(d -> d.transactionDao().deleteWithBalance(transactionId)).join();
+                    }
+                });
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        long elapsedMs = Math.max(1, (System.nanoTime() - begin) / 1_000_000);
+
+        Log.d(TAG, queue.getMutationCount() + " mutations in " + queue.getCommitCount() + " commits, "
+                + elapsedMs + " ms, " + queue.getMutationCount() * 1000 / elapsedMs + " writes/s, avg commit "
+                + queue.getAverageCommitLatencyMs() + " ms");
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, queue.getMutationCount());
+        // Concurrent writers share commits instead of paying one each
+        assertTrue(queue.getCommitCount() < queue.getMutationCount());
+
+        // A burst submitted without waiting is committed in a few batches
+        List<CompletableFuture<Long>> burst = new ArrayList<>();
+        long commitsBefore = queue.getCommitCount();
+        Random random = new Random(99);
+        for (int i = 0; i < 200; i++) {
+            Transaction transaction = newTransaction(random);
+            burst.add(queue.submit(d -> d.transactionDao().insertWithBalance(transaction)));
+        }
+        CompletableFuture.allOf(burst.toArray(new CompletableFuture[0])).get(1, TimeUnit.MINUTES);
+        assertTrue(queue.getCommitCount() - commitsBefore < 20);
+
+        assertBalancesMatchTransactions();
+    }
+
+    // ===== Helpers =====
+
+    private interface Writer {
+        void insert(Transaction transaction);
+
+        void update(Transaction transaction);
+
+        void delete(int transactionId);
+    }
+
+    /**
+     * Half inserts, then updates (amount, type or wallet) and deletes of rows
+     * this thread inserted; a deleted row is deleted a second time on
+     * purpose, which must not move the balance again.
+     */
+    private void runOperations(long seed, Writer writer) {
+        Random random = new Random(seed);
+        List<Transaction> own = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            int choice = own.isEmpty() ? 0 : random.nextInt(4);
+            if (choice <= 1) {
+                Transaction transaction = newTransaction(random);
+                writer.insert(transaction);
+                own.add(transaction);
+            } else if (choice == 2) {
+                Transaction transaction = own.get(random.nextInt(own.size()));
+                transaction.setAmount(1_000 + random.nextInt(100_000));
+                transaction.setType(random.nextBoolean() ? "income" : "expense");
+                transaction.setWalletId(random.nextBoolean() ? TestDatabases.WALLET_ID : TestDatabases.OTHER_WALLET_ID);
+                writer.update(transaction);
+            } else {
+                Transaction transaction = own.remove(random.nextInt(own.size()));
+                writer.delete(transaction.getId());
+                if (random.nextInt(4) == 0) {
+                    writer.delete(transaction.getId());
+                }
+            }
+        }
+    }
+
+    private Transaction newTransaction(Random random) {
+        return TestDatabases.transaction(
+                random.nextBoolean() ? TestDatabases.WALLET_ID : TestDatabases.OTHER_WALLET_ID,
+                categories.get(random.nextInt(categories.size())),
+                random.nextInt(5) == 0 ? "income" : "expense",
+                1_000 + random.nextInt(100_000),
+                "Stress",
+                System.currentTimeMillis() - random.nextInt(30) * 24L * 60 * 60 * 1000);
+    }
+
+    private void assertBalancesMatchTransactions() {
+        for (int walletId : new int[]{TestDatabases.WALLET_ID, TestDatabases.OTHER_WALLET_ID}) {
+            long expected;
+            try (Cursor cursor = db.query("SELECT IFNULL(SUM(CASE WHEN type = 'income' THEN amount ELSE -amount END), 0) " +
+                    "FROM `transaction` WHERE wallet_id = ?", new Object[]{walletId})) {
+                assertTrue(cursor.moveToFirst());
+                expected = cursor.getLong(0);
+            }
+            assertEquals("wallet " + walletId, expected, db.walletDao().getWalletById(walletId).getBalance());
+        }
+    }
+}
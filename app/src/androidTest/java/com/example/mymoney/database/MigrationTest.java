@@ -0,0 +1,307 @@
+package com.example.mymoney.database;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.mymoney.model.TransactionListItem;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Migrations 9 -> 17 against the exported schemas in app/schemas, on a
+ * generated ledger large enough to take several ChunkedBackfill chunks.
+ *
+ * validateDroppedTables is off: backfill_progress is created by the
+ * migrations but is not a Room entity.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    private static final int TRANSACTIONS = 12_000;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    // Wallet 1 in VND (scale 1), wallet 2 in USD (scale 100)
+    private static final int VND_WALLET = 1;
+    private static final int USD_WALLET = 2;
+
+    private static final String[] DESCRIPTIONS = {"Uống cà phê", "Đổ xăng", "Tiền điện", "Ăn trưa"};
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    private AppDatabase database;
+
+    @After
+    public void tearDown() {
+        if (database != null) database.close();
+        StatisticsCache.getInstance().invalidateAll();
+    }
+
+    // ===== 9 -> 17 =====
+
+    @Test
+    public void migrate9To17_keepsEveryRowAndFillsDerivedTables() throws IOException {
+        long[] expectedMinor = new long[3];
+        long[] expectedCount = new long[3];
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 9)) {
+            insertLookups(db, "REAL");
+            db.beginTransaction();
+            try {
+                insertLedger(db, true, expectedMinor, expectedCount);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 17, false, Migrations.ALL)) {
+            assertEquals(TRANSACTIONS, count(db, "SELECT COUNT(*) FROM `transaction`"));
+            // Money is in minor units of each wallet's currency
+            for (int wallet : new int[]{VND_WALLET, USD_WALLET}) {
+                assertEquals(expectedMinor[wallet],
+                        count(db, "SELECT SUM(amount) FROM `transaction` WHERE wallet_id = " + wallet));
+            }
+            assertEquals(5_000_000, count(db, "SELECT balance FROM wallet WHERE id = " + VND_WALLET));
+            assertEquals(123_456, count(db, "SELECT balance FROM wallet WHERE id = " + USD_WALLET));
+
+            // Derived data is left to the backfills, not built inside the migration
+            assertEquals(0, count(db, "SELECT COUNT(*) FROM transaction_daily_rollup"));
+            assertEquals(0, count(db, "SELECT COUNT(*) FROM `transaction` WHERE local_day <> 0"));
+            assertEquals(3, count(db, "SELECT COUNT(*) FROM backfill_progress"));
+        }
+
+        database = openMigrated();
+        ChunkedBackfill.runPending(database);
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+
+        assertFalse(ChunkedBackfill.hasPending(db));
+        assertLocalDatesStamped(db);
+        // Rollups hold exactly the transactions, counted once
+        for (int wallet : new int[]{VND_WALLET, USD_WALLET}) {
+            assertEquals(expectedMinor[wallet], count(db,
+                    "SELECT SUM(total) FROM transaction_daily_rollup WHERE wallet_id = " + wallet));
+            assertEquals(expectedMinor[wallet], count(db,
+                    "SELECT SUM(total) FROM transaction_monthly_rollup WHERE wallet_id = " + wallet));
+            assertEquals(expectedCount[wallet], count(db,
+                    "SELECT SUM(tx_count) FROM transaction_daily_rollup WHERE wallet_id = " + wallet));
+        }
+        assertEquals(0, count(db,
+                "SELECT COUNT(*) FROM (SELECT wallet_id, local_day, SUM(amount) AS s FROM `transaction` " +
+                        "GROUP BY wallet_id, local_day) t JOIN (SELECT wallet_id, day, SUM(total) AS s " +
+                        "FROM transaction_daily_rollup GROUP BY wallet_id, day) r " +
+                        "ON r.wallet_id = t.wallet_id AND r.day = t.local_day WHERE r.s <> t.s"));
+
+        // Every row is in the search index, folded
+        assertEquals(TRANSACTIONS, count(db, "SELECT COUNT(*) FROM transaction_fts"));
+        List<TransactionListItem> hits = database.transactionDao()
+                .search(TransactionSearch.toMatchQuery("uong"), VND_WALLET, null, 10, 0);
+        assertFalse(hits.isEmpty());
+    }
+
+    // ===== 12 -> 13: REAL major units to INTEGER minor units =====
+
+    @Test
+    public void migrate12To13_rescalesMoneyByWalletCurrency() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 12)) {
+            insertLookups(db, "REAL");
+            // 19.99 * 100 is 1998.9999...: must round, not truncate
+            insertTransaction(db, 1, USD_WALLET, 19.99, "Sách", 1_700_000_000_000L);
+            insertTransaction(db, 2, VND_WALLET, 45_000.0, "Phở", 1_700_000_000_000L);
+            insertTransaction(db, 3, USD_WALLET, 0.07, "Kẹo", 1_700_000_000_000L);
+            db.execSQL("INSERT INTO transaction_daily_rollup VALUES (1, " + USD_WALLET + ", 1, 'expense', 20231114, 20.06, 2)");
+            db.execSQL("INSERT INTO transaction_monthly_rollup VALUES (1, " + VND_WALLET + ", 1, 'expense', 202311, 45000.0, 1)");
+            db.execSQL("INSERT INTO budget (id, name, budget_amount, alert_threshold, created_at, updated_at, " +
+                    "category_id, wallet_id, user_id) VALUES (1, 'Ăn uống', 250.5, 0.8, 0, 0, 1, " + USD_WALLET + ", 1)");
+            db.execSQL("INSERT INTO saving_goals (id, name, target, current_amount, created_at, updated_at, " +
+                    "category_id, wallet_id, user_id) VALUES (1, 'Du lịch', 3000000.0, 1500000.0, 0, 0, 1, " + VND_WALLET + ", 1)");
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 13, false, Migrations.MIGRATION_12_13)) {
+            assertEquals(1999, count(db, "SELECT amount FROM `transaction` WHERE id = 1"));
+            assertEquals(45_000, count(db, "SELECT amount FROM `transaction` WHERE id = 2"));
+            assertEquals(7, count(db, "SELECT amount FROM `transaction` WHERE id = 3"));
+            // Rollups are rebuilt from the rounded rows, not rescaled
+            assertEquals(0, count(db, "SELECT COUNT(*) FROM transaction_daily_rollup"));
+            assertEquals(1, count(db, "SELECT COUNT(*) FROM backfill_progress WHERE name = 'rollups'"));
+            assertEquals(25_050, count(db, "SELECT budget_amount FROM budget"));
+            assertEquals(3_000_000, count(db, "SELECT target FROM saving_goals"));
+            assertEquals(1_500_000, count(db, "SELECT current_amount FROM saving_goals"));
+            assertEquals(123_456, count(db, "SELECT balance FROM wallet WHERE id = " + USD_WALLET));
+            // Stored as integers, not as 1999.0
+            assertEquals(0, count(db, "SELECT COUNT(*) FROM `transaction` WHERE typeof(amount) <> 'integer'"));
+        }
+
+        database = openMigrated();
+        ChunkedBackfill.runPending(database);
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        // The rollups equal the sum of the converted rows, so RollupMaintenance.check() finds nothing
+        assertEquals(1999 + 7, count(db, "SELECT SUM(total) FROM transaction_daily_rollup WHERE wallet_id = " + USD_WALLET));
+        assertEquals(45_000, count(db, "SELECT SUM(total) FROM transaction_monthly_rollup WHERE wallet_id = " + VND_WALLET));
+        assertTrue(RollupMaintenance.check(database).isEmpty());
+    }
+
+    // ===== 14 -> 15: local_day / local_month =====
+
+    @Test
+    public void migrate14To15_backfillStampsLocalDates() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 14)) {
+            insertLookups(db, "INTEGER");
+            db.beginTransaction();
+            try {
+                insertLedger(db, false, new long[3], new long[3]);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 15, false, Migrations.MIGRATION_14_15)) {
+            // Added with their default; stamping is left to the backfill
+            assertEquals(TRANSACTIONS, count(db, "SELECT COUNT(*) FROM `transaction` WHERE local_day = 0 AND local_month = 0"));
+            assertEquals(1, count(db, "SELECT COUNT(*) FROM backfill_progress WHERE name = 'local_dates'"));
+        }
+
+        database = openMigrated();
+        ChunkedBackfill.runPending(database);
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        assertFalse(ChunkedBackfill.hasPending(db));
+        assertLocalDatesStamped(db);
+    }
+
+    // ===== 16 -> 17: unused transaction indices dropped =====
+
+    @Test
+    public void migrate16To17_keepsOnlyTheQueriedIndices() throws IOException {
+        helper.createDatabase(TEST_DB, 16).close();
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 17, false, Migrations.MIGRATION_16_17)) {
+            // The five of Transaction's @Index list; validation above checks which ones
+            assertEquals(5, count(db, "SELECT COUNT(*) FROM sqlite_master " +
+                    "WHERE type = 'index' AND tbl_name = 'transaction' AND name LIKE 'index_%'"));
+        }
+    }
+
+    // ===== Helpers =====
+
+    /** The migrated file opened the way the app opens it: all migrations, triggers on open */
+    private AppDatabase openMigrated() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        return Room.databaseBuilder(context, AppDatabase.class, TEST_DB)
+                .addMigrations(Migrations.ALL)
+                .addCallback(new RoomDatabase.Callback() {
+                    @Override
+                    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                        AppDatabase.createTriggers(db);
+                    }
+                })
+                .build();
+    }
+
+    /** Every row carries the local date Java computes for its created_at */
+    private static void assertLocalDatesStamped(SupportSQLiteDatabase db) {
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM `transaction` WHERE local_day = 0 OR local_month = 0"));
+        try (Cursor cursor = db.query("SELECT created_at, local_day, local_month FROM `transaction`")) {
+            while (cursor.moveToNext()) {
+                long createdAt = cursor.getLong(0);
+                assertEquals(DateKeys.dayKey(createdAt), cursor.getInt(1));
+                assertEquals(DateKeys.monthKey(createdAt), cursor.getInt(2));
+            }
+        }
+    }
+
+    /**
+     * One user, the two wallets and two categories. Balances are written as
+     * major units when money is still REAL (before version 13).
+     */
+    private static void insertLookups(SupportSQLiteDatabase db, String money) {
+        boolean major = "REAL".equals(money);
+        db.execSQL("INSERT INTO user (id, username, password, created_at) VALUES (1, 'test', 'test', 0)");
+        db.execSQL("INSERT INTO wallet (id, name, type, currency, balance, is_active, created_at, updated_at, user_id) " +
+                "VALUES (" + VND_WALLET + ", 'Tiền mặt', 'cash', 'VND', " + (major ? "5000000.0" : "5000000") + ", 1, 0, 0, 1)");
+        db.execSQL("INSERT INTO wallet (id, name, type, currency, balance, is_active, created_at, updated_at, user_id) " +
+                "VALUES (" + USD_WALLET + ", 'Card', 'bank', 'USD', " + (major ? "1234.56" : "123456") + ", 1, 0, 0, 1)");
+        db.execSQL("INSERT INTO category (id, name, type, icon) VALUES (1, 'Ăn uống', 'expense', 'ic_food')");
+        db.execSQL("INSERT INTO category (id, name, type, icon) VALUES (2, 'Lương', 'income', 'ic_salary')");
+    }
+
+    /**
+     * TRANSACTIONS rows over the last two years. Amounts are whole cents, so
+     * the expected minor-unit sums per wallet are exact; major writes them
+     * as REAL major units, as stored before version 13.
+     */
+    private static void insertLedger(SupportSQLiteDatabase db, boolean major,
+                                     long[] expectedMinor, long[] expectedCount) {
+        Random random = new Random(7);
+        long now = System.currentTimeMillis();
+        SupportSQLiteStatement insert = db.compileStatement(
+                "INSERT INTO `transaction` (id, wallet_id, category_id, user_id, amount, description, is_recurring, " +
+                        "created_at, updated_at, type) VALUES (?, ?, ?, 1, ?, ?, 0, ?, ?, ?)");
+        try {
+            for (int id = 1; id <= TRANSACTIONS; id++) {
+                int wallet = random.nextInt(3) == 0 ? USD_WALLET : VND_WALLET;
+                boolean income = random.nextInt(10) == 0;
+                long minor = wallet == USD_WALLET ? 1 + random.nextInt(50_000) : 1_000 * (1 + random.nextInt(500));
+                long createdAt = now - (long) (random.nextDouble() * 730 * DAY_MILLIS);
+
+                insert.bindLong(1, id);
+                insert.bindLong(2, wallet);
+                insert.bindLong(3, income ? 2 : 1);
+                if (major) {
+                    insert.bindDouble(4, wallet == USD_WALLET ? minor / 100.0 : minor);
+                } else {
+                    insert.bindLong(4, minor);
+                }
+                insert.bindString(5, DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]);
+                insert.bindLong(6, createdAt);
+                insert.bindLong(7, createdAt);
+                insert.bindString(8, income ? "income" : "expense");
+                insert.executeInsert();
+                insert.clearBindings();
+
+                expectedMinor[wallet] += minor;
+                expectedCount[wallet]++;
+            }
+        } finally {
+            try {
+                insert.close();
+            } catch (IOException ignored) {
+                // Closing a compiled statement only releases it
+            }
+        }
+    }
+
+    private static void insertTransaction(SupportSQLiteDatabase db, int id, int walletId, double amount,
+                                          String description, long createdAt) {
+        db.execSQL("INSERT INTO `transaction` (id, wallet_id, category_id, user_id, amount, description, " +
+                        "is_recurring, created_at, updated_at, type) VALUES (?, ?, 1, 1, ?, ?, 0, ?, ?, 'expense')",
+                new Object[]{id, walletId, amount, description, createdAt, createdAt});
+    }
+
+    private static long count(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            assertTrue(sql, cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+}
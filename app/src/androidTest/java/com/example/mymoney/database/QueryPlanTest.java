@@ -0,0 +1,205 @@
+package com.example.mymoney.database;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.mymoney.database.dao.RollupDao;
+import com.example.mymoney.database.dao.TransactionDao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * EXPLAIN QUERY PLAN over the statements the DAOs really send.
+ *
+ * Each check calls a DAO method; Room's query callback records the SQL and
+ * bind arguments it executed, and every recorded SELECT is explained on the
+ * same database. A step that scans (including "SCAN ... USING INDEX", a full
+ * index walk), sorts in a temp B-tree or builds an automatic index fails the
+ * test unless it is on that check's allow-list below.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+
+    // ===== Allow-list: plan steps that are expected, and why =====
+
+    /**
+     * FTS4 MATCH. The full-text lookup is reported as a SCAN of the virtual
+     * table; index 0 would be a real scan of every document, any other
+     * index number is the MATCH going through the full-text index.
+     */
+    private static final String FTS_MATCH = "SCAN (TABLE )?transaction_fts VIRTUAL TABLE INDEX [1-9].*";
+
+    /** Search relevance, length(offsets()), is computed per matched row and can't come from an index */
+    private static final String RELEVANCE_SORT = "USE TEMP B-TREE FOR ORDER BY";
+
+    /** Category totals are grouped by the joined category name ... */
+    private static final String CATEGORY_GROUPING = "USE TEMP B-TREE FOR GROUP BY";
+
+    /** ... and ordered by the sum, largest first */
+    private static final String TOTAL_SORT = "USE TEMP B-TREE FOR ORDER BY";
+
+    private static final Pattern BAD_STEP = Pattern.compile(".*(SCAN|TEMP B-TREE|AUTOMATIC).*");
+
+    /** One statement recorded by the query callback */
+    private static final class Statement {
+        final String sql;
+        final Object[] args;
+
+        Statement(String sql, List<?> args) {
+            this.sql = sql;
+            this.args = args.toArray();
+        }
+    }
+
+    private AppDatabase db;
+    private final List<Statement> recorded = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = TestDatabases.inMemory(context)
+                .setQueryCallback((sql, args) -> recorded.add(new Statement(sql, args)), Runnable::run)
+                .build();
+        List<Integer> categories = TestDatabases.seedLookups(db);
+        TestDatabases.seedTransactions(db, categories, 3_000, 400);
+        StatisticsCache.getInstance().invalidateAll();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        StatisticsCache.getInstance().invalidateAll();
+    }
+
+    // ===== History: keyset pages and full-text search =====
+
+    @Test
+    public void historyPages_useIndices() {
+        TransactionDao dao = db.transactionDao();
+        List<String> problems = new ArrayList<>();
+        check(problems, "getTransactionPageByWallet",
+                () -> dao.getTransactionPageByWallet(TestDatabases.WALLET_ID, Long.MAX_VALUE, Integer.MAX_VALUE, 50));
+        check(problems, "getTransactionPageByWalletAndType",
+                () -> dao.getTransactionPageByWalletAndType(TestDatabases.WALLET_ID, "expense", Long.MAX_VALUE, Integer.MAX_VALUE, 50));
+        check(problems, "getTransactionPageByUser",
+                () -> dao.getTransactionPageByUser(TestDatabases.USER_ID, Long.MAX_VALUE, Integer.MAX_VALUE, 50));
+        check(problems, "getTransactionPageByUserAndType",
+                () -> dao.getTransactionPageByUserAndType(TestDatabases.USER_ID, "income", Long.MAX_VALUE, Integer.MAX_VALUE, 50));
+        check(problems, "getListItemsByWalletSince",
+                () -> dao.getListItemsByWalletSince(TestDatabases.WALLET_ID, System.currentTimeMillis() - 7L * 24 * 60 * 60 * 1000));
+        check(problems, "getTransactionById", () -> dao.getTransactionById(1));
+        assertTrue(String.join("\n", problems), problems.isEmpty());
+    }
+
+    @Test
+    public void search_usesFullTextIndex() {
+        TransactionDao dao = db.transactionDao();
+        String match = TransactionSearch.toMatchQuery("uống");
+        List<String> problems = new ArrayList<>();
+        check(problems, "search", () -> dao.search(match, TestDatabases.WALLET_ID, null, 50, 0),
+                FTS_MATCH, RELEVANCE_SORT);
+        check(problems, "search(type)", () -> dao.search(match, TestDatabases.WALLET_ID, "expense", 50, 0),
+                FTS_MATCH, RELEVANCE_SORT);
+        check(problems, "searchByUser", () -> dao.searchByUser(match, TestDatabases.USER_ID, null, 50, 0),
+                FTS_MATCH, RELEVANCE_SORT);
+        assertTrue(String.join("\n", problems), problems.isEmpty());
+
+        // The data really is reachable through the folded index
+        assertFalse(dao.search(match, TestDatabases.WALLET_ID, null, 50, 0).isEmpty());
+    }
+
+    // ===== Statistics / Home / chatbot: rollup reads =====
+
+    @Test
+    public void rollupQueries_useIndices() {
+        RollupDao dao = db.rollupDao();
+        int today = DateKeys.dayKey(System.currentTimeMillis());
+        int monthStart = today / 100 * 100 + 1;
+        List<String> problems = new ArrayList<>();
+        // Category totals, monthly totals, period totals and daily series in one go
+        check(problems, "loadStatisticsBundle",
+                () -> dao.loadStatisticsBundle(TestDatabases.USER_ID, TestDatabases.WALLET_ID, monthStart, today,
+                        today / 10000, StatisticsCache.getInstance()),
+                CATEGORY_GROUPING, TOTAL_SORT);
+        check(problems, "getTopExpensesByDayRange",
+                () -> dao.getTopExpensesByDayRange(TestDatabases.USER_ID, TestDatabases.WALLET_ID, monthStart, today),
+                CATEGORY_GROUPING, TOTAL_SORT);
+        check(problems, "getRecentActiveDays", () -> dao.getRecentActiveDays(TestDatabases.WALLET_ID, 7));
+        check(problems, "DashboardDao.getSummary",
+                () -> db.dashboardDao().getSummary(TestDatabases.WALLET_ID, DateKeys.monthKey(System.currentTimeMillis())));
+        check(problems, "getActiveWalletsByUserId", () -> db.walletDao().getActiveWalletsByUserId(TestDatabases.USER_ID));
+        assertTrue(String.join("\n", problems), problems.isEmpty());
+    }
+
+    // ===== Budget =====
+
+    @Test
+    public void budgetQueries_useIndices() {
+        RollupDao dao = db.rollupDao();
+        int since = DateKeys.addDays(DateKeys.dayKey(System.currentTimeMillis()), -30);
+        List<String> problems = new ArrayList<>();
+        check(problems, "getExpensesByCategorySinceDay", () -> dao.getExpensesByCategorySinceDay(since, "VND"),
+                CATEGORY_GROUPING, TOTAL_SORT);
+        check(problems, "getTotalSinceDay", () -> dao.getTotalSinceDay("expense", since, "VND"));
+        assertTrue(String.join("\n", problems), problems.isEmpty());
+    }
+
+    // ===== Helpers =====
+
+    /**
+     * Run the DAO call, then explain every SELECT it sent and add each plan
+     * step that is neither index-backed nor matched by allowed to problems.
+     */
+    private void check(List<String> problems, String name, Runnable daoCall, String... allowed) {
+        recorded.clear();
+        daoCall.run();
+        List<Statement> statements;
+        synchronized (recorded) {
+            statements = new ArrayList<>(recorded);
+        }
+
+        SupportSQLiteDatabase sqlite = db.getOpenHelper().getWritableDatabase();
+        int explained = 0;
+        for (Statement statement : statements) {
+            // Room's own invalidation bookkeeping is not ours to check
+            if (!statement.sql.trim().toUpperCase().startsWith("SELECT")
+                    || statement.sql.contains("room_table_modification_log")) {
+                continue;
+            }
+            explained++;
+            try (Cursor cursor = sqlite.query("EXPLAIN QUERY PLAN " + statement.sql, statement.args)) {
+                int detail = cursor.getColumnIndexOrThrow("detail");
+                while (cursor.moveToNext()) {
+                    String step = cursor.getString(detail);
+                    if (BAD_STEP.matcher(step).matches() && !isAllowed(step, allowed)) {
+                        problems.add(name + ": " + step + "\n    in " + statement.sql);
+                    }
+                }
+            }
+        }
+        if (explained == 0) {
+            problems.add(name + ": no SELECT recorded");
+        }
+    }
+
+    private static boolean isAllowed(String step, String[] allowed) {
+        for (String pattern : allowed) {
+            if (step.matches(pattern)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.mymoney.database;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.mymoney.database.entity.Category;
+import com.example.mymoney.database.entity.Transaction;
+import com.example.mymoney.database.entity.User;
+import com.example.mymoney.database.entity.Wallet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * In-memory AppDatabase set up like the app's (backfill table and triggers
+ * on open), and a deterministic ledger to run it against.
+ */
+final class TestDatabases {
+
+    static final int USER_ID = 1;
+    static final int WALLET_ID = 1;
+    static final int OTHER_WALLET_ID = 2;
+
+    private static final String[] EXPENSE_CATEGORIES = {"Ăn uống", "Tiền nhà", "Đi lại", "Điện nước", "Giải trí"};
+    private static final String[] INCOME_CATEGORIES = {"Lương", "Kinh doanh"};
+    private static final String[] DESCRIPTIONS = {
+            "Uống cà phê", "Đổ xăng", "Tiền điện tháng này", "Nước mía đường phố", "Ăn trưa", "Mua sách"
+    };
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private TestDatabases() {
+    }
+
+    static RoomDatabase.Builder<AppDatabase> inMemory(Context context) {
+        return Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(TRIGGERS);
+    }
+
+    /**
+     * A fresh database file, for timings where commits and fsyncs matter.
+     * Any file left by an earlier run is deleted first.
+     */
+    static RoomDatabase.Builder<AppDatabase> onDisk(Context context, String name) {
+        context.deleteDatabase(name);
+        return Room.databaseBuilder(context, AppDatabase.class, name)
+                .addCallback(TRIGGERS);
+    }
+
+    private static final RoomDatabase.Callback TRIGGERS = new RoomDatabase.Callback() {
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            AppDatabase.createTriggers(db);
+        }
+    };
+
+    /** One user, two VND wallets and the categories above; returns the expense category ids */
+    static List<Integer> seedLookups(AppDatabase db) {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setUsername("test");
+        user.setPassword("test");
+        user.setCreatedAt(System.currentTimeMillis());
+        db.userDao().insert(user);
+
+        for (int walletId : new int[]{WALLET_ID, OTHER_WALLET_ID}) {
+            Wallet wallet = new Wallet();
+            wallet.setId(walletId);
+            wallet.setName("Wallet " + walletId);
+            wallet.setType("cash");
+            wallet.setCurrency("VND");
+            wallet.setActive(true);
+            wallet.setUserId(USER_ID);
+            db.walletDao().insert(wallet);
+        }
+
+        List<Integer> expenseIds = new ArrayList<>();
+        for (String name : EXPENSE_CATEGORIES) {
+            expenseIds.add((int) db.categoryDao().insert(category(name, "expense")));
+        }
+        for (String name : INCOME_CATEGORIES) {
+            db.categoryDao().insert(category(name, "income"));
+        }
+        return expenseIds;
+    }
+
+    private static Category category(String name, String type) {
+        Category category = new Category();
+        category.setName(name);
+        category.setType(type);
+        category.setIcon("ic_other");
+        return category;
+    }
+
+    /**
+     * count transactions spread over the last days days, newest last, in
+     * batches through TransactionDao.insertAll like an import.
+     */
+    static void seedTransactions(AppDatabase db, List<Integer> categoryIds, int count, int days) {
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long createdAt = now - (long) (days * DAY_MILLIS * (1 - (i + 1) / (double) count));
+            batch.add(transaction(random.nextInt(4) == 0 ? OTHER_WALLET_ID : WALLET_ID,
+                    categoryIds.get(random.nextInt(categoryIds.size())),
+                    random.nextInt(10) == 0 ? "income" : "expense",
+                    1_000 + random.nextInt(500_000),
+                    DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)],
+                    createdAt));
+            if (batch.size() == 500) {
+                db.transactionDao().insertAll(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        db.transactionDao().insertAll(batch);
+    }
+
+    static Transaction transaction(int walletId, int categoryId, String type, long amount,
+                                   String description, long createdAt) {
+        Transaction transaction = new Transaction();
+        transaction.setUserId(USER_ID);
+        transaction.setWalletId(walletId);
+        transaction.setCategoryId(categoryId);
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        transaction.setDescription(description);
+        transaction.setCreatedAt(createdAt);
+        transaction.setUpdatedAt(createdAt);
+        return transaction;
+    }
+}
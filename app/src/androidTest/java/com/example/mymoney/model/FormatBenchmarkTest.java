@@ -0,0 +1,97 @@
+package com.example.mymoney.model;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Micro-benchmark of the row labels on the device: MoneyFormatter and
+ * DateLabelFormatter against the String.format / new SimpleDateFormat per
+ * row they replaced. Each loop is warmed up, then the median of several
+ * runs is logged and compared.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FormatBenchmarkTest {
+
+    private static final String TAG = "FormatBenchmarkTest";
+    private static final int ROWS = 20_000;
+    private static final int RUNS = 7;
+
+    private final long[] amounts = new long[ROWS];
+    private final long[] times = new long[ROWS];
+    // Written by every loop so the JIT cannot drop the work
+    private int sink;
+
+    public FormatBenchmarkTest() {
+        Random random = new Random(3);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ROWS; i++) {
+            amounts[i] = 1_000 + random.nextInt(50_000_000);
+            times[i] = now - (long) (random.nextDouble() * 365 * 24 * 60 * 60 * 1000);
+        }
+    }
+
+    @Test
+    public void moneyFormatter_beatsStringFormat() {
+        long formatter = median(() -> {
+            for (long amount : amounts) {
+                sink += MoneyFormatter.formatSigned(amount, false, "VND").length();
+            }
+        });
+        long stringFormat = median(() -> {
+            for (long amount : amounts) {
+                String number = String.format(Locale.getDefault(), "%,.0f", BigDecimal.valueOf(amount));
+                sink += ("-" + number + " VND").length();
+            }
+        });
+        log("amount", formatter, stringFormat);
+        assertTrue(formatter < stringFormat);
+    }
+
+    @Test
+    public void dateLabelFormatter_beatsSimpleDateFormatPerRow() {
+        long formatter = median(() -> {
+            for (long time : times) {
+                sink += DateLabelFormatter.time(time).length();
+            }
+        });
+        long simpleDateFormat = median(() -> {
+            for (long time : times) {
+                sink += new SimpleDateFormat("HH:mm", Locale.getDefault()).format(new Date(time)).length();
+            }
+        });
+        log("time", formatter, simpleDateFormat);
+        assertTrue(formatter < simpleDateFormat);
+    }
+
+    /** Median wall time of RUNS runs after two warm-up runs, in nanoseconds */
+    private static long median(Runnable loop) {
+        loop.run();
+        loop.run();
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            loop.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[RUNS / 2];
+    }
+
+    private void log(String label, long newNanos, long oldNanos) {
+        Log.d(TAG, "⏱ " + label + " x" + ROWS + ": " + newNanos / ROWS + " ns/row vs "
+                + oldNanos / ROWS + " ns/row before (sink " + sink + ")");
+    }
+}
@@ -63,18 +63,12 @@ public class AIChatFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         
-        currentUserId = MainActivity.getCurrentUserId();
-        currentWalletId = MainActivity.getSelectedWalletId();
-        
         // Initialize views
         chatRecyclerView = view.findViewById(R.id.chat_recycler_view);
         messageInput = view.findViewById(R.id.message_input);
         sendButton = view.findViewById(R.id.send_button);
         
-        // Setup RecyclerView with cached or new adapter
-        setupChatAdapter();
         chatRecyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
-        chatRecyclerView.setAdapter(chatAdapter);
         
         // Initialize chatbot service
         chatbotService = new ChatbotService(requireContext());
@@ -85,6 +79,21 @@ public class AIChatFragment extends Fragment {
         // Setup send button
         sendButton.setOnClickListener(v -> sendMessage());
         
+        // Show the chat of the selected wallet, and switch chats when the wallet changes
+        MainActivity.getSelectedWalletLiveData().observe(getViewLifecycleOwner(), this::bindChat);
+    }
+
+    /**
+     * Attach the cached (or a new) chat for the current user + wallet
+     */
+    private void bindChat(int walletId) {
+        currentUserId = MainActivity.getCurrentUserId();
+        currentWalletId = walletId;
+
+        // Setup RecyclerView with cached or new adapter
+        setupChatAdapter();
+        chatRecyclerView.setAdapter(chatAdapter);
+
         // Add welcome message if this is a new chat
         if (chatAdapter.getItemCount() == 0) {
             addWelcomeMessage();
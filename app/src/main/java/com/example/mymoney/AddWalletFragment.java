@@ -14,8 +14,9 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
-import com.example.mymoney.database.AppDatabase;
+import com.example.mymoney.database.LedgerRepository;
 import com.example.mymoney.database.entity.Wallet;
+import com.example.mymoney.model.Money;
 
 public class AddWalletFragment extends Fragment {
 
@@ -151,9 +152,9 @@ public class AddWalletFragment extends Fragment {
             return;
         }
 
-        double balance;
+        long balance;
         try {
-            balance = Double.parseDouble(balanceStr);
+            balance = Money.parseMinor(balanceStr, selectedCurrency);
         } catch (NumberFormatException e) {
             Toast.makeText(getContext(), "Please enter a valid balance amount", Toast.LENGTH_SHORT).show();
             etBalance.requestFocus();
@@ -175,33 +176,28 @@ public class AddWalletFragment extends Fragment {
             wallet.setActive(true);
             wallet.setUserId(MainActivity.getCurrentUserId());
             
-            // Insert wallet in background thread
-            AppDatabase db = AppDatabase.getInstance(getContext());
-            new Thread(() -> {
-                try {
-                    long walletId = db.walletDao().insert(wallet);
-
-                    // Show success message on UI thread
-                    if (getActivity() != null) {
+            // Insert wallet through the ledger writer
+            LedgerRepository.getInstance(requireContext()).addWallet(wallet)
+                    .whenComplete((walletId, error) -> {
+                        if (getActivity() == null) return;
+
+                        // Show result on UI thread
                         getActivity().runOnUiThread(() -> {
+                            if (error != null) {
+                                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                                Toast.makeText(getContext(), "Error saving wallet: " + cause.getMessage(),
+                                        Toast.LENGTH_SHORT).show();
+                                btnSave.setEnabled(true);
+                                return;
+                            }
                             Toast.makeText(getContext(), "Wallet saved successfully!", Toast.LENGTH_SHORT).show();
-                            
+
                             if (getActivity() != null) {
                                 getActivity().getSupportFragmentManager().popBackStack(null,
                                         androidx.fragment.app.FragmentManager.POP_BACK_STACK_INCLUSIVE);
                             }
                         });
-                    }
-                } catch (Exception e) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            Toast.makeText(getContext(), "Error saving wallet: " + e.getMessage(),
-                                    Toast.LENGTH_SHORT).show();
-                            btnSave.setEnabled(true);
-                        });
-                    }
-                }
-            }).start();
+                    });
         }
     }
 }
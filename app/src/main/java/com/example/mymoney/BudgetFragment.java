@@ -17,10 +17,12 @@ import android.widget.TextView;
 import androidx.fragment.app.Fragment;
 
 import com.example.mymoney.database.AppDatabase;
-import com.example.mymoney.database.dao.TransactionDao;
+import com.example.mymoney.database.DateKeys;
+import com.example.mymoney.database.dao.RollupDao;
+import com.example.mymoney.database.entity.Wallet;
 import com.example.mymoney.model.CategoryExpense;
+import com.example.mymoney.model.Money;
 
-import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
@@ -41,8 +43,8 @@ public class BudgetFragment extends Fragment {
 
     // ==== Data / Storage ====
     private SharedPreferences prefs;
-    private TransactionDao transactionDao;
-    private final DecimalFormat df = new DecimalFormat("#,###");
+    private AppDatabase database;
+    private RollupDao rollupDao;
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
 
     // Lưu lại nội dung kết quả đã tính toán (HTML)
@@ -93,7 +95,8 @@ public class BudgetFragment extends Fragment {
         // ✅ Init storage & DAO
         // ---------------------------------------------------
         prefs = requireContext().getSharedPreferences("budget_prefs", Context.MODE_PRIVATE);
-        transactionDao = AppDatabase.getInstance(requireContext()).transactionDao();
+        database = AppDatabase.getInstance(requireContext());
+        rollupDao = database.rollupDao();
 
         // ---------------------------------------------------
         // ✅ Trạng thái mặc định (ẩn các nút)
@@ -129,8 +132,32 @@ public class BudgetFragment extends Fragment {
 
 
     // ==== Utils ====
-    private long floorToThousand(double value) {
-        return (long) (Math.floor(value / 1000) * 1000);
+    // Mọi số tiền của kế hoạch (prefs "target", "income", "limit_*", ...) là
+    // minor units của tiền tệ kế hoạch, lưu ở prefs "currency" (xem Money)
+
+    /** Currency of the plan: the one it was made in, VND for plans from before currencies */
+    private String planCurrency() {
+        return prefs.getString("currency", Money.DEFAULT_CURRENCY);
+    }
+
+    /** Currency of the selected wallet, VND when all wallets are shown. Off the main thread */
+    private String selectedWalletCurrency() {
+        Wallet wallet = database.walletDao().getWalletById(MainActivity.getSelectedWalletId());
+        return wallet != null && wallet.getCurrency() != null ? wallet.getCurrency() : Money.DEFAULT_CURRENCY;
+    }
+
+    /** Rounding step in minor units: 1.000 đồng, a whole unit in currencies with cents */
+    private static long roundingStep(String currency) {
+        return Money.DEFAULT_CURRENCY.equals(currency) ? 1000 : Money.scale(currency);
+    }
+
+    private static long floorToStep(long minor, String currency) {
+        long step = roundingStep(currency);
+        return Math.floorDiv(minor, step) * step;
+    }
+
+    private static long floorToStep(double minor, String currency) {
+        return floorToStep((long) Math.floor(minor), currency);
     }
 
     // ==== Tính toán ngân sách ban đầu ====
@@ -149,13 +176,13 @@ public class BudgetFragment extends Fragment {
         }
 
         try {
-            double target = Double.parseDouble(targetStr);
+            // Kế hoạch theo tiền tệ của ví đang chọn; chỉ chi tiêu của các ví cùng tiền tệ được cộng
+            String currency = selectedWalletCurrency();
             double months = Double.parseDouble(monthsStr);
-            double income = Double.parseDouble(incomeStr);
 
-            long targetVal = floorToThousand(target);
+            long targetVal = floorToStep(Money.parseMinor(targetStr, currency), currency);
             long monthsVal = (long) Math.floor(months);
-            long incomeVal = floorToThousand(income);
+            long incomeVal = floorToStep(Money.parseMinor(incomeStr, currency), currency);
 
             if (monthsVal <= 0) {
                 requireActivity().runOnUiThread(() -> {
@@ -165,8 +192,8 @@ public class BudgetFragment extends Fragment {
                 return;
             }
 
-            long savingPerMonth = floorToThousand((double) targetVal / monthsVal);
-            long maxExpensePerMonth = floorToThousand(incomeVal - savingPerMonth);
+            long savingPerMonth = floorToStep((double) targetVal / monthsVal, currency);
+            long maxExpensePerMonth = floorToStep(incomeVal - savingPerMonth, currency);
 
             if (maxExpensePerMonth < 0) {
                 requireActivity().runOnUiThread(() -> {
@@ -180,20 +207,20 @@ public class BudgetFragment extends Fragment {
             cal.add(Calendar.MONTH, -3);
             long fromDate = cal.getTimeInMillis();
 
-            List<CategoryExpense> expenses = transactionDao.getExpensesByCategorySince(fromDate);
+            List<CategoryExpense> expenses = rollupDao.getExpensesByCategorySinceDay(DateKeys.dayKey(fromDate), currency);
 
-            double totalExpense3M = 0;
+            long totalExpense3M = 0;
             for (CategoryExpense e : expenses) totalExpense3M += e.total;
 
-            long totalSpent = floorToThousand(totalExpense3M);
-            if (totalSpent <= 0) totalSpent = 1000;
+            long totalSpent = floorToStep(totalExpense3M, currency);
+            if (totalSpent <= 0) totalSpent = roundingStep(currency);
 
             StringBuilder result = new StringBuilder();
-            result.append("<b>Mục tiêu:</b> ").append(df.format(targetVal))
-                    .append(" VND trong ").append(monthsVal).append(" tháng<br>");
-            result.append("<b>Thu nhập hàng tháng:</b> ").append(df.format(incomeVal)).append(" VND<br>");
-            result.append("<b>Tiết kiệm mỗi tháng:</b> ").append(df.format(savingPerMonth)).append(" VND<br>");
-            result.append("<b>Chi tiêu tối đa mỗi tháng:</b> ").append(df.format(maxExpensePerMonth)).append(" VND<br><br>");
+            result.append("<b>Mục tiêu:</b> ").append(Money.format(targetVal, currency))
+                    .append(" trong ").append(monthsVal).append(" tháng<br>");
+            result.append("<b>Thu nhập hàng tháng:</b> ").append(Money.format(incomeVal, currency)).append("<br>");
+            result.append("<b>Tiết kiệm mỗi tháng:</b> ").append(Money.format(savingPerMonth, currency)).append("<br>");
+            result.append("<b>Chi tiêu tối đa mỗi tháng:</b> ").append(Money.format(maxExpensePerMonth, currency)).append("<br><br>");
 
             // ✅ DÙNG 1 editor DUY NHẤT
             SharedPreferences.Editor editor = prefs.edit();
@@ -201,9 +228,9 @@ public class BudgetFragment extends Fragment {
             result.append("<b>Phân bổ chi tiêu theo thói quen 3 tháng gần nhất:</b><br><br>");
             for (CategoryExpense e : expenses) {
 
-                long spentCategory = floorToThousand(e.total);
+                long spentCategory = floorToStep(e.total, currency);
                 double ratio = (double) spentCategory / totalSpent;
-                long suggestedPerMonth = floorToThousand(ratio * maxExpensePerMonth);
+                long suggestedPerMonth = floorToStep(ratio * maxExpensePerMonth, currency);
 
                 // ✅ LƯU CHÍNH XÁC GIỚI HẠN TỪNG CATEGORY
                 editor.putLong("limit_" + e.category, suggestedPerMonth);
@@ -211,11 +238,12 @@ public class BudgetFragment extends Fragment {
                 result.append("• <b>")
                         .append(e.category)
                         .append("</b>: tối đa ")
-                        .append(df.format(suggestedPerMonth))
-                        .append(" VND/tháng<br>");
+                        .append(Money.format(suggestedPerMonth, currency))
+                        .append("/tháng<br>");
             }
 
             // ✅ LƯU CÁC THAM SỐ CƠ BẢN
+            editor.putString("currency", currency);
             editor.putLong("target", targetVal);
             editor.putLong("months", monthsVal);
             editor.putLong("income", incomeVal);
@@ -266,7 +294,7 @@ public class BudgetFragment extends Fragment {
         layoutSavingSection.setVisibility(View.VISIBLE);   // ✅ HIỆN LÊN ĐÚNG CHỖ
 
         String startText = "<br><b>Bắt đầu tiết kiệm từ ngày:</b> " + startDate + "<br>";
-        String savedText = "<b>Tiền đã tiết kiệm:</b> " + df.format(savedManual) + " VND<br><br>";
+        String savedText = "<b>Tiền đã tiết kiệm:</b> " + Money.format(savedManual, planCurrency()) + "<br><br>";
 
         String finalText = summary + startText + savedText;
 
@@ -299,7 +327,7 @@ public class BudgetFragment extends Fragment {
 
         String startDate = dateFormat.format(new Date(startTime));
         String startText = "<br><b>Bắt đầu tiết kiệm từ ngày:</b> " + startDate + "<br>";
-        String savedText = "<b>Tiền đã tiết kiệm:</b> " + df.format(savedManual) + " VND<br><br>";
+        String savedText = "<b>Tiền đã tiết kiệm:</b> " + Money.format(savedManual, planCurrency()) + "<br><br>";
 
         String finalText = summary + startText + savedText;
 
@@ -350,6 +378,7 @@ public class BudgetFragment extends Fragment {
             return;
         }
 
+        String currency = planCurrency();
         long target = prefs.getLong("target", 0);
         long savingPerMonth = prefs.getLong("savingPerMonth", 0);
         long maxExpensePerMonth = prefs.getLong("maxExpensePerMonth", 0);
@@ -365,18 +394,18 @@ public class BudgetFragment extends Fragment {
         if (remainToPlan < 0) remainToPlan = 0;
 
         // ==== Chi tiêu tháng này ====
-        long expenseThisMonth = getExpenseThisMonth();
+        long expenseThisMonth = getExpenseThisMonth(currency);
         long monthLeft = maxExpensePerMonth - expenseThisMonth;
         if (monthLeft < 0) monthLeft = 0;
 
         // ==== LẤY DANH SÁCH CHI TIÊU THEO DANH MỤC ====
-        List<CategoryExpense> expenses = transactionDao.getExpensesByCategorySince(savingStart);
+        List<CategoryExpense> expenses = rollupDao.getExpensesByCategorySinceDay(DateKeys.dayKey(savingStart), currency);
 
         // ===== KIỂM TRA VƯỢT TỔNG HOẶC VƯỢT DANH MỤC =====
         boolean isExceeded = expenseThisMonth > maxExpensePerMonth;
 
         for (CategoryExpense ce : expenses) {
-            long spentCat = floorToThousand(ce.total);
+            long spentCat = floorToStep(ce.total, currency);
             long limitCat = prefs.getLong("limit_" + ce.category, 0);
 
             if (spentCat > limitCat) {
@@ -391,19 +420,19 @@ public class BudgetFragment extends Fragment {
         result.append("<b>Đã qua:</b> ").append(daysPassed).append(" ngày<br><br>");
 
         // ==== TIẾT KIỆM ====
-        result.append("<b>Tiền đã tiết kiệm:</b> ").append(df.format(savedManual)).append(" VND<br>");
-        result.append("<b>Cần đạt theo tháng:</b> ").append(df.format(plannedSavedToDate)).append(" VND<br>");
-        result.append("<b>Còn thiếu:</b> ").append(df.format(remainToPlan)).append(" VND<br><br>");
+        result.append("<b>Tiền đã tiết kiệm:</b> ").append(Money.format(savedManual, currency)).append("<br>");
+        result.append("<b>Cần đạt theo tháng:</b> ").append(Money.format(plannedSavedToDate, currency)).append("<br>");
+        result.append("<b>Còn thiếu:</b> ").append(Money.format(remainToPlan, currency)).append("<br><br>");
 
         // ==== CHI TIÊU ====
         result.append("<b>Tháng này được tiêu tối đa:</b> ")
-                .append(df.format(maxExpensePerMonth)).append(" VND<br>");
+                .append(Money.format(maxExpensePerMonth, currency)).append("<br>");
 
         result.append("<b>Đã tiêu tháng này:</b> ")
-                .append(df.format(expenseThisMonth)).append(" VND<br>");
+                .append(Money.format(expenseThisMonth, currency)).append("<br>");
 
         result.append("<b>Còn lại trong tháng:</b> ")
-                .append(df.format(monthLeft)).append(" VND<br><br>");
+                .append(Money.format(monthLeft, currency)).append("<br><br>");
 
         // ==== TRẠNG THÁI NGÂN SÁCH ====
         if (isExceeded) {
@@ -418,12 +447,12 @@ public class BudgetFragment extends Fragment {
 
         for (CategoryExpense ce : expenses) {
 
-            long spentCat = floorToThousand(ce.total);
+            long spentCat = floorToStep(ce.total, currency);
             long perMonthLimit = prefs.getLong("limit_" + ce.category, 0);
 
             result.append("• <b>").append(ce.category).append("</b>: ")
-                    .append(df.format(spentCat)).append("/")
-                    .append(df.format(perMonthLimit)).append(" VND ");
+                    .append(Money.formatNumber(spentCat, currency)).append("/")
+                    .append(Money.format(perMonthLimit, currency)).append(" ");
 
             if (spentCat > perMonthLimit) {
                 result.append("<font color='red'>(vượt)</font>");
@@ -464,9 +493,10 @@ public class BudgetFragment extends Fragment {
             return;
         }
 
+        String currency = planCurrency();
         long added;
         try {
-            added = floorToThousand(Double.parseDouble(savedStr));
+            added = floorToStep(Money.parseMinor(savedStr, currency), currency);
             if (added <= 0) throw new NumberFormatException();
         } catch (Exception ex) {
             new android.app.AlertDialog.Builder(requireContext())
@@ -495,8 +525,8 @@ public class BudgetFragment extends Fragment {
 
         new android.app.AlertDialog.Builder(requireContext())
                 .setTitle("Thành công")
-                .setMessage("Đã cộng thêm: " + df.format(added)
-                        + " VND\nTổng tiền đã tiết kiệm: " + df.format(newTotal) + " VND")
+                .setMessage("Đã cộng thêm: " + Money.format(added, currency)
+                        + "\nTổng tiền đã tiết kiệm: " + Money.format(newTotal, currency))
                 .setPositiveButton("OK", (dialog, which) -> {
 
                     // ✅ Cập nhật lại toàn bộ nội dung phần text (summary + ngày)
@@ -505,16 +535,18 @@ public class BudgetFragment extends Fragment {
                 .show();
     }
 
-    private long getExpenseThisMonth() {
+    private long getExpenseThisMonth(String currency) {
         Calendar c = Calendar.getInstance();
         c.set(Calendar.DAY_OF_MONTH, 1); // đầu tháng
         long from = c.getTimeInMillis(); // từ đầu tháng
-        return floorToThousand(
-                transactionDao.getTotalExpenseSince(from)
+        return floorToStep(
+                rollupDao.getTotalSinceDay("expense", DateKeys.dayKey(from), currency),
+                currency
         );
     }
     private void recalcBudgetAutomatically() {
 
+        String currency = planCurrency();
         long income = prefs.getLong("income", 0);
         long target = prefs.getLong("target", 0);
         long months = prefs.getLong("months", 0);
@@ -524,30 +556,30 @@ public class BudgetFragment extends Fragment {
         }
 
         // Tính lại
-        long savingPerMonth = floorToThousand((double) target / months);
-        long maxExpensePerMonth = floorToThousand(income - savingPerMonth);
+        long savingPerMonth = floorToStep((double) target / months, currency);
+        long maxExpensePerMonth = floorToStep(income - savingPerMonth, currency);
 
         // Dữ liệu 3 tháng gần nhất
         Calendar cal = Calendar.getInstance();
         cal.add(Calendar.MONTH, -3);
         long fromDate = cal.getTimeInMillis();
 
-        List<CategoryExpense> expenses = transactionDao.getExpensesByCategorySince(fromDate);
+        List<CategoryExpense> expenses = rollupDao.getExpensesByCategorySinceDay(DateKeys.dayKey(fromDate), currency);
 
-        double totalSpent3M = 0;
+        long totalSpent3M = 0;
         for (CategoryExpense e : expenses) totalSpent3M += e.total;
 
-        long totalSpent = floorToThousand(totalSpent3M);
-        if (totalSpent < 1000) totalSpent = 1000;
+        long totalSpent = floorToStep(totalSpent3M, currency);
+        if (totalSpent < roundingStep(currency)) totalSpent = roundingStep(currency);
 
         SharedPreferences.Editor editor = prefs.edit();
         editor.putLong("savingPerMonth", savingPerMonth);
         editor.putLong("maxExpensePerMonth", maxExpensePerMonth);
 
         for (CategoryExpense e : expenses) {
-            long spentCat = floorToThousand(e.total);
+            long spentCat = floorToStep(e.total, currency);
             double ratio = (double) spentCat / totalSpent;
-            long newLimit = floorToThousand(ratio * maxExpensePerMonth);
+            long newLimit = floorToStep(ratio * maxExpensePerMonth, currency);
             editor.putLong("limit_" + e.category, newLimit);
         }
 
@@ -3,9 +3,9 @@ package com.example.mymoney;
 // Class dùng để nhận kết quả từ truy vấn getTopExpenses()
 public class CategoryTotal {
     public String category;
-    public double total;
+    public long total;
 
-    public CategoryTotal(String category, double total) {
+    public CategoryTotal(String category, long total) {
         this.category = category;
         this.total = total;
     }
@@ -13,15 +13,12 @@ import android.widget.ImageView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.mymoney.adapter.TransactionAdapter;
-import com.example.mymoney.database.AppDatabase;
-import com.example.mymoney.database.entity.Transaction;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.example.mymoney.viewmodel.HistoryViewModel;
 
 public class HistoryFragment extends Fragment {
 
@@ -29,8 +26,11 @@ public class HistoryFragment extends Fragment {
     private TransactionAdapter adapter;
     private EditText searchEditText;
     private ImageView filterIcon;
-    
-    private List<Transaction> allTransactions = new ArrayList<>();
+    // Pager, loaded pages and filters live in the activity-scoped ViewModel
+    private HistoryViewModel viewModel;
+
+    // Start loading the next page when this close to the end of the list
+    private static final int PREFETCH_DISTANCE = 10;
 
     @Override
     public void onAttach(@NonNull Context context) {
@@ -53,6 +53,7 @@ public class HistoryFragment extends Fragment {
         transactionsRecyclerView = view.findViewById(R.id.transactions_recycler_view);
         searchEditText = view.findViewById(R.id.search_edit_text);
         filterIcon = view.findViewById(R.id.filter_icon);
+        viewModel = new ViewModelProvider(requireActivity()).get(HistoryViewModel.class);
         
         // Set up RecyclerView
         setupRecyclerView();
@@ -60,31 +61,52 @@ public class HistoryFragment extends Fragment {
         // Set up search functionality
         setupSearch();
         
-        // Load transactions
-        loadTransactions();
-    }
-    
-    @Override
-    public void onResume() {
-        super.onResume();
-        // Reload transactions when fragment becomes visible
-        loadTransactions();
+        // Pages already loaded render straight from the ViewModel
+        viewModel.getTransactions().observe(getViewLifecycleOwner(), transactions -> {
+            adapter.setTransactions(transactions);
+            android.util.Log.d("HistoryFragment", transactions.size() + " transactions in memory");
+        });
+
+        // Load for the selected wallet; returning to the tab with the same wallet reuses the loaded pages
+        MainActivity.getSelectedWalletLiveData().observe(getViewLifecycleOwner(), walletId -> viewModel.reloadIfScopeChanged());
+
+        // Re-read the rows on screen when the ledger changes, including changes
+        // made while this screen was in the back stack; the scroll position is kept
+        viewModel.getLedgerChanges().observe(getViewLifecycleOwner(), tables -> viewModel.onLedgerChanged());
     }
     
     private void setupRecyclerView() {
-        transactionsRecyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        transactionsRecyclerView.setLayoutManager(layoutManager);
         adapter = new TransactionAdapter(
-            AppDatabase.getInstance(requireContext()),
             transaction -> {
                 // Handle transaction click - could open details dialog
                 // For now, just log it
-                android.util.Log.d("HistoryFragment", "Clicked transaction: " + transaction.getId());
+                android.util.Log.d("HistoryFragment", "Clicked transaction: " + transaction.id);
             }
         );
         transactionsRecyclerView.setAdapter(adapter);
+
+        // Tell the ViewModel which rows are on screen (also called after each layout),
+        // and load the next page when the user scrolls close to the end
+        transactionsRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                int firstVisible = layoutManager.findFirstVisibleItemPosition();
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (firstVisible != RecyclerView.NO_POSITION) {
+                    viewModel.setVisibleRange(firstVisible, lastVisible);
+                }
+                if (dy > 0 && lastVisible >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    viewModel.loadMore();
+                }
+            }
+        });
     }
     
     private void setupSearch() {
+        // Restore the query before listening, so it doesn't count as a new search
+        searchEditText.setText(viewModel.getSearchQuery());
         searchEditText.addTextChangedListener(new TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {
@@ -105,96 +127,10 @@ public class HistoryFragment extends Fragment {
 
     }
     
-    private void loadTransactions() {
-        android.util.Log.d("HistoryFragment", "loadTransactions() called - Current user: " + MainActivity.getCurrentUserId() + ", Selected wallet: " + MainActivity.getSelectedWalletId());
-        
-        new Thread(() -> {
-            try {
-                AppDatabase db = AppDatabase.getInstance(requireContext());
-                int walletId = MainActivity.getSelectedWalletId();
-                
-                // If no wallet selected, get all transactions for user
-                List<Transaction> transactions;
-                if (walletId == -1) {
-                    transactions = db.transactionDao().getTransactionsByUserId(MainActivity.getCurrentUserId());
-                    android.util.Log.d("HistoryFragment", "Loading all transactions for user " + MainActivity.getCurrentUserId() + ": " + transactions.size() + " found");
-                } else {
-                    transactions = db.transactionDao().getTransactionsByWalletId(walletId);
-                    android.util.Log.d("HistoryFragment", "Loading transactions for wallet " + walletId + ": " + transactions.size() + " found");
-                }
-                
-                allTransactions = transactions;
-                
-                // Update UI on main thread
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        adapter.setTransactions(transactions);
-                        android.util.Log.d("HistoryFragment", "Loaded " + transactions.size() + " transactions");
-                    });
-                }
-            } catch (Exception e) {
-                android.util.Log.e("HistoryFragment", "Error loading transactions", e);
-                e.printStackTrace();
-            }
-        }).start();
-    }
-    
     private void filterTransactions(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            adapter.setTransactions(allTransactions);
-            return;
-        }
-        
-        // Filter transactions by description or amount
-        new Thread(() -> {
-            try {
-                List<Transaction> filtered = new ArrayList<>();
-                String lowerQuery = query.toLowerCase();
-                
-                AppDatabase db = AppDatabase.getInstance(requireContext());
-                
-                for (Transaction transaction : allTransactions) {
-                    // Check description
-                    if (transaction.getDescription() != null && 
-                        transaction.getDescription().toLowerCase().contains(lowerQuery)) {
-                        filtered.add(transaction);
-                        continue;
-                    }
-                    
-                    // Check amount
-                    String amountStr = String.valueOf((int) transaction.getAmount());
-                    if (amountStr.contains(query)) {
-                        filtered.add(transaction);
-                        continue;
-                    }
-                    
-                    // Check category name
-                    com.example.mymoney.database.entity.Category category = 
-                        db.categoryDao().getCategoryById(transaction.getCategoryId());
-                    if (category != null && 
-                        category.getName().toLowerCase().contains(lowerQuery)) {
-                        filtered.add(transaction);
-                    }
-                }
-                
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        adapter.setTransactions(filtered);
-                    });
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }).start();
+        viewModel.setSearchQuery(query);
     }
     
-    /**
-     * Public method to refresh data from outside (e.g., after importing transaction)
-     */
-    public void refreshData() {
-        android.util.Log.d("HistoryFragment", "refreshData() called from MainActivity");
-        loadTransactions();
-    }
     private void showFilterDialog() {
         String[] options = {"Total", "Income", "Expense"};
 
@@ -204,7 +140,7 @@ public class HistoryFragment extends Fragment {
                     switch (which) {
                         case 0:
                             // Hiển thị tất cả
-                            adapter.setTransactions(allTransactions);
+                            filterByType(null);
                             break;
                         case 1:
                             filterByType("income");
@@ -218,18 +154,7 @@ public class HistoryFragment extends Fragment {
     }
 
     private void filterByType(String type) {
-        new Thread(() -> {
-            List<Transaction> filtered = new ArrayList<>();
-            for (Transaction t : allTransactions) {
-                if (t.getType() != null && t.getType().equalsIgnoreCase(type)) {
-                    filtered.add(t);
-                }
-            }
-
-            if (getActivity() != null) {
-                getActivity().runOnUiThread(() -> adapter.setTransactions(filtered));
-            }
-        }).start();
+        viewModel.setTypeFilter(type);
     }
 
 }
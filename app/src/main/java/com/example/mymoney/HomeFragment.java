@@ -9,26 +9,22 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.mymoney.adapter.DailyTransactionGroupAdapter;
+import com.example.mymoney.adapter.StickyHeaderDecoration;
 import com.example.mymoney.adapter.TransactionAdapter;
-import com.example.mymoney.database.AppDatabase;
-import com.example.mymoney.database.entity.Transaction;
-import com.example.mymoney.database.entity.Wallet;
-import com.example.mymoney.model.DailyTransactionGroup;
+import com.example.mymoney.database.LedgerRepository;
+import com.example.mymoney.model.DashboardSummary;
+import com.example.mymoney.model.DateLabelFormatter;
+import com.example.mymoney.model.Money;
+import com.example.mymoney.model.TransactionListItem;
 import com.example.mymoney.view.HalfDoughnutChartView;
+import com.example.mymoney.viewmodel.HomeViewModel;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 
 public class HomeFragment extends Fragment {
 
@@ -62,7 +58,7 @@ public class HomeFragment extends Fragment {
         setupRecyclerView();
         setupFab();
         
-        loadWalletData();
+        observeWalletData();
     }
     
     private void setupFab() {
@@ -99,17 +95,9 @@ public class HomeFragment extends Fragment {
         });
     }
     
-    @Override
-    public void onResume() {
-        super.onResume();
-        // Reload data when fragment becomes visible
-        loadWalletData();
-    }
-
     private void setupRecyclerView() {
         recentTransactionsRecyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
         dailyGroupAdapter = new DailyTransactionGroupAdapter(
-            AppDatabase.getInstance(requireContext()),
             transaction -> {
                 // Show transaction detail dialog
                 TransactionDetailDialog dialog = new TransactionDetailDialog(
@@ -117,14 +105,14 @@ public class HomeFragment extends Fragment {
                     transaction,
                     new TransactionDetailDialog.OnTransactionActionListener() {
                         @Override
-                        public void onDelete(Transaction transactionToDelete) {
+                        public void onDelete(TransactionListItem transactionToDelete) {
                             deleteTransaction(transactionToDelete);
                         }
 
                         @Override
-                        public void onEdit(Transaction transactionToEdit) {
+                        public void onEdit(TransactionListItem transactionToEdit) {
                             // TODO: Navigate to edit screen
-                            android.util.Log.d("HomeFragment", "Edit transaction: " + transactionToEdit.getId());
+                            android.util.Log.d("HomeFragment", "Edit transaction: " + transactionToEdit.id);
                         }
                     }
                 );
@@ -132,197 +120,87 @@ public class HomeFragment extends Fragment {
             }
         );
         recentTransactionsRecyclerView.setAdapter(dailyGroupAdapter);
-    }
 
-    private void loadWalletData() {
-        android.util.Log.d("HomeFragment", "loadWalletData() called - Current user: " + MainActivity.getCurrentUserId() + ", Selected wallet: " + MainActivity.getSelectedWalletId());
+        // Pin the current day's header; re-bind it whenever the rows change
+        StickyHeaderDecoration stickyHeaders = new StickyHeaderDecoration(dailyGroupAdapter);
+        recentTransactionsRecyclerView.addItemDecoration(stickyHeaders);
+        dailyGroupAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                stickyHeaders.invalidateHeader();
+            }
 
-        new Thread(() -> {
-            try {
-                AppDatabase db = AppDatabase.getInstance(requireContext());
-                int walletId = MainActivity.getSelectedWalletId();
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                stickyHeaders.invalidateHeader();
+            }
 
-                // If no wallet selected, use the first available wallet
-                if (walletId == -1) {
-                    List<Wallet> wallets = db.walletDao().getActiveWalletsByUserId(MainActivity.getCurrentUserId());
-                    android.util.Log.d("HomeFragment", "No wallet selected. Found " + wallets.size() + " wallets for user " + MainActivity.getCurrentUserId());
-                    if (!wallets.isEmpty()) {
-                        walletId = wallets.get(0).getId();
-                        MainActivity.setSelectedWalletId(walletId);
-                        android.util.Log.d("HomeFragment", "Auto-selected first wallet: ID " + walletId);
-                    }
-                }
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                stickyHeaders.invalidateHeader();
+            }
 
-                if (walletId != -1) {
-                    Wallet wallet = db.walletDao().getWalletById(walletId);
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                stickyHeaders.invalidateHeader();
+            }
 
-                    // Calculate total expenses and incomes from transactions FOR THIS WALLET
-                    double totalExpenses = db.transactionDao().getTotalExpensesByWallet(walletId);
-                    double totalIncomes = db.transactionDao().getTotalIncomeByWallet(walletId);
-                    
-                    // Get recent transactions FOR THIS WALLET
-                    List<Transaction> allTransactions = db.transactionDao().getTransactionsByWalletId(walletId);
-                    
-                    // Group transactions by date
-                    List<DailyTransactionGroup> dailyGroups = groupTransactionsByDate(allTransactions);
-                    
-                    // Limit to recent 5 days
-                    List<DailyTransactionGroup> recentGroups = dailyGroups.size() > 5 
-                        ? dailyGroups.subList(0, 5) 
-                        : dailyGroups;
-                    
-                    android.util.Log.d("HomeFragment", "Loading wallet ID: " + walletId + 
-                        ", daily groups: " + recentGroups.size());
-                    
-                    // Update UI on main thread
-                    if (getActivity() != null) {
-                        final Wallet finalWallet = wallet;
-                        final double finalExpenses = totalExpenses;
-                        final double finalIncomes = totalIncomes;
-                        final List<DailyTransactionGroup> finalGroups = recentGroups;
-                        
-                        getActivity().runOnUiThread(() -> {
-                            if (finalWallet != null) {
-                                balanceAmount.setText(String.format(Locale.getDefault(),
-                                        "%,.0f %s", finalWallet.getBalance(), finalWallet.getCurrency()));
-                            } else {
-                                balanceAmount.setText("0 VND");
-                            }
-                            
-                            expensesAmount.setText(String.format(Locale.getDefault(), 
-                                "-%,.0f VND", finalExpenses));
-                            incomesAmount.setText(String.format(Locale.getDefault(), 
-                                "+%,.0f VND", finalIncomes));
-                            
-                            // Update the half-doughnut chart
-                            halfDoughnutChart.setData(finalExpenses, finalIncomes);
-                            
-                            // Set current date
-                            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-                            balanceDate.setText(sdf.format(new Date()));
-                            
-                            // Update recent transactions (grouped by date)
-                            dailyGroupAdapter.setDailyGroups(finalGroups);
-                            
-                            android.util.Log.d("HomeFragment", "UI updated with " + finalGroups.size() + " daily groups");
-                        });
-                    }
-                } else {
-                    android.util.Log.d("HomeFragment", "No wallet available for user " + MainActivity.getCurrentUserId());
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            balanceAmount.setText("0 VND");
-                            expensesAmount.setText("-0 VND");
-                            incomesAmount.setText("+0 VND");
-                            
-                            // Update chart with zero values
-                            halfDoughnutChart.setData(0, 0);
-                            
-                            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-                            balanceDate.setText(sdf.format(new Date()));
-                            
-                            dailyGroupAdapter.setDailyGroups(new ArrayList<>());
-                        });
-                    }
-                }
-            } catch (Exception e) {
-                android.util.Log.e("HomeFragment", "Error loading wallet data", e);
-                e.printStackTrace();
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                stickyHeaders.invalidateHeader();
             }
-        }).start();
+        });
     }
 
     /**
-     * Group transactions by date
+     * Render the activity-scoped HomeViewModel. It follows the selected
+     * wallet and re-queries only after a write to a table Home reads, so
+     * switching back to this tab shows the last result without a query.
      */
-    private List<DailyTransactionGroup> groupTransactionsByDate(List<Transaction> transactions) {
-        // Use LinkedHashMap to maintain order
-        Map<String, List<Transaction>> groupedMap = new LinkedHashMap<>();
-        SimpleDateFormat dateKeyFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        SimpleDateFormat displayFormat = new SimpleDateFormat("EEE, dd/MM", Locale.getDefault());
-        
-        for (Transaction transaction : transactions) {
-            Date date = new Date(transaction.getCreatedAt());
-            String dateKey = dateKeyFormat.format(date);
-            
-            if (!groupedMap.containsKey(dateKey)) {
-                groupedMap.put(dateKey, new ArrayList<>());
-            }
-            groupedMap.get(dateKey).add(transaction);
-        }
-        
-        // Convert to list of DailyTransactionGroup
-        List<DailyTransactionGroup> dailyGroups = new ArrayList<>();
-        for (Map.Entry<String, List<Transaction>> entry : groupedMap.entrySet()) {
-            String dateKey = entry.getKey();
-            List<Transaction> dayTransactions = entry.getValue();
-            
-            if (!dayTransactions.isEmpty()) {
-                long timestamp = dayTransactions.get(0).getCreatedAt();
-                Date date = new Date(timestamp);
-                String displayDate = displayFormat.format(date);
-                
-                // Get day of week for full date
-                Calendar calendar = Calendar.getInstance();
-                calendar.setTime(date);
-                String fullDate = new SimpleDateFormat("EEEE, MMMM dd, yyyy", Locale.getDefault()).format(date);
-                
-                DailyTransactionGroup group = new DailyTransactionGroup(
-                    displayDate,
-                    fullDate,
-                    timestamp,
-                    dayTransactions
-                );
-                dailyGroups.add(group);
-            }
-        }
-        
-        return dailyGroups;
+    private void observeWalletData() {
+        new ViewModelProvider(requireActivity()).get(HomeViewModel.class)
+                .getHomeData()
+                .observe(getViewLifecycleOwner(), this::showWalletData);
     }
 
-    public void refreshData() {
-        loadWalletData();
+    private void showWalletData(HomeViewModel.HomeData data) {
+        DashboardSummary summary = data.summary;
+        long expenses = summary != null ? summary.totalExpense : 0;
+        long incomes = summary != null ? summary.totalIncome : 0;
+        String currency = summary != null ? summary.currency : Money.DEFAULT_CURRENCY;
+
+        balanceAmount.setText(Money.format(summary != null ? summary.balance : 0, currency));
+        expensesAmount.setText(Money.formatSigned(expenses, false, currency));
+        incomesAmount.setText(Money.formatSigned(incomes, true, currency));
+
+        // Update the half-doughnut chart
+        halfDoughnutChart.setData(expenses, incomes);
+
+        // Set current date
+        balanceDate.setText(DateLabelFormatter.date(System.currentTimeMillis()));
+
+        // Update recent transactions (grouped by date)
+        dailyGroupAdapter.setDailyGroups(data.groups);
+
+        android.util.Log.d("HomeFragment", "UI updated with " + data.groups.size() + " daily groups");
     }
 
-    private void deleteTransaction(Transaction transaction) {
-        new Thread(() -> {
-            try {
-                AppDatabase db = AppDatabase.getInstance(requireContext());
-                
-                // Update wallet balance
-                Wallet wallet = db.walletDao().getWalletById(transaction.getWalletId());
-                if (wallet != null) {
-                    double amount = transaction.getAmount();
-                    if ("income".equals(transaction.getType())) {
-                        wallet.setBalance(wallet.getBalance() - amount);
-                    } else {
-                        wallet.setBalance(wallet.getBalance() + amount);
+    private void deleteTransaction(TransactionListItem transaction) {
+        // Delete transaction and reverse its effect on the wallet balance atomically
+        LedgerRepository.getInstance(requireContext()).deleteTransaction(transaction.id)
+                .whenComplete((deleted, error) -> {
+                    if (error != null) {
+                        android.util.Log.e("HomeFragment", "Error deleting transaction", error);
                     }
-                    db.walletDao().update(wallet);
-                }
-                
-                // Delete transaction
-                db.transactionDao().delete(transaction);
-                
-                // Refresh UI
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        loadWalletData();
-                        android.widget.Toast.makeText(requireContext(), 
-                            "Transaction deleted", 
-                            android.widget.Toast.LENGTH_SHORT).show();
-                    });
-                }
-            } catch (Exception e) {
-                android.util.Log.e("HomeFragment", "Error deleting transaction", e);
-                if (getActivity() != null) {
+                    if (getActivity() == null) return;
+
+                    // The list and totals update through the observed query
                     getActivity().runOnUiThread(() -> {
-                        android.widget.Toast.makeText(requireContext(), 
-                            "Failed to delete transaction", 
+                        if (!isAdded()) return;
+                        android.widget.Toast.makeText(requireContext(),
+                            error == null ? "Transaction deleted" : "Failed to delete transaction",
                             android.widget.Toast.LENGTH_SHORT).show();
                     });
-                }
-            }
-        }).start();
+                });
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import android.net.Uri;
 import android.os.Bundle;
 import android.os.Environment;
 import android.provider.MediaStore;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -36,8 +37,11 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.mymoney.adapter.CategoryAdapter;
 import com.example.mymoney.database.AppDatabase;
+import com.example.mymoney.database.LedgerRepository;
+import com.example.mymoney.database.LookupCache;
 import com.example.mymoney.database.entity.Category;
 import com.example.mymoney.database.entity.Transaction;
+import com.example.mymoney.model.Money;
 import com.google.mlkit.vision.common.InputImage;
 import com.google.mlkit.vision.text.TextRecognition;
 import com.google.mlkit.vision.text.TextRecognizer;
@@ -77,11 +81,13 @@ public class ImportFragment extends Fragment {
     private ActivityResultLauncher<Intent> galleryLauncher;
     private Uri imageUri;
     private static final int CAMERA_PERMISSION_CODE = 100;
+    private static final String TAG = "ImportFragment";
 
     private String selectedType = "expense"; // Default to expense
     private Calendar selectedDate;
     private int selectedCategoryId = -1; // Will be loaded from database
     private Category selectedCategory = null;
+    private LookupCache lookups;
     // 🎤 Voice input fields
     private LinearLayout btnVoice;
     private static final int REQUEST_RECORD_AUDIO = 200;
@@ -97,6 +103,7 @@ public class ImportFragment extends Fragment {
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
+        lookups = LookupCache.getInstance(requireContext());
         btnVoice = view.findViewById(R.id.btnVoice);
         setupVoiceButton();
 
@@ -234,17 +241,9 @@ public class ImportFragment extends Fragment {
     private void loadCategoriesForType(String type) {
         new Thread(() -> {
             try {
-                AppDatabase db = AppDatabase.getInstance(requireContext());
-
-                // Get categories by type
-                List<Category> categories;
-                if (type.equals("expense")) {
-                    categories = db.categoryDao().getAllExpenseCategories();
-                    android.util.Log.d("ImportFragment", "Loaded " + categories.size() + " expense categories");
-                } else {
-                    categories = db.categoryDao().getAllIncomeCategories();
-                    android.util.Log.d("ImportFragment", "Loaded " + categories.size() + " income categories");
-                }
+                // Get categories by type (cached, loads once per change)
+                List<Category> categories = lookups.getCategoriesOfType(type);
+                android.util.Log.d("ImportFragment", "Loaded " + categories.size() + " " + type + " categories");
 
                 if (!categories.isEmpty() && getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
@@ -290,15 +289,8 @@ public class ImportFragment extends Fragment {
         // Load categories based on current type
         new Thread(() -> {
             try {
-                AppDatabase db = AppDatabase.getInstance(requireContext());
-                List<Category> categories;
-                if (selectedType.equals("expense")) {
-                    categories = db.categoryDao().getAllExpenseCategories();
-                    android.util.Log.d("ImportFragment", "Dialog: Loaded " + categories.size() + " expense categories");
-                } else {
-                    categories = db.categoryDao().getAllIncomeCategories();
-                    android.util.Log.d("ImportFragment", "Dialog: Loaded " + categories.size() + " income categories");
-                }
+                List<Category> categories = lookups.getCategoriesOfType(selectedType);
+                android.util.Log.d("ImportFragment", "Dialog: Loaded " + categories.size() + " " + selectedType + " categories");
 
                 if (getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
@@ -408,9 +400,16 @@ public class ImportFragment extends Fragment {
             return;
         }
 
-        double amount;
+        // The amount is typed in the wallet's currency (2 decimals for USD, none for VND)
+        String currency = lookups.getWalletCurrency(MainActivity.getSelectedWalletId());
+        if (currency == null) {
+            Toast.makeText(requireContext(), "Please create a wallet first", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        long amount;
         try {
-            amount = Double.parseDouble(amountStr);
+            amount = Money.parseMinor(amountStr, currency);
             if (amount <= 0) {
                 Toast.makeText(requireContext(), "Amount must be greater than 0", Toast.LENGTH_SHORT).show();
                 return;
@@ -443,80 +442,27 @@ public class ImportFragment extends Fragment {
             transaction.setRecurringInterval(null);
         }
 
-        // Save to database in background thread
-        new Thread(() -> {
-            try {
-                AppDatabase db = AppDatabase.getInstance(requireContext());
-                long transactionId = db.transactionDao().insert(transaction);
-
-                // Update wallet balance
-                updateWalletBalance(transaction);
+        // Insert + wallet balance update in one DB transaction, committed by the ledger writer
+        LedgerRepository.getInstance(requireContext()).addTransaction(transaction)
+                .whenComplete((id, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Error saving transaction", error);
+                    }
+                    if (getActivity() == null) return;
 
-                // Show success message on UI thread
-                if (getActivity() != null) {
+                    // Show result on UI thread
                     getActivity().runOnUiThread(() -> {
+                        if (!isAdded()) return;
+                        if (error != null) {
+                            Throwable cause = error.getCause() != null ? error.getCause() : error;
+                            Toast.makeText(requireContext(), "Error saving transaction: " + cause.getMessage(), Toast.LENGTH_SHORT).show();
+                            return;
+                        }
                         Toast.makeText(requireContext(), "Transaction saved successfully!", Toast.LENGTH_SHORT).show();
+                        // Home / History pick the new row up from their observed queries
                         clearForm();
-
-                        // Refresh HomeFragment if it exists
-                        refreshHomeFragment();
                     });
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        Toast.makeText(requireContext(), "Error saving transaction: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    });
-                }
-            }
-        }).start();
-    }
-
-    private void updateWalletBalance(Transaction transaction) {
-        try {
-            AppDatabase db = AppDatabase.getInstance(requireContext());
-            com.example.mymoney.database.entity.Wallet wallet =
-                    db.walletDao().getWalletById(transaction.getWalletId());
-
-            if (wallet != null) {
-                double currentBalance = wallet.getBalance();
-                double newBalance;
-
-                if (transaction.getType().equals("income")) {
-                    newBalance = currentBalance + transaction.getAmount();
-                } else {
-                    newBalance = currentBalance - transaction.getAmount();
-                }
-
-                wallet.setBalance(newBalance);
-                db.walletDao().update(wallet);
-
-                android.util.Log.d("ImportFragment", "Wallet balance updated: " + currentBalance + " -> " + newBalance);
-            }
-        } catch (Exception e) {
-            android.util.Log.e("ImportFragment", "Error updating wallet balance", e);
-        }
-    }
-
-    private void refreshHomeFragment() {
-        // Refresh HomeFragment and HistoryFragment after saving transaction
-        if (getActivity() instanceof MainActivity) {
-            MainActivity mainActivity = (MainActivity) getActivity();
-            androidx.fragment.app.FragmentManager fragmentManager = mainActivity.getSupportFragmentManager();
-
-            // Find and refresh HomeFragment if it exists
-            for (androidx.fragment.app.Fragment fragment : fragmentManager.getFragments()) {
-                if (fragment instanceof HomeFragment && fragment.isAdded()) {
-                    ((HomeFragment) fragment).refreshData();
-                    android.util.Log.d("ImportFragment", "HomeFragment refreshed");
-                }
-                if (fragment instanceof HistoryFragment && fragment.isAdded()) {
-                    ((HistoryFragment) fragment).refreshData();
-                    android.util.Log.d("ImportFragment", "HistoryFragment refreshed");
-                }
-            }
-        }
+                });
     }
 
     private void clearForm() {
@@ -763,40 +709,13 @@ public class ImportFragment extends Fragment {
      * Find and set category by name
      */
     private void findAndSetCategory(String categoryName) {
-        new Thread(() -> {
-            try {
-                AppDatabase db = AppDatabase.getInstance(requireContext());
-                List<Category> categories;
-
-                if (selectedType.equals("expense")) {
-                    categories = db.categoryDao().getAllExpenseCategories();
-                } else {
-                    categories = db.categoryDao().getAllIncomeCategories();
-                }
-
-                // Find matching category
-                Category matchedCategory = null;
-                for (Category cat : categories) {
-                    if (cat.getName().equalsIgnoreCase(categoryName)) {
-                        matchedCategory = cat;
-                        break;
-                    }
-                }
-
-                if (matchedCategory != null) {
-                    Category finalCategory = matchedCategory;
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            selectedCategory = finalCategory;
-                            selectedCategoryId = finalCategory.getId();
-                            updateCategoryDisplay();
-                        });
-                    }
-                }
-            } catch (Exception e) {
-                android.util.Log.e("ImportFragment", "Error finding category: " + categoryName, e);
-            }
-        }).start();
+        // Lookup in memory: the category is set before the caller goes on to save
+        Category matchedCategory = lookups.findCategory(selectedType, categoryName);
+        if (matchedCategory != null) {
+            selectedCategory = matchedCategory;
+            selectedCategoryId = matchedCategory.getId();
+            updateCategoryDisplay();
+        }
     }
     /**
      * Hiển thị hộp xác nhận trước khi lưu dữ liệu OCR vào CSDL
@@ -818,7 +737,7 @@ public class ImportFragment extends Fragment {
 
         // Gán dữ liệu OCR vào giao diện
         tvType.setText(type.equals("expense") ? "Expense" : "Income");
-        tvAmount.setText(amount + " VND");
+        tvAmount.setText(amount + " " + currencyOf(MainActivity.getSelectedWalletId()));
         tvCategory.setText(categoryName);
         tvDate.setText(date);
 
@@ -1027,10 +946,10 @@ public class ImportFragment extends Fragment {
         String formattedAmount = "Chưa nhận diện được";
         if (!amount.isEmpty()) {
             try {
-                long amt = Long.parseLong(amount);
-                formattedAmount = String.format("%,d VND", amt);
+                String currency = currencyOf(MainActivity.getSelectedWalletId());
+                formattedAmount = Money.format(Money.parseMinor(amount, currency), currency);
             } catch (Exception e) {
-                formattedAmount = amount + " VND";
+                formattedAmount = amount;
             }
         }
 
@@ -1074,8 +993,8 @@ public class ImportFragment extends Fragment {
                     }
 
                     // 3️⃣ Parse ngày và số tiền
-                    double money = 0;
-                    try { money = Double.parseDouble(amount); } catch (Exception ignored) {}
+                    long money = 0;
+                    try { money = Money.parseMinor(amount, currencyOf(walletId)); } catch (Exception ignored) {}
                     long timeMillis = System.currentTimeMillis();
                     try {
                         SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
@@ -1084,9 +1003,7 @@ public class ImportFragment extends Fragment {
 
                     // 4️⃣ Tìm danh mục
                     Category matched = null;
-                    List<Category> list = type.equals("income")
-                            ? db.categoryDao().getAllIncomeCategories()
-                            : db.categoryDao().getAllExpenseCategories();
+                    List<Category> list = lookups.getCategoriesOfType(type.equals("income") ? "income" : "expense");
 
                     for (Category c : list) {
                         if (c.getName().equalsIgnoreCase(categoryName)) {
@@ -1109,17 +1026,9 @@ public class ImportFragment extends Fragment {
                     t.setUpdatedAt(System.currentTimeMillis());
                     t.setRecurring(false);
 
-                    long id = db.transactionDao().insert(t);
-
-                    // 6️⃣ Cập nhật số dư ví
-                    com.example.mymoney.database.entity.Wallet wallet =
-                            db.walletDao().getWalletById(walletId);
-                    if (wallet != null) {
-                        double newBalance = wallet.getBalance() +
-                                (type.equals("income") ? money : -money);
-                        wallet.setBalance(newBalance);
-                        db.walletDao().update(wallet);
-                    }
+                    // 6️⃣ Lưu giao dịch + cập nhật số dư ví trong cùng một DB transaction
+                    // (chờ ledger writer commit xong rồi mới báo thành công)
+                    LedgerRepository.getInstance(requireContext()).addTransaction(t).join();
 
                     // 7️⃣ Thông báo thành công
                     if (getActivity() != null) {
@@ -1127,9 +1036,6 @@ public class ImportFragment extends Fragment {
                             Toast.makeText(requireContext(),
                                     "Đã lưu giao dịch " + (type.equals("income") ? "thu nhập" : "chi tiêu") + " thành công!",
                                     Toast.LENGTH_SHORT).show();
-
-                            // Làm mới dữ liệu ở Home / History
-                            refreshHomeFragment();
                         });
                     }
 
@@ -1151,6 +1057,14 @@ public class ImportFragment extends Fragment {
     }
 
 
+    /**
+     * Currency of the wallet, or the default if it doesn't exist
+     */
+    private String currencyOf(int walletId) {
+        String currency = lookups.getWalletCurrency(walletId);
+        return currency != null ? currency : Money.DEFAULT_CURRENCY;
+    }
+
     /**
      * Hàm tách số từ chuỗi (dùng cho nhận diện giọng nói)
      */
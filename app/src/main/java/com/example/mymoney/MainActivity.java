@@ -18,9 +18,15 @@ import androidx.core.view.WindowInsetsCompat;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 
 import com.example.mymoney.database.AppDatabase;
-import com.example.mymoney.database.entity.Wallet;
+import com.example.mymoney.database.DateKeys;
+import com.example.mymoney.database.LookupCache;
+import com.example.mymoney.model.DashboardSummary;
+import com.example.mymoney.model.Money;
 
 import java.util.List;
 
@@ -34,6 +40,13 @@ public class MainActivity extends AppCompatActivity {
     private static int selectedWalletId = -1; //-1 la chua chon vi nao
     private static int currentUserId = 1; // acc default la 1
 
+    // Fragments observe these to reload when the wallet or user changes
+    private static final MutableLiveData<Integer> selectedWalletLiveData = new MutableLiveData<>(-1);
+    private static final MutableLiveData<Integer> currentUserLiveData = new MutableLiveData<>(1);
+    // DateKeys.monthKey of today, re-checked on every resume so month totals roll over
+    private static final MutableLiveData<Integer> currentMonthLiveData =
+            new MutableLiveData<>(DateKeys.monthKey(System.currentTimeMillis()));
+
     private FragmentManager fragmentManager;
     private TextView headerTitle;
     private CardView walletPanel;
@@ -55,6 +68,8 @@ public class MainActivity extends AppCompatActivity {
         LocaleHelper.onAttach(this); // ✅ Language support
         ThemeUtils.applyTheme(this); // ✅ Apply current theme
         super.onCreate(savedInstanceState);
+        // Warm the category/wallet lookup before the first list binds
+        LookupCache.getInstance(this).preload();
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_main_container);
 
@@ -83,6 +98,7 @@ public class MainActivity extends AppCompatActivity {
         setupWalletButton();
         setupSettingsButton();
         updateSettingsButtonsVisibility();
+        observeWallets();
 
         setupNavigationBar();
 
@@ -96,8 +112,7 @@ public class MainActivity extends AppCompatActivity {
         super.onResume();
         updateCurrentUserId();
         updateSettingsButtonsVisibility();
-        loadWalletsFromDatabase();
-        new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(this::refreshCurrentFragment, 300);
+        publish(currentMonthLiveData, DateKeys.monthKey(System.currentTimeMillis()));
     }
 
     /**
@@ -105,13 +120,13 @@ public class MainActivity extends AppCompatActivity {
      */
     private void updateCurrentUserId() {
         currentUserId = getLoggedInUserId();
+        publish(currentUserLiveData, currentUserId);
         android.util.Log.d("MainActivity", "Current user ID updated to: " + currentUserId);
     }
 
     // ================= Wallet Setup =================
     private void setupWalletButton() {
         btnWallet.setOnClickListener(v -> {
-            loadWalletsFromDatabase();
             hideSettingsPanel(); // Hide settings when opening wallet
             toggleWalletPanel();
         });
@@ -242,106 +257,70 @@ public class MainActivity extends AppCompatActivity {
                 .putBoolean(KEY_IS_LOGGED_IN, false)
                 .apply();
 
-        // Reset to default user ID
+        // Reset selected wallet, then switch to the default user: the wallet
+        // observer reloads the panel and picks that user's first wallet
+        setSelectedWalletId(-1);
         currentUserId = 1;
+        publish(currentUserLiveData, currentUserId);
         android.util.Log.d("MainActivity", "User ID reset to: " + currentUserId);
 
-        // Reset selected wallet
-        selectedWalletId = -1;
-        android.util.Log.d("MainActivity", "Selected wallet ID reset to: " + selectedWalletId);
-
         // Update UI
         updateSettingsButtonsVisibility();
 
-        // Clear wallet panel
-        if (walletListContainer != null) {
-            walletListContainer.removeAllViews();
-        }
-
-        // Reload wallets for default user
-        loadWalletsFromDatabase();
-
-        // Refresh current fragment to show empty/default data with delay to ensure state is updated
-        new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
-            android.util.Log.d("MainActivity", "Refreshing fragment after logout");
-            refreshCurrentFragment();
-        }, 200);
-
         Toast.makeText(this, "Đăng xuất thành công", Toast.LENGTH_SHORT).show();
     }
 
     // ================= Wallet Loading =================
 
     /**
-     * Load wallets from database and populate the wallet panel
+     * Observe the current user's wallets and populate the wallet panel.
+     * Room re-runs the query whenever a wallet or transaction is written, so
+     * balances stay current without reloading on every resume; a new month
+     * re-queries the month totals.
      */
-    private void loadWalletsFromDatabase() {
+    private void observeWallets() {
         walletListContainer = findViewById(R.id.wallet_list_container);
 
-        new Thread(() -> {
-            AppDatabase db = AppDatabase.getInstance(this);
-            int userId = getLoggedInUserId();
-            List<Wallet> wallets = db.walletDao().getActiveWalletsByUserId(userId);
-
-            android.util.Log.d("MainActivity", "Loaded " + wallets.size() + " wallets for user ID: " + userId);
-            for (Wallet w : wallets) {
-                android.util.Log.d("MainActivity", "  - Wallet: " + w.getName() + " (ID: " + w.getId() + ")");
-            }
-
-            // Auto-select first wallet if none is selected or if wallet doesn't belong to current user
-            boolean needToSelectWallet = false;
-            int newSelectedWalletId = selectedWalletId;
-
-            if (!wallets.isEmpty()) {
-                // Check if current selected wallet belongs to this user
-                needToSelectWallet = (selectedWalletId == -1);
-
-                if (selectedWalletId != -1) {
-                    // Check if the selected wallet belongs to the current user
-                    Wallet selectedWallet = db.walletDao().getWalletById(selectedWalletId);
-                    if (selectedWallet == null || selectedWallet.getUserId() != userId) {
-                        android.util.Log.d("MainActivity", "Selected wallet doesn't belong to user " + userId + ", resetting");
-                        needToSelectWallet = true;
-                    }
-                }
-
-                if (needToSelectWallet) {
-                    newSelectedWalletId = wallets.get(0).getId();
-                    android.util.Log.d("MainActivity", "Auto-selected first wallet: ID " + newSelectedWalletId + " (" + wallets.get(0).getName() + ")");
-                }
-            } else {
-                android.util.Log.d("MainActivity", "No wallets available for user " + userId);
-                newSelectedWalletId = -1;
-            }
-
-            final int finalWalletId = newSelectedWalletId;
-            final boolean walletChanged = (selectedWalletId != newSelectedWalletId);
-
-            runOnUiThread(() -> {
-                walletListContainer.removeAllViews();
+        AppDatabase db = AppDatabase.getInstance(this);
+        LiveData<List<DashboardSummary>> wallets = Transformations.switchMap(currentUserLiveData,
+                userId -> Transformations.switchMap(currentMonthLiveData,
+                        monthKey -> db.dashboardDao().observeActiveSummaries(userId, monthKey)));
+        wallets.observe(this, this::showWallets);
+    }
 
-                for (Wallet wallet : wallets) {
-                    addWalletItemToPanel(wallet);
-                }
+    private void showWallets(List<DashboardSummary> wallets) {
+        android.util.Log.d("MainActivity", "Loaded " + wallets.size() + " wallets for user ID: " + currentUserId);
 
-                selectedWalletId = finalWalletId;
+        walletListContainer.removeAllViews();
+        for (DashboardSummary wallet : wallets) {
+            addWalletItemToPanel(wallet);
+        }
 
-                android.util.Log.d("MainActivity", "Wallet items added to panel, selected wallet ID: " + selectedWalletId);
+        // Auto-select first wallet if none is selected or if wallet doesn't belong to current user
+        if (wallets.isEmpty()) {
+            android.util.Log.d("MainActivity", "No wallets available for user " + currentUserId);
+            setSelectedWalletId(-1);
+            return;
+        }
 
-                if (walletChanged) {
-                    android.util.Log.d("MainActivity", "Wallet selection changed, triggering fragment refresh");
-                    new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
-                        refreshCurrentFragment();
-                    }, 100);
-                }
-            });
-        }).start();
+        // The selected wallet belongs to the current user iff it is in the list
+        boolean owned = false;
+        for (DashboardSummary w : wallets) {
+            if (w.walletId == selectedWalletId) {
+                owned = true;
+                break;
+            }
+        }
+        if (!owned) {
+            android.util.Log.d("MainActivity", "Auto-selected first wallet: ID " + wallets.get(0).walletId + " (" + wallets.get(0).name + ")");
+            setSelectedWalletId(wallets.get(0).walletId);
+        }
     }
 
     /**
      * Add a wallet item to the panel
      */
-    private void addWalletItemToPanel(Wallet wallet) {
+    private void addWalletItemToPanel(DashboardSummary wallet) {
         View walletItemView = getLayoutInflater()
                 .inflate(R.layout.wallet_item, walletListContainer, false);
 
@@ -359,11 +338,11 @@ public class MainActivity extends AppCompatActivity {
         TextView name = walletItemView.findViewById(R.id.wallet_name);
         TextView balance = walletItemView.findViewById(R.id.wallet_balance);
 
-        name.setText(wallet.getName());
-        balance.setText(String.format("%,.0f %s", wallet.getBalance(), wallet.getCurrency()));
+        name.setText(wallet.name);
+        balance.setText(Money.format(wallet.balance, wallet.currency));
 
         // Set icon based on wallet type
-        switch (wallet.getType()) {
+        switch (wallet.type != null ? wallet.type : "") {
             case "cash":
                 icon.setImageResource(R.drawable.ic_money_bundle);
                 break;
@@ -383,50 +362,18 @@ public class MainActivity extends AppCompatActivity {
         finalClickableArea.setOnClickListener(v -> {
             android.util.Log.d("MainActivity", "Wallet item clicked!");
             hideWalletPanel();
-            int oldWalletId = selectedWalletId;
-            selectedWalletId = wallet.getId();
+            android.util.Log.d("MainActivity", "Wallet switched: " + selectedWalletId + " -> " + wallet.walletId);
+            android.util.Log.d("MainActivity", "Selected wallet: " + wallet.name);
 
-            android.util.Log.d("MainActivity", "Wallet switched: " + oldWalletId + " -> " + selectedWalletId);
-            android.util.Log.d("MainActivity", "Selected wallet: " + wallet.getName());
+            Toast.makeText(this, "Chọn ví: " + wallet.name, Toast.LENGTH_SHORT).show();
 
-            Toast.makeText(this, "Chọn ví: " + wallet.getName(), Toast.LENGTH_SHORT).show();
-
-            // Refresh current fragment with new wallet data
-            refreshCurrentFragment();
+            // Fragments observing the selected wallet reload themselves
+            setSelectedWalletId(wallet.walletId);
         });
 
         walletListContainer.addView(walletItemView);
     }
 
-    /**
-     * Refresh the current fragment to reflect wallet changes
-     */
-    private void refreshCurrentFragment() {
-        Fragment currentFragment = fragmentManager.findFragmentById(R.id.fragment_container);
-
-        android.util.Log.d("MainActivity", "Refreshing fragment: " +
-                (currentFragment != null ? currentFragment.getClass().getSimpleName() : "null"));
-        android.util.Log.d("MainActivity", "Current user ID: " + currentUserId + ", Selected wallet ID: " + selectedWalletId);
-
-        if (currentFragment instanceof HomeFragment) {
-            android.util.Log.d("MainActivity", "Calling HomeFragment.refreshData()");
-            ((HomeFragment) currentFragment).refreshData();
-        } else if (currentFragment instanceof HistoryFragment) {
-            android.util.Log.d("MainActivity", "Calling HistoryFragment.refreshData()");
-            ((HistoryFragment) currentFragment).refreshData();
-        } else if (currentFragment instanceof StatisticsFragment) {
-            android.util.Log.d("MainActivity", "Calling StatisticsFragment.refreshData()");
-            ((StatisticsFragment) currentFragment).refreshData();
-        } else if (currentFragment != null) {
-            // For other fragments, use detach/attach
-            android.util.Log.d("MainActivity", "Using detach/attach for fragment refresh");
-            fragmentManager.beginTransaction()
-                    .detach(currentFragment)
-                    .attach(currentFragment)
-                    .commitAllowingStateLoss();
-        }
-    }
-
     // ================= Panel Management =================
 
     private void toggleWalletPanel() {
@@ -533,10 +480,38 @@ public static int getSelectedWalletId() {
  * Set the selected wallet ID
  */
 public static void setSelectedWalletId(int walletId) {
+    if (selectedWalletId == walletId) return;
     selectedWalletId = walletId;
+    publish(selectedWalletLiveData, walletId);
     android.util.Log.d("MainActivity", "Wallet ID set to: " + walletId);
 }
 
+/**
+ * The selected wallet ID as LiveData, emits once per change (for use in fragments)
+ */
+public static LiveData<Integer> getSelectedWalletLiveData() {
+    return selectedWalletLiveData;
+}
+
+/** setValue on the main thread, postValue from background threads; no-op if unchanged */
+private static void publish(MutableLiveData<Integer> liveData, int value) {
+    if (android.os.Looper.myLooper() == android.os.Looper.getMainLooper()) {
+        Integer current = liveData.getValue();
+        if (current == null || current != value) {
+            liveData.setValue(value);
+        }
+    } else {
+        liveData.postValue(value);
+    }
+}
+
+/**
+ * The current month as a DateKeys.monthKey, emits when a resume finds a new month
+ */
+public static LiveData<Integer> getCurrentMonthLiveData() {
+    return currentMonthLiveData;
+}
+
 /**
  * Get the current logged-in user ID (for use in fragments)
  */
@@ -2,9 +2,9 @@ package com.example.mymoney;
 
 public class MonthTotal {
     public String month;
-    public double total;
+    public long total;
 
-    public MonthTotal(String month, double total) {
+    public MonthTotal(String month, long total) {
         this.month = month;
         this.total = total;
     }
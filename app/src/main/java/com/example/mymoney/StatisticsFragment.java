@@ -2,10 +2,8 @@ package com.example.mymoney;
 
 import android.app.AlertDialog;
 import android.app.DatePickerDialog;
-import android.content.res.Configuration;
 import android.graphics.Color;
 import android.os.Bundle;
-import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -16,14 +14,17 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
-import com.example.mymoney.database.AppDatabase;
-import com.github.mikephil.charting.charts.PieChart;
-import com.github.mikephil.charting.data.PieData;
-import com.github.mikephil.charting.data.PieDataSet;
-import com.github.mikephil.charting.data.PieEntry;
+import com.example.mymoney.model.DateLabelFormatter;
+import com.example.mymoney.model.Money;
+import com.example.mymoney.model.StatisticsBundle;
+import com.example.mymoney.view.chart.BarChartView;
+import com.example.mymoney.view.chart.LegendView;
+import com.example.mymoney.view.chart.LineChartView;
+import com.example.mymoney.view.chart.PieChartView;
+import com.example.mymoney.viewmodel.StatisticsViewModel;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
@@ -33,28 +34,52 @@ import java.util.Locale;
  * StatisticsFragment
  * ------------------
  * Fragment này hiển thị các thống kê chi tiêu:
- * - Biểu đồ tròn (PieChart): tỷ lệ chi tiêu theo danh mục
- * - Biểu đồ cột (BarChart): tổng chi tiêu theo tháng
+ * - Biểu đồ tròn (PieChartView): tỷ lệ chi tiêu theo danh mục
+ * - Biểu đồ cột (BarChartView): tổng chi tiêu theo tháng
+ * - Đường chi tiêu theo ngày (LineChartView) trong khoảng đã chọn
  * - Danh sách top chi tiêu (với icon + % + số tiền)
  */
 public class StatisticsFragment extends Fragment {
 
+    // Màu các lát PieChart, dùng chung cho legend
+    private static final int[] CATEGORY_COLORS = {
+            Color.parseColor("#4CAF50"),
+            Color.parseColor("#2196F3"),
+            Color.parseColor("#FF9800"),
+            Color.parseColor("#E91E63"),
+            Color.parseColor("#9C27B0"),
+            Color.parseColor("#009688"),
+            Color.parseColor("#CDDC39")
+    };
+
+    // Màu cho 12 tháng
+    private static final int[] MONTH_COLORS = {
+            0xFF4CAF50, 0xFF2196F3, 0xFFFFC107, 0xFFFF5722,
+            0xFF9C27B0, 0xFFE91E63, 0xFF3F51B5, 0xFF009688,
+            0xFFCDDC39, 0xFFFF9800, 0xFF795548, 0xFF607D8B
+    };
+
+    private static final String[] MONTH_NAMES = {
+            "Jan", "Feb", "Mar", "Apr", "May", "Jun",
+            "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    private static final long CHART_ANIMATION_MS = 400;
+
     // 🔹 Khai báo các View trong giao diện
     private LinearLayout expensesContainer;   // Hiển thị danh sách top expenses
-    private LinearLayout barChartContainer;   // Hiển thị biểu đồ cột
+    private BarChartView barChart;            // Biểu đồ cột theo tháng
+    private LegendView legendView;            // Chú thích của PieChart
+    private LineChartView dailyChart;         // Chi tiêu từng ngày trong khoảng
     private TextView tvYear, tvDateRange;     // Hiển thị năm và khoảng thời gian
-    private PieChart pieChart;                // Biểu đồ tròn
+    private TextView tvPeriodSummary;         // Tổng thu/chi + so sánh kỳ trước
+    private PieChartView pieChart;            // Biểu đồ tròn
 
-    // 🔹 Các biến lưu ngày tháng
-    private long startDate, endDate;
-    private int selectedYear = Calendar.getInstance().get(Calendar.YEAR);
+    // Chỉ chạy hiệu ứng lần đầu hiển thị, không phải mỗi lần dữ liệu đổi
+    private boolean animateCharts;
 
-    // 🔹 Định dạng hiển thị ngày
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-    
-    // 🔹 Track last user/wallet for refresh detection
-    private int lastUserId = -1;
-    private int lastWalletId = -1;
+    // 🔹 Khoảng ngày, năm và kết quả đã tính nằm trong ViewModel (sống theo Activity)
+    private StatisticsViewModel viewModel;
 
     @Nullable
     @Override
@@ -66,54 +91,69 @@ public class StatisticsFragment extends Fragment {
 
         // Ánh xạ các view từ XML
         expensesContainer = view.findViewById(R.id.expenses_container);
-        barChartContainer = view.findViewById(R.id.bar_chart_container);
+        barChart = view.findViewById(R.id.bar_chart);
+        legendView = view.findViewById(R.id.legend_view);
         tvYear = view.findViewById(R.id.tv_year);
         tvDateRange = view.findViewById(R.id.tv_date_range);
+        tvPeriodSummary = view.findViewById(R.id.tv_period_summary);
         pieChart = view.findViewById(R.id.pie_chart);
+        dailyChart = view.findViewById(R.id.daily_chart);
+        pieChart.setNoDataText("Không có dữ liệu trong khoảng này");
+        barChart.setNoDataText("Chưa có dữ liệu theo tháng.");
+        animateCharts = true;
 
-        // 🔹 Đặt mặc định khoảng ngày: từ đầu tháng đến cuối tháng hiện tại
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        startDate = cal.getTimeInMillis();
-        cal.set(Calendar.DAY_OF_MONTH, cal.getActualMaximum(Calendar.DAY_OF_MONTH));
-        endDate = cal.getTimeInMillis();
+        viewModel = new ViewModelProvider(requireActivity()).get(StatisticsViewModel.class);
 
-        // Hiển thị ngày lên TextView
-        tvDateRange.setText(dateFormat.format(startDate) + " - " + dateFormat.format(endDate));
+        // Hiển thị ngày lên TextView (mặc định: từ đầu tháng đến cuối tháng hiện tại)
+        showDateRange();
 
         // Khi nhấn vào chọn lại khoảng ngày
         tvDateRange.setOnClickListener(v -> showDateRangePicker());
 
         // Hiển thị năm hiện tại
-        tvYear.setText(String.valueOf(selectedYear));
+        tvYear.setText(String.valueOf(viewModel.getSelectedYear()));
         tvYear.setOnClickListener(v -> showYearPicker());
-
-        // Tải dữ liệu ban đầu
-        loadStatistics();
         return view;
     }
 
     @Override
-    public void onResume() {
-        super.onResume();
-        
-        // Check if user or wallet has changed
-        int currentUserId = MainActivity.getCurrentUserId();
-        int currentWalletId = MainActivity.getSelectedWalletId();
-        
-        if (currentUserId != lastUserId || currentWalletId != lastWalletId) {
-            lastUserId = currentUserId;
-            lastWalletId = currentWalletId;
-            refreshData();
-        }
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        // Kết quả cũ hiện ngay khi quay lại tab; ViewModel chỉ tính lại khi đổi ví /
+        // khoảng ngày / năm hoặc khi bảng rollup thay đổi
+        viewModel.getStatistics().observe(getViewLifecycleOwner(), bundle -> {
+            displayPeriodSummary(bundle);
+            displayPieChart(bundle.categoryTotals);
+            displayTopExpenses(bundle.categoryTotals, bundle.currency);
+            displayBarChart(bundle.monthlyTotals, bundle.currency);
+            dailyChart.setData(bundle.dailyExpenses);
+
+            if (animateCharts) {
+                // Hiệu ứng chạy trên hardware layer, không vẽ lại từng frame
+                animateCharts = false;
+                pieChart.animateIn(CHART_ANIMATION_MS);
+                barChart.animateIn(CHART_ANIMATION_MS);
+            }
+        });
     }
-    
+
     /**
-     * Public method to refresh statistics data
-     * Called when wallet is changed or user logs in/out
+     * Thu / chi trong khoảng ngày đã chọn, và chi tiêu so với kỳ trước
+     * (cùng số ngày, ngay trước khoảng đã chọn)
      */
-    public void refreshData() {
-        loadStatistics();
+    private void displayPeriodSummary(StatisticsBundle bundle) {
+        String text = "Thu: " + Money.format(bundle.period.income, bundle.currency)
+                + "  ·  Chi: " + Money.format(bundle.period.expense, bundle.currency);
+        Double change = bundle.expenseChangePercent();
+        if (change != null) {
+            text += String.format(Locale.getDefault(), "\nChi tiêu %+.1f%% so với kỳ trước", change);
+        }
+        tvPeriodSummary.setText(text);
+    }
+
+    private void showDateRange() {
+        tvDateRange.setText(DateLabelFormatter.date(viewModel.getStartDate()) + " - " + DateLabelFormatter.date(viewModel.getEndDate()));
     }
 
     /**
@@ -127,18 +167,17 @@ public class StatisticsFragment extends Fragment {
                 (view, year, month, dayOfMonth) -> {
                     Calendar startCal = Calendar.getInstance();
                     startCal.set(year, month, dayOfMonth, 0, 0, 0);
-                    startDate = startCal.getTimeInMillis();
+                    long startDate = startCal.getTimeInMillis();
 
                     // Khi chọn xong -> mở hộp chọn ngày kết thúc
                     DatePickerDialog endPicker = new DatePickerDialog(requireContext(),
                             (view2, year2, month2, day2) -> {
                                 Calendar endCal = Calendar.getInstance();
                                 endCal.set(year2, month2, day2, 23, 59, 59);
-                                endDate = endCal.getTimeInMillis();
+                                viewModel.setDateRange(startDate, endCal.getTimeInMillis());
 
                                 // Cập nhật hiển thị
-                                tvDateRange.setText(dateFormat.format(startDate) + " - " + dateFormat.format(endDate));
-                                loadStatistics();
+                                showDateRange();
 
                             }, calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH));
                     endPicker.setTitle("Chọn ngày kết thúc");
@@ -162,139 +201,25 @@ public class StatisticsFragment extends Fragment {
         new AlertDialog.Builder(requireContext())
                 .setTitle("Chọn năm thống kê")
                 .setItems(years.toArray(new String[0]), (dialog, which) -> {
-                    selectedYear = Integer.parseInt(years.get(which));
-                    tvYear.setText(String.valueOf(selectedYear));
-                    loadStatistics();
+                    viewModel.setSelectedYear(Integer.parseInt(years.get(which)));
+                    tvYear.setText(String.valueOf(viewModel.getSelectedYear()));
                 })
                 .show();
     }
 
     /**
-     * Lấy dữ liệu từ Room Database theo:
-     * - Khoảng ngày (để hiển thị PieChart)
-     * - Năm (để hiển thị BarChart)
+     * Biểu đồ tròn + legend: mảng float/String chuẩn bị một lần, vẽ bằng Canvas
      */
-    private void loadStatistics() {
-        new Thread(() -> {
-            AppDatabase db = AppDatabase.getInstance(getContext());
-            if (db == null || db.transactionDao() == null) return;
-
-            int userId = MainActivity.getCurrentUserId();
-            int walletId = MainActivity.getSelectedWalletId();
-
-            // Dữ liệu cho PieChart - wallet-specific
-            List<CategoryTotal> categoryTotals = db.transactionDao()
-                    .getExpensesByDateRange(userId, walletId, startDate, endDate);
-
-            // Dữ liệu cho BarChart - wallet-specific
-            Calendar calendar = Calendar.getInstance();
-            calendar.set(selectedYear, Calendar.JANUARY, 1, 0, 0, 0);
-            long startOfYear = calendar.getTimeInMillis();
-            calendar.set(selectedYear, Calendar.DECEMBER, 31, 23, 59, 59);
-            long endOfYear = calendar.getTimeInMillis();
-
-            List<MonthTotal> monthlyTotals =
-                    db.transactionDao().getMonthlyExpensesByYear(userId, walletId, startOfYear, endOfYear);
-
-            // Cập nhật giao diện trên main thread
-            requireActivity().runOnUiThread(() -> {
-                displayPieChart(categoryTotals);
-                displayTopExpenses(categoryTotals);
-                displayBarChart(monthlyTotals);
-            });
-        }).start();
-    }
-
     private void displayPieChart(List<CategoryTotal> data) {
-        pieChart.clear();
-
-        if (data == null || data.isEmpty()) {
-            pieChart.setNoDataText("Không có dữ liệu trong khoảng này");
-            pieChart.invalidate();
-            return;
-        }
-
-        // 🔹 Tạo danh sách dữ liệu cho biểu đồ
-        List<PieEntry> entries = new ArrayList<>();
-        for (CategoryTotal item : data) {
-            entries.add(new PieEntry((float) item.total, item.category));
-        }
-
-        // 🔹 Thiết lập màu sắc & kiểu hiển thị
-        PieDataSet dataSet = new PieDataSet(entries, "");
-        dataSet.setColors(new int[]{
-                Color.parseColor("#4CAF50"),
-                Color.parseColor("#2196F3"),
-                Color.parseColor("#FF9800"),
-                Color.parseColor("#E91E63"),
-                Color.parseColor("#9C27B0"),
-                Color.parseColor("#009688"),
-                Color.parseColor("#CDDC39")
-        });
-        dataSet.setValueTextSize(0f);
-        dataSet.setValueTextColor(Color.TRANSPARENT); // Ẩn text % trong lát
-
-        // 🔹 Gán dữ liệu vào PieChart
-        PieData pieData = new PieData(dataSet);
-        pieChart.setData(pieData);
-
-        // 🔹 Tùy chỉnh hiển thị biểu đồ
-        pieChart.setDrawHoleEnabled(false);      // Không hiển thị lỗ giữa
-        pieChart.setDrawEntryLabels(false);      // Không hiển thị nhãn
-        pieChart.getDescription().setEnabled(false);
-        pieChart.setUsePercentValues(false);
-        pieChart.setCenterText(null);
-        pieChart.getLegend().setEnabled(false);  // Tắt legend mặc định
-
-        pieChart.animateY(1000);
-        pieChart.invalidate();
-
-        // 🔹 Tạo legend tùy chỉnh bên phải (hiển thị màu + tên danh mục)
-        LinearLayout legendLayout = getView().findViewById(R.id.legend_container);
-        if (legendLayout != null) {
-            legendLayout.removeAllViews();
-
-            for (int i = 0; i < data.size(); i++) {
-                CategoryTotal item = data.get(i);
-
-                // Layout mỗi dòng trong legend
-                LinearLayout itemLayout = new LinearLayout(getContext());
-                itemLayout.setOrientation(LinearLayout.HORIZONTAL);
-                itemLayout.setPadding(8, 8, 8, 8);
-                itemLayout.setGravity(Gravity.START | Gravity.CENTER_VERTICAL);
-
-                // Tạo chấm tròn màu
-                View colorDot = new View(getContext());
-                int size = (int) (12 * getResources().getDisplayMetrics().density);
-                LinearLayout.LayoutParams dotParams = new LinearLayout.LayoutParams(size, size);
-                dotParams.setMarginEnd(12);
-                colorDot.setLayoutParams(dotParams);
-                colorDot.setBackgroundResource(R.drawable.legend_dot_shape);
-                colorDot.getBackground().setTint(dataSet.getColors().get(i % dataSet.getColors().size()));
-
-                // Tên danh mục (đổi màu theo Light / Dark mode)
-                TextView label = new TextView(getContext());
-                label.setText(item.category);
-                label.setTextSize(14f);
-
-                int textColor;
-                if ((getResources().getConfiguration().uiMode &
-                        Configuration.UI_MODE_NIGHT_MASK) == Configuration.UI_MODE_NIGHT_YES) {
-                    textColor = Color.WHITE; // Dark mode
-                } else {
-                    textColor = Color.parseColor("#333333"); // Light mode
-                }
-                label.setTextColor(textColor);
-
-
-
-                // Gộp lại
-                itemLayout.addView(colorDot);
-                itemLayout.addView(label);
-                legendLayout.addView(itemLayout);
-
-            }
+        int size = data != null ? data.size() : 0;
+        float[] values = new float[size];
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = data.get(i).total;
+            names[i] = data.get(i).category;
         }
+        pieChart.setData(values, CATEGORY_COLORS);
+        legendView.setEntries(names, CATEGORY_COLORS);
     }
 
     /**
@@ -305,7 +230,7 @@ public class StatisticsFragment extends Fragment {
      * - Tỷ lệ %
      * - Số tiền
      */
-    private void displayTopExpenses(List<CategoryTotal> topExpenses) {
+    private void displayTopExpenses(List<CategoryTotal> topExpenses, String currency) {
         expensesContainer.removeAllViews();
         LayoutInflater inflater = LayoutInflater.from(getContext());
 
@@ -332,7 +257,7 @@ public class StatisticsFragment extends Fragment {
             tvCategory.setText(item.category);
             double percent = (item.total / totalAll) * 100;
             tvPercent.setText(String.format(Locale.getDefault(), "%.1f%%", percent));
-            tvAmount.setText(String.format(Locale.getDefault(), "%,.0f VND", item.total));
+            tvAmount.setText(Money.format(item.total, currency));
 
             // Gán icon theo tên danh mục
             String cat = item.category.toLowerCase(Locale.ROOT);
@@ -356,78 +281,34 @@ public class StatisticsFragment extends Fragment {
     }
 
     /**
-     * Hiển thị biểu đồ cột (Bar Chart tự tạo bằng View)
-     * Mỗi tháng là 1 cột, chiều cao tương ứng với số tiền
+     * Hiển thị biểu đồ cột: mỗi tháng là 1 cột, chiều cao tương ứng với số tiền
      */
-    private void displayBarChart(List<MonthTotal> monthlyTotals) {
-        if (barChartContainer == null) return;
-        barChartContainer.removeAllViews();
-
-        LayoutInflater inflater = LayoutInflater.from(getContext());
-        if (monthlyTotals == null || monthlyTotals.isEmpty()) {
-            TextView empty = new TextView(getContext());
-            empty.setText("Chưa có dữ liệu theo tháng.");
-            empty.setPadding(16, 16, 16, 16);
-            barChartContainer.addView(empty);
-            return;
-        }
-
-        // Tìm giá trị lớn nhất để chuẩn hóa chiều cao
-        double maxTotal = 0;
-        for (MonthTotal item : monthlyTotals) {
-            if (item.total > maxTotal) maxTotal = item.total;
-        }
-
-        // Màu cho 12 tháng
-        int[] colors = {
-                0xFF4CAF50, 0xFF2196F3, 0xFFFFC107, 0xFFFF5722,
-                0xFF9C27B0, 0xFFE91E63, 0xFF3F51B5, 0xFF009688,
-                0xFFCDDC39, 0xFFFF9800, 0xFF795548, 0xFF607D8B
-        };
-
-        int colorIndex = 0;
-
-        // Duyệt từng tháng và tạo cột
-        for (MonthTotal item : monthlyTotals) {
-            View monthBar = inflater.inflate(R.layout.item_month_bar, barChartContainer, false);
-            TextView tvValue = monthBar.findViewById(R.id.tvValue);
-            View bar = monthBar.findViewById(R.id.bar);
-            TextView tvMonth = monthBar.findViewById(R.id.tvMonth);
-
-            tvValue.setText(String.format(Locale.getDefault(), "%.1fM", item.total / 1_000_000.0));
-            tvMonth.setText(getMonthName(item.month));
-
-            int maxHeightPx = 250;
-            float ratio = (float) (item.total / maxTotal);
-            int height = (int) (ratio * maxHeightPx);
-            bar.getLayoutParams().height = Math.max(height, 20);
-
-            bar.setBackgroundColor(colors[colorIndex % colors.length]);
-            colorIndex++;
-
-            bar.requestLayout();
-            barChartContainer.addView(monthBar);
+    private void displayBarChart(List<MonthTotal> monthlyTotals, String currency) {
+        int size = monthlyTotals != null ? monthlyTotals.size() : 0;
+        float[] values = new float[size];
+        String[] valueLabels = new String[size];
+        String[] monthLabels = new String[size];
+        for (int i = 0; i < size; i++) {
+            MonthTotal item = monthlyTotals.get(i);
+            values[i] = item.total;
+            valueLabels[i] = Money.formatCompact(item.total, currency);
+            monthLabels[i] = getMonthName(item.month);
         }
+        barChart.setData(values, valueLabels, monthLabels, MONTH_COLORS);
     }
 
     /**
      * Đổi tháng dạng số ("01") sang chữ ("Jan")
      */
     private String getMonthName(String month) {
-        switch (month) {
-            case "01": return "Jan";
-            case "02": return "Feb";
-            case "03": return "Mar";
-            case "04": return "Apr";
-            case "05": return "May";
-            case "06": return "Jun";
-            case "07": return "Jul";
-            case "08": return "Aug";
-            case "09": return "Sep";
-            case "10": return "Oct";
-            case "11": return "Nov";
-            case "12": return "Dec";
-            default: return month;
+        try {
+            int index = Integer.parseInt(month) - 1;
+            if (index >= 0 && index < MONTH_NAMES.length) {
+                return MONTH_NAMES[index];
+            }
+        } catch (NumberFormatException ignored) {
+            // giữ nguyên chuỗi gốc
         }
+        return month;
     }
 }
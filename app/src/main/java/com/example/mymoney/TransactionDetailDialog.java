@@ -12,10 +12,8 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 
-import com.example.mymoney.database.AppDatabase;
-import com.example.mymoney.database.entity.Category;
-import com.example.mymoney.database.entity.Transaction;
-import com.example.mymoney.database.entity.Wallet;
+import com.example.mymoney.model.Money;
+import com.example.mymoney.model.TransactionListItem;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -23,8 +21,7 @@ import java.util.Locale;
 
 public class TransactionDetailDialog extends Dialog {
 
-    private Transaction transaction;
-    private AppDatabase database;
+    private TransactionListItem transaction;
     private OnTransactionActionListener listener;
 
     // Views
@@ -38,14 +35,13 @@ public class TransactionDetailDialog extends Dialog {
     private TextView tvNote;
 
     public interface OnTransactionActionListener {
-        void onDelete(Transaction transaction);
-        void onEdit(Transaction transaction);
+        void onDelete(TransactionListItem transaction);
+        void onEdit(TransactionListItem transaction);
     }
 
-    public TransactionDetailDialog(@NonNull Context context, Transaction transaction, OnTransactionActionListener listener) {
+    public TransactionDetailDialog(@NonNull Context context, TransactionListItem transaction, OnTransactionActionListener listener) {
         super(context);
         this.transaction = transaction;
-        this.database = AppDatabase.getInstance(context);
         this.listener = listener;
     }
 
@@ -90,84 +86,61 @@ public class TransactionDetailDialog extends Dialog {
 
     @SuppressLint("UseCompatLoadingForDrawables")
     private void loadTransactionDetails() {
-        new Thread(() -> {
-            try {
-                // Get category
-                Category category = database.categoryDao().getCategoryById(transaction.getCategoryId());
-                
-                // Get wallet
-                Wallet wallet = database.walletDao().getWalletById(transaction.getWalletId());
-
-                // Format date
-                SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy HH:mm:ss", Locale.getDefault());
-                String formattedDate = sdf.format(new Date(transaction.getCreatedAt()));
-
-                // Log for debugging
-                android.util.Log.d("TransactionDialog", "Category: " + (category != null ? category.getName() : "null"));
-                android.util.Log.d("TransactionDialog", "Icon: " + (category != null ? category.getIcon() : "null"));
-                android.util.Log.d("TransactionDialog", "Wallet: " + (wallet != null ? wallet.getName() : "null"));
-                android.util.Log.d("TransactionDialog", "Description: " + transaction.getDescription());
-
-                // Update UI on main thread - use a Handler or post to any view
-                if (tvCategoryName != null) {
-                    tvCategoryName.post(() -> {
-                        try {
-                            // Category name and icon
-                            if (category != null) {
-                                tvCategoryName.setText(category.getName());
-                                
-                                // Set category icon based on icon resource name
-                                if (category.getIcon() != null && !category.getIcon().isEmpty()) {
-                                    int iconResId = getContext().getResources().getIdentifier(
-                                        category.getIcon(),
-                                        "drawable",
-                                        getContext().getPackageName()
-                                    );
-                                    android.util.Log.d("TransactionDialog", "Icon resource ID: " + iconResId);
-                                    if (iconResId != 0) {
-                                        ivCategoryIcon.setImageDrawable(getContext().getDrawable(iconResId));
-                                    }
-                                }
-                            }
-
-                            // Amount with color
-                            String amountText = String.format(Locale.getDefault(), 
-                                "%s%,.0f %s", 
-                                "income".equals(transaction.getType()) ? "+" : "-",
-                                transaction.getAmount(),
-                                wallet != null ? wallet.getCurrency() : "VND");
-                            tvAmount.setText(amountText);
-                            
-                            // Set color based on type
-                            if ("income".equals(transaction.getType())) {
-                                tvAmount.setTextColor(getContext().getResources().getColor(R.color.green, null));
-                            } else {
-                                tvAmount.setTextColor(getContext().getResources().getColor(R.color.red, null));
-                            }
-
-                            // Date
-                            tvDate.setText(formattedDate);
-
-                            // Wallet name
-                            tvAccount.setText(wallet != null ? wallet.getName() : "Default Account");
-
-                            // Note (description)
-                            String note = transaction.getDescription();
-                            if (note != null && !note.trim().isEmpty()) {
-                                tvNote.setText(note);
-                            } else {
-                                tvNote.setText("No note");
-                            }
-                        } catch (Exception e) {
-                            android.util.Log.e("TransactionDialog", "Error updating UI", e);
-                        }
-                    });
+        try {
+            // Category and wallet columns come joined into the row, no query needed
+            // Format date
+            SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy HH:mm:ss", Locale.getDefault());
+            String formattedDate = sdf.format(new Date(transaction.createdAt));
+
+            // Log for debugging
+            android.util.Log.d("TransactionDialog", "Category: " + transaction.categoryName);
+            android.util.Log.d("TransactionDialog", "Wallet: " + transaction.walletName);
+
+            // Category name and icon
+            if (transaction.categoryName != null) {
+                tvCategoryName.setText(transaction.categoryName);
+
+                // Set category icon based on icon resource name
+                if (transaction.categoryIcon != null && !transaction.categoryIcon.isEmpty()) {
+                    int iconResId = getContext().getResources().getIdentifier(
+                        transaction.categoryIcon,
+                        "drawable",
+                        getContext().getPackageName()
+                    );
+                    if (iconResId != 0) {
+                        ivCategoryIcon.setImageDrawable(getContext().getDrawable(iconResId));
+                    }
                 }
-            } catch (Exception e) {
-                android.util.Log.e("TransactionDialog", "Error loading transaction details", e);
-                e.printStackTrace();
             }
-        }).start();
+
+            // Amount with color
+            String amountText = Money.formatSigned(transaction.amount,
+                transaction.isIncome(), transaction.currency);
+            tvAmount.setText(amountText);
+
+            // Set color based on type
+            if (transaction.isIncome()) {
+                tvAmount.setTextColor(getContext().getResources().getColor(R.color.green, null));
+            } else {
+                tvAmount.setTextColor(getContext().getResources().getColor(R.color.red, null));
+            }
+
+            // Date
+            tvDate.setText(formattedDate);
+
+            // Wallet name
+            tvAccount.setText(transaction.walletName != null ? transaction.walletName : "Default Account");
+
+            // Note (description)
+            String note = transaction.description;
+            if (note != null && !note.trim().isEmpty()) {
+                tvNote.setText(note);
+            } else {
+                tvNote.setText("No note");
+            }
+        } catch (Exception e) {
+            android.util.Log.e("TransactionDialog", "Error loading transaction details", e);
+        }
     }
 
     private void setupListeners() {
@@ -7,6 +7,8 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.mymoney.R;
@@ -14,10 +16,23 @@ import com.example.mymoney.database.entity.Category;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.CategoryViewHolder> {
+public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.CategoryViewHolder> {
+
+    private static final DiffUtil.ItemCallback<Category> DIFF = new DiffUtil.ItemCallback<Category>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getIcon(), newItem.getIcon());
+        }
+    };
 
-    private List<Category> categories = new ArrayList<>();
     private int selectedCategoryId = -1;
     private OnCategoryClickListener listener;
 
@@ -26,17 +41,38 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
     }
 
     public CategoryAdapter(OnCategoryClickListener listener) {
+        super(DIFF);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
     public void setCategories(List<Category> categories) {
-        this.categories = categories;
-        notifyDataSetChanged();
+        submitList(new ArrayList<>(categories));
     }
 
+    /**
+     * Move the check mark: only the old and the new selected row are rebound
+     */
     public void setSelectedCategoryId(int categoryId) {
+        int previous = selectedCategoryId;
         this.selectedCategoryId = categoryId;
-        notifyDataSetChanged();
+        notifyCategoryChanged(previous);
+        notifyCategoryChanged(categoryId);
+    }
+
+    private void notifyCategoryChanged(int categoryId) {
+        List<Category> categories = getCurrentList();
+        for (int i = 0; i < categories.size(); i++) {
+            if (categories.get(i).getId() == categoryId) {
+                notifyItemChanged(i);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
     @NonNull
@@ -49,13 +85,7 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
 
     @Override
     public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
-        Category category = categories.get(position);
-        holder.bind(category);
-    }
-
-    @Override
-    public int getItemCount() {
-        return categories.size();
+        holder.bind(getItem(position));
     }
 
     class CategoryViewHolder extends RecyclerView.ViewHolder {
@@ -3,112 +3,224 @@ package com.example.mymoney.adapter;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.animation.AnimationUtils;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.mymoney.R;
-import com.example.mymoney.database.AppDatabase;
-import com.example.mymoney.database.entity.Transaction;
+import com.example.mymoney.database.DateKeys;
 import com.example.mymoney.model.DailyTransactionGroup;
+import com.example.mymoney.model.TransactionListItem;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
 
 /**
- * Adapter for displaying transactions grouped by date in cards
+ * Transactions grouped by date as one flat list: a day header row followed
+ * by that day's transaction rows. All rows share one RecyclerView pool, so
+ * a day with hundreds of transactions scrolls like any other list.
+ *
+ * Collapsing a day removes its rows from the list; ListAdapter diffs the
+ * change in the background, so only those rows are animated out.
+ * StickyHeaderDecoration keeps the current day's header pinned on top.
  */
-public class DailyTransactionGroupAdapter extends RecyclerView.Adapter<DailyTransactionGroupAdapter.DailyGroupViewHolder> {
+public class DailyTransactionGroupAdapter extends ListAdapter<Object, RecyclerView.ViewHolder>
+        implements StickyHeaderDecoration.HeaderAdapter {
 
+    private static final int TYPE_HEADER = 0;
+    private static final int TYPE_TRANSACTION = 1;
+
+    private static final DiffUtil.ItemCallback<Object> DIFF = new DiffUtil.ItemCallback<Object>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            return idOf(oldItem) == idOf(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (oldItem instanceof DailyTransactionGroup && newItem instanceof DailyTransactionGroup) {
+                DailyTransactionGroup oldGroup = (DailyTransactionGroup) oldItem;
+                DailyTransactionGroup newGroup = (DailyTransactionGroup) newItem;
+                return oldGroup.getTotalIncome() == newGroup.getTotalIncome()
+                        && oldGroup.getTotalExpense() == newGroup.getTotalExpense()
+                        && Objects.equals(oldGroup.getDate(), newGroup.getDate());
+            }
+            if (oldItem instanceof TransactionListItem && newItem instanceof TransactionListItem) {
+                return TransactionAdapter.DIFF.areContentsTheSame(
+                        (TransactionListItem) oldItem, (TransactionListItem) newItem);
+            }
+            return false;
+        }
+    };
+
+    private final TransactionAdapter.OnTransactionClickListener listener;
     private List<DailyTransactionGroup> dailyGroups = new ArrayList<>();
-    private AppDatabase database;
-    private TransactionAdapter.OnTransactionClickListener listener;
+    // Days whose header already played its entrance animation
+    private final Set<Integer> animatedDays = new HashSet<>();
 
-    public DailyTransactionGroupAdapter(AppDatabase database, TransactionAdapter.OnTransactionClickListener listener) {
-        this.database = database;
+    public DailyTransactionGroupAdapter(TransactionAdapter.OnTransactionClickListener listener) {
+        super(DIFF);
         this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    private static int dayOf(DailyTransactionGroup group) {
+        return DateKeys.dayKey(group.getTimestamp());
+    }
+
+    /** Headers get negative ids so they never collide with transaction ids */
+    private static long idOf(Object item) {
+        if (item instanceof DailyTransactionGroup) {
+            return -dayOf((DailyTransactionGroup) item);
+        }
+        return ((TransactionListItem) item).id;
     }
 
     public void setDailyGroups(List<DailyTransactionGroup> dailyGroups) {
-        this.dailyGroups = dailyGroups;
-        notifyDataSetChanged();
+        this.dailyGroups = new ArrayList<>(dailyGroups);
+        submitFlatList();
+    }
+
+    /** Header, then the day's rows if it is expanded, for every day */
+    private void submitFlatList() {
+        List<Object> rows = new ArrayList<>();
+        for (DailyTransactionGroup group : dailyGroups) {
+            rows.add(group);
+            if (group.isExpanded()) {
+                rows.addAll(group.getTransactions());
+            }
+        }
+        submitList(rows);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return idOf(getItem(position));
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return getItem(position) instanceof DailyTransactionGroup ? TYPE_HEADER : TYPE_TRANSACTION;
     }
 
     @NonNull
     @Override
-    public DailyGroupViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_daily_transaction_group, parent, false);
-        return new DailyGroupViewHolder(view);
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (viewType == TYPE_HEADER) {
+            return new HeaderViewHolder(createHeaderView(parent));
+        }
+        return TransactionAdapter.TransactionViewHolder.create(parent, listener);
     }
 
     @Override
-    public void onBindViewHolder(@NonNull DailyGroupViewHolder holder, int position) {
-        DailyTransactionGroup group = dailyGroups.get(position);
-        holder.bind(group, position);
-        
-        // Add entrance animation
-        holder.itemView.setAlpha(0f);
-        holder.itemView.setTranslationY(50f);
-        holder.itemView.animate()
-            .alpha(1f)
-            .translationY(0f)
-            .setDuration(300)
-            .setStartDelay(position * 50L)
-            .start();
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        Object item = getItem(position);
+        if (holder instanceof HeaderViewHolder) {
+            DailyTransactionGroup group = (DailyTransactionGroup) item;
+            ((HeaderViewHolder) holder).bind(group);
+            animateFirstAppearance(holder, group, position);
+        } else {
+            ((TransactionAdapter.TransactionViewHolder) holder).bind((TransactionListItem) item);
+        }
+    }
+
+    /** Entrance animation only the first time a day appears, not on every refresh */
+    private void animateFirstAppearance(RecyclerView.ViewHolder holder, DailyTransactionGroup group, int position) {
+        // A recycled holder may still run the previous one
+        holder.itemView.animate().cancel();
+        if (animatedDays.add(dayOf(group))) {
+            holder.itemView.setAlpha(0f);
+            holder.itemView.setTranslationY(50f);
+            holder.itemView.animate()
+                .alpha(1f)
+                .translationY(0f)
+                .setDuration(300)
+                .setStartDelay(Math.min(position, 10) * 50L)
+                .start();
+        } else {
+            holder.itemView.setAlpha(1f);
+            holder.itemView.setTranslationY(0f);
+        }
     }
 
     @Override
-    public int getItemCount() {
-        return dailyGroups.size();
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        // Don't let a delayed entrance animation land on the holder's next bind
+        holder.itemView.animate().cancel();
+        holder.itemView.setAlpha(1f);
+        holder.itemView.setTranslationY(0f);
     }
 
-    class DailyGroupViewHolder extends RecyclerView.ViewHolder {
-        private TextView tvDate;
-        private TextView tvSummary;
-        private RecyclerView rvTransactions;
-        private TransactionAdapter transactionAdapter;
-        private View headerLayout;
+    // ===== StickyHeaderDecoration.HeaderAdapter =====
 
-        public DailyGroupViewHolder(@NonNull View itemView) {
-            super(itemView);
-            tvDate = itemView.findViewById(R.id.tv_date);
-            tvSummary = itemView.findViewById(R.id.tv_summary);
-            rvTransactions = itemView.findViewById(R.id.rv_transactions);
-            headerLayout = itemView.findViewById(R.id.header_layout);
-
-            // Setup nested RecyclerView for transactions
-            rvTransactions.setLayoutManager(new LinearLayoutManager(itemView.getContext()));
-            transactionAdapter = new TransactionAdapter(database, listener);
-            rvTransactions.setAdapter(transactionAdapter);
+    @Override
+    public boolean isHeader(int position) {
+        return position >= 0 && position < getItemCount()
+                && getItem(position) instanceof DailyTransactionGroup;
+    }
+
+    @Override
+    public int getHeaderPositionFor(int position) {
+        for (int i = position; i >= 0; i--) {
+            if (isHeader(i)) return i;
         }
+        return RecyclerView.NO_POSITION;
+    }
 
-        public void bind(DailyTransactionGroup group, int position) {
-            // Set date
-            tvDate.setText(group.getDate());
+    @Override
+    public View createHeaderView(ViewGroup parent) {
+        View header = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_daily_header, parent, false);
+        // The pinned header keeps its views in a tag, like a holder would
+        header.setTag(new HeaderViews(header));
+        return header;
+    }
 
-            // Set summary
-            String summary = String.format(Locale.getDefault(),
-                    "Income:$%,.0f Expense:$%,.0f",
-                    group.getTotalIncome(),
-                    group.getTotalExpense());
-            tvSummary.setText(summary);
+    @Override
+    public void bindHeaderView(View header, int headerPosition) {
+        ((HeaderViews) header.getTag()).bind((DailyTransactionGroup) getItem(headerPosition));
+    }
 
-            // Show/hide transactions based on expanded state
-            rvTransactions.setVisibility(group.isExpanded() ? View.VISIBLE : View.GONE);
+    /** Views of one item_daily_header, looked up once per inflated header */
+    private static final class HeaderViews {
+        private final TextView tvDate;
+        private final TextView tvSummary;
 
-            // Set transactions
-            transactionAdapter.setTransactions(group.getTransactions());
+        HeaderViews(View header) {
+            tvDate = header.findViewById(R.id.tv_date);
+            tvSummary = header.findViewById(R.id.tv_summary);
+        }
 
-            // Handle header click to toggle expand/collapse
-            headerLayout.setOnClickListener(v -> {
-                group.toggleExpanded();
-                notifyItemChanged(position);
+        void bind(DailyTransactionGroup group) {
+            tvDate.setText(group.getDate());
+            tvSummary.setText(group.getSummaryLabel());
+        }
+    }
+
+    class HeaderViewHolder extends RecyclerView.ViewHolder {
+        private final HeaderViews views;
+
+        HeaderViewHolder(@NonNull View itemView) {
+            super(itemView);
+            views = (HeaderViews) itemView.getTag();
+            // Position is read at click time, the one from bind may be stale by then
+            itemView.setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) return;
+                ((DailyTransactionGroup) getItem(position)).toggleExpanded();
+                submitFlatList();
             });
         }
+
+        void bind(DailyTransactionGroup group) {
+            views.bind(group);
+        }
     }
 }
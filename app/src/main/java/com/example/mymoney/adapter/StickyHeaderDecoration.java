@@ -0,0 +1,104 @@
+package com.example.mymoney.adapter;
+
+import android.graphics.Canvas;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Draws the header of the section at the top of the list over the rows, and
+ * lets the next section's header push it up when they meet.
+ *
+ * The pinned header is one view inflated once and re-bound only when the
+ * section changes; it is drawn, not attached, so it costs no layout pass
+ * per frame.
+ */
+public class StickyHeaderDecoration extends RecyclerView.ItemDecoration {
+
+    /**
+     * Implemented by adapters whose list is split into sections by header rows.
+     */
+    public interface HeaderAdapter {
+        boolean isHeader(int position);
+
+        /** Position of the header of the section containing position, or NO_POSITION */
+        int getHeaderPositionFor(int position);
+
+        View createHeaderView(ViewGroup parent);
+
+        void bindHeaderView(View header, int headerPosition);
+    }
+
+    private final HeaderAdapter adapter;
+    private View header;
+    private int boundHeaderPosition = RecyclerView.NO_POSITION;
+    private int boundWidth;
+
+    public StickyHeaderDecoration(HeaderAdapter adapter) {
+        this.adapter = adapter;
+    }
+
+    @Override
+    public void onDrawOver(@NonNull Canvas canvas, @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+        if (parent.getChildCount() == 0) return;
+
+        View topChild = parent.getChildAt(0);
+        int topPosition = parent.getChildAdapterPosition(topChild);
+        if (topPosition == RecyclerView.NO_POSITION) return;
+
+        int headerPosition = adapter.getHeaderPositionFor(topPosition);
+        if (headerPosition == RecyclerView.NO_POSITION) return;
+
+        // The real header row is fully visible at the top, nothing to pin
+        if (headerPosition == topPosition && topChild.getTop() >= parent.getPaddingTop()) return;
+
+        View pinned = getHeader(parent, headerPosition);
+
+        // Push the pinned header up when the next section's header reaches it
+        int offset = 0;
+        for (int i = 1; i < parent.getChildCount(); i++) {
+            View child = parent.getChildAt(i);
+            int position = parent.getChildAdapterPosition(child);
+            if (position != RecyclerView.NO_POSITION && adapter.isHeader(position)) {
+                int childTop = child.getTop();
+                if (childTop < pinned.getHeight()) {
+                    offset = childTop - pinned.getHeight();
+                }
+                break;
+            }
+        }
+
+        canvas.save();
+        canvas.translate(parent.getPaddingLeft(), offset);
+        pinned.draw(canvas);
+        canvas.restore();
+    }
+
+    private View getHeader(RecyclerView parent, int headerPosition) {
+        if (header == null) {
+            header = adapter.createHeaderView(parent);
+            boundHeaderPosition = RecyclerView.NO_POSITION;
+        }
+        int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+        if (headerPosition != boundHeaderPosition || width != boundWidth) {
+            adapter.bindHeaderView(header, headerPosition);
+            int widthSpec = View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY);
+            int heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+            header.measure(widthSpec, heightSpec);
+            header.layout(0, 0, header.getMeasuredWidth(), header.getMeasuredHeight());
+            boundHeaderPosition = headerPosition;
+            boundWidth = width;
+        }
+        return header;
+    }
+
+    /**
+     * Forget the bound header, call when the list content changes so the
+     * pinned header shows fresh totals.
+     */
+    public void invalidateHeader() {
+        boundHeaderPosition = RecyclerView.NO_POSITION;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.mymoney.adapter;
 
+import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -7,120 +8,164 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.mymoney.R;
-import com.example.mymoney.database.AppDatabase;
-import com.example.mymoney.database.entity.Category;
-import com.example.mymoney.database.entity.Transaction;
+import com.example.mymoney.model.TransactionListItem;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Transaction rows, diffed on a background thread by ListAdapter: a refresh
+ * that inserts or deletes one transaction rebinds only that row.
+ */
+public class TransactionAdapter extends ListAdapter<TransactionListItem, TransactionAdapter.TransactionViewHolder> {
+
+    /** Same row = same id; same content = every column the row shows */
+    public static final DiffUtil.ItemCallback<TransactionListItem> DIFF = new DiffUtil.ItemCallback<TransactionListItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull TransactionListItem oldItem, @NonNull TransactionListItem newItem) {
+            return oldItem.id == newItem.id;
+        }
 
-public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.TransactionViewHolder> {
+        @Override
+        public boolean areContentsTheSame(@NonNull TransactionListItem oldItem, @NonNull TransactionListItem newItem) {
+            return oldItem.amount == newItem.amount
+                    && oldItem.createdAt == newItem.createdAt
+                    && Objects.equals(oldItem.type, newItem.type)
+                    && Objects.equals(oldItem.description, newItem.description)
+                    && Objects.equals(oldItem.categoryName, newItem.categoryName)
+                    && Objects.equals(oldItem.categoryIcon, newItem.categoryIcon)
+                    && Objects.equals(oldItem.walletName, newItem.walletName)
+                    && Objects.equals(oldItem.currency, newItem.currency);
+        }
+    };
 
-    private List<Transaction> transactions = new ArrayList<>();
-    private AppDatabase database;
     private OnTransactionClickListener listener;
 
     public interface OnTransactionClickListener {
-        void onTransactionClick(Transaction transaction);
+        void onTransactionClick(TransactionListItem transaction);
     }
 
-    public TransactionAdapter(AppDatabase database, OnTransactionClickListener listener) {
-        this.database = database;
+    public TransactionAdapter(OnTransactionClickListener listener) {
+        super(DIFF);
         this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Show a new list. The diff against the current one runs in the
+     * background, only changed rows are rebound.
+     */
+    public void setTransactions(List<TransactionListItem> transactions) {
+        // Copied: HistoryViewModel keeps appending pages to the list it published
+        submitList(new ArrayList<>(transactions));
     }
 
-    public void setTransactions(List<Transaction> transactions) {
-        this.transactions = transactions;
-        notifyDataSetChanged();
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
     }
 
     @NonNull
     @Override
     public TransactionViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_transaction, parent, false);
-        return new TransactionViewHolder(view);
+        return TransactionViewHolder.create(parent, listener);
     }
 
     @Override
     public void onBindViewHolder(@NonNull TransactionViewHolder holder, int position) {
-        Transaction transaction = transactions.get(position);
-        holder.bind(transaction);
+        holder.bind(getItem(position));
     }
 
-    @Override
-    public int getItemCount() {
-        return transactions.size();
-    }
+    /**
+     * One item_transaction row. Static so the flat Home list
+     * (DailyTransactionGroupAdapter) binds rows exactly like this adapter.
+     */
+    public static class TransactionViewHolder extends RecyclerView.ViewHolder {
+        // Drawable id per category icon name; getIdentifier is a reflective
+        // lookup, so each name is resolved once. Rows are bound on the main thread.
+        private static final Map<String, Integer> ICON_IDS = new HashMap<>();
 
-    class TransactionViewHolder extends RecyclerView.ViewHolder {
         private ImageView transactionIcon;
         private TextView transactionCategory;
         private TextView transactionDetails;
         private TextView transactionAmount;
+        private final int expenseColor;
+        private final int incomeColor;
+        private TransactionListItem bound;
+
+        public static TransactionViewHolder create(ViewGroup parent, OnTransactionClickListener listener) {
+            View view = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_transaction, parent, false);
+            return new TransactionViewHolder(view, listener);
+        }
 
-        public TransactionViewHolder(@NonNull View itemView) {
+        private TransactionViewHolder(@NonNull View itemView, OnTransactionClickListener listener) {
             super(itemView);
             transactionIcon = itemView.findViewById(R.id.transaction_icon);
             transactionCategory = itemView.findViewById(R.id.transaction_category);
             transactionDetails = itemView.findViewById(R.id.transaction_details);
             transactionAmount = itemView.findViewById(R.id.transaction_amount);
-        }
+            expenseColor = itemView.getContext().getColor(R.color.expense_red);
+            incomeColor = itemView.getContext().getColor(R.color.primary_green);
 
-        public void bind(Transaction transaction) {
-            // Get category name from database in background
-            new Thread(() -> {
-                try {
-                    Category category = database.categoryDao().getCategoryById(transaction.getCategoryId());
-                    
-                    // Update UI on main thread
-                    itemView.post(() -> {
-                        if (category != null) {
-                            transactionCategory.setText(category.getName());
-                            setTransactionIcon(category.getName());
-                        } else {
-                            transactionCategory.setText("Unknown");
-                            transactionIcon.setImageResource(R.drawable.ic_more_apps);
-                        }
-                    });
-                } catch (Exception e) {
-                    e.printStackTrace();
+            // Set once; reads the row bound at click time
+            itemView.setOnClickListener(v -> {
+                if (listener != null && bound != null) {
+                    listener.onTransactionClick(bound);
                 }
-            }).start();
-            
-            // Format date and description
-            SimpleDateFormat sdf = new SimpleDateFormat("HH:mm", Locale.getDefault());
-            String dateStr = sdf.format(new Date(transaction.getCreatedAt()));
-            transactionDetails.setText(dateStr);
-            
-            // Format amount
-            String amountStr;
-            int textColor;
-            if (transaction.getType().equals("expense")) {
-                amountStr = String.format(Locale.getDefault(), "-%,.0f VND", transaction.getAmount());
-                textColor = itemView.getContext().getColor(R.color.expense_red);
+            });
+        }
+
+        /**
+         * Fully synchronous: everything shown comes with the row, so a
+         * recycled holder can never be updated by a late callback. Time and
+         * amount text were formatted by the loader (prepareLabels()).
+         */
+        public void bind(TransactionListItem transaction) {
+            bound = transaction;
+            if (transaction.timeLabel == null) {
+                // Row from a loader that didn't prepare it
+                transaction.prepareLabels();
+            }
+
+            // Category name comes joined into the row, no query per row
+            if (transaction.categoryName != null) {
+                transactionCategory.setText(transaction.categoryName);
+                transactionIcon.setImageResource(iconFor(transaction));
             } else {
-                amountStr = String.format(Locale.getDefault(), "+%,.0f VND", transaction.getAmount());
-                textColor = itemView.getContext().getColor(R.color.primary_green);
+                transactionCategory.setText("Unknown");
+                transactionIcon.setImageResource(R.drawable.ic_more_apps);
             }
-            transactionAmount.setText(amountStr);
-            transactionAmount.setTextColor(textColor);
             
-            // Set click listener
-            itemView.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onTransactionClick(transaction);
+            transactionDetails.setText(transaction.timeLabel);
+            transactionAmount.setText(transaction.amountLabel);
+            transactionAmount.setTextColor("expense".equals(transaction.type) ? expenseColor : incomeColor);
+        }
+
+        /** The category's own icon (same as TransactionDetailDialog), else one picked by name */
+        private int iconFor(TransactionListItem transaction) {
+            String icon = transaction.categoryIcon;
+            if (icon != null && !icon.isEmpty()) {
+                Integer iconRes = ICON_IDS.get(icon);
+                if (iconRes == null) {
+                    Context context = itemView.getContext();
+                    iconRes = context.getResources().getIdentifier(icon, "drawable", context.getPackageName());
+                    ICON_IDS.put(icon, iconRes);
                 }
-            });
+                if (iconRes != 0) return iconRes;
+            }
+            return iconForName(transaction.categoryName);
         }
 
-        private void setTransactionIcon(String categoryName) {
+        private static int iconForName(String categoryName) {
             int iconRes;
             switch (categoryName.toLowerCase()) {
                 case "food":
@@ -156,7 +201,7 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
                     iconRes = R.drawable.ic_more_apps;
                     break;
             }
-            transactionIcon.setImageResource(iconRes);
+            return iconRes;
         }
     }
 }
@@ -7,6 +7,7 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.mymoney.R;
@@ -22,6 +23,12 @@ public class ChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
     public ChatAdapter() {
         this.chatMessages = new ArrayList<>();
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return chatMessages.get(position).getId();
     }
 
     @Override
@@ -82,8 +89,9 @@ public class ChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     }
 
     public void clearMessages() {
+        int count = chatMessages.size();
         chatMessages.clear();
-        notifyDataSetChanged();
+        notifyItemRangeRemoved(0, count);
     }
     
     public List<ChatMessage> getAllMessages() {
@@ -91,9 +99,32 @@ public class ChatAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     }
     
     public void setMessages(List<ChatMessage> messages) {
+        List<ChatMessage> old = new ArrayList<>(chatMessages);
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return old.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return messages.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return old.get(oldPosition).getId() == messages.get(newPosition).getId();
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                // Messages are not edited after they are added
+                return old.get(oldPosition) == messages.get(newPosition);
+            }
+        });
         chatMessages.clear();
         chatMessages.addAll(messages);
-        notifyDataSetChanged();
+        diff.dispatchUpdatesTo(this);
     }
 
     static class UserMessageViewHolder extends RecyclerView.ViewHolder {
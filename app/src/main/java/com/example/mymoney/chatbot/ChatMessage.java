@@ -1,6 +1,12 @@
 package com.example.mymoney.chatbot;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 public class ChatMessage {
+    // Ids only need to be unique within the process, they are never stored
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final long id = NEXT_ID.incrementAndGet();
     private String message;
     private boolean isUser;
     private long timestamp;
@@ -19,6 +25,11 @@ public class ChatMessage {
         this.timestamp = System.currentTimeMillis();
     }
 
+    /** Stable id for RecyclerView */
+    public long getId() {
+        return id;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -4,18 +4,17 @@ import android.content.Context;
 import android.util.Log;
 
 import com.example.mymoney.BuildConfig;
+import com.example.mymoney.CategoryTotal;
 import com.example.mymoney.database.AppDatabase;
-import com.example.mymoney.database.entity.Category;
+import com.example.mymoney.database.DateKeys;
 import com.example.mymoney.database.entity.SavingGoal;
-import com.example.mymoney.database.entity.Transaction;
+import com.example.mymoney.model.DashboardSummary;
+import com.example.mymoney.model.Money;
 
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -122,55 +121,31 @@ public class ChatbotService {
     private String analyzeUserFinancialData(int userId, int walletId) {
         StringBuilder analysis = new StringBuilder();
 
-        // Get current month date range
-        Calendar calendar = Calendar.getInstance();
-        calendar.set(Calendar.DAY_OF_MONTH, 1);
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        long monthStartTimestamp = calendar.getTimeInMillis();
-        long currentTimestamp = System.currentTimeMillis();
-
-        // Get transactions for current month (wallet-specific)
-        List<Transaction> monthlyTransactions = database.transactionDao()
-            .getTransactionsByWalletAndDateRange(walletId, monthStartTimestamp, currentTimestamp);
-
-        // Calculate totals
-        double totalExpenses = 0;
-        double totalIncome = 0;
-        Map<Integer, Double> categoryExpenses = new HashMap<>();
-
-        for (Transaction transaction : monthlyTransactions) {
-            if ("expense".equals(transaction.getType())) {
-                totalExpenses += transaction.getAmount();
-                categoryExpenses.put(
-                    transaction.getCategoryId(),
-                    categoryExpenses.getOrDefault(transaction.getCategoryId(), 0.0) + transaction.getAmount()
-                );
-            } else if ("income".equals(transaction.getType())) {
-                totalIncome += transaction.getAmount();
-            }
-        }
+        long now = System.currentTimeMillis();
+        int month = DateKeys.monthKey(now);
+
+        // Month totals of this wallet in one query (monthly rollup)
+        DashboardSummary summary = database.dashboardDao().getSummary(walletId, month);
+        long totalIncome = summary != null ? summary.monthIncome : 0;
+        long totalExpenses = summary != null ? summary.monthExpense : 0;
+        String currency = summary != null && summary.currency != null ? summary.currency : Money.DEFAULT_CURRENCY;
 
         // Build analysis
         analysis.append("📊 Tháng này (Ví hiện tại):\n");
-        analysis.append(String.format("Thu nhập: %.0f VNĐ\n", totalIncome));
-        analysis.append(String.format("Chi tiêu: %.0f VNĐ\n", totalExpenses));
-        analysis.append(String.format("Tiết kiệm: %.0f VNĐ\n", totalIncome - totalExpenses));
-
-        // Top spending categories
-        if (!categoryExpenses.isEmpty()) {
+        analysis.append("Thu nhập: ").append(Money.format(totalIncome, currency)).append("\n");
+        analysis.append("Chi tiêu: ").append(Money.format(totalExpenses, currency)).append("\n");
+        analysis.append("Tiết kiệm: ").append(Money.format(totalIncome - totalExpenses, currency)).append("\n");
+
+        // Top spending categories, already named and sorted by the daily rollup
+        List<CategoryTotal> topCategories = database.rollupDao().getTopExpensesByDayRange(
+                userId, walletId, month * 100 + 1, DateKeys.dayKey(now));
+        if (!topCategories.isEmpty()) {
             analysis.append("\n💰 Chi tiêu theo danh mục:\n");
-            categoryExpenses.entrySet().stream()
-                .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
-                .limit(3)
-                .forEach(entry -> {
-                    Category category = database.categoryDao().getCategoryById(entry.getKey());
-                    if (category != null) {
-                        analysis.append(String.format("- %s: %.0f VNĐ\n", 
-                            category.getName(), entry.getValue()));
-                    }
-                });
+            for (int i = 0; i < topCategories.size() && i < 3; i++) {
+                CategoryTotal entry = topCategories.get(i);
+                analysis.append("- ").append(entry.category).append(": ")
+                    .append(Money.format(entry.total, currency)).append("\n");
+            }
         }
 
         return analysis.toString();
@@ -10,6 +10,8 @@ import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.example.mymoney.database.dao.BudgetDao;
 import com.example.mymoney.database.dao.CategoryDao;
+import com.example.mymoney.database.dao.DashboardDao;
+import com.example.mymoney.database.dao.RollupDao;
 import com.example.mymoney.database.dao.SavingGoalDao;
 import com.example.mymoney.database.dao.TransactionDao;
 import com.example.mymoney.database.dao.UserDao;
@@ -18,11 +20,16 @@ import com.example.mymoney.database.entity.Budget;
 import com.example.mymoney.database.entity.Category;
 import com.example.mymoney.database.entity.SavingGoal;
 import com.example.mymoney.database.entity.Transaction;
+import com.example.mymoney.database.entity.TransactionDailyRollup;
+import com.example.mymoney.database.entity.TransactionFts;
+import com.example.mymoney.database.entity.TransactionMonthlyRollup;
 import com.example.mymoney.database.entity.User;
 import com.example.mymoney.database.entity.Wallet;
 
-import java.util.List;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Database(
         entities = {
@@ -31,22 +38,45 @@ import java.util.concurrent.Executors;
                 Category.class,
                 Transaction.class,
                 Budget.class,
-                SavingGoal.class
+                SavingGoal.class,
+                TransactionDailyRollup.class,
+                TransactionMonthlyRollup.class,
+                TransactionFts.class
         },
-        version = 9,
-        exportSchema = false
+        version = 17,
+        exportSchema = true
 )
 public abstract class AppDatabase extends RoomDatabase {
 
     private static final String DATABASE_NAME = "mymoney_database";
     private static AppDatabase instance;
 
+    // One thread for every backfill run, created on demand and ended after 30 s idle
+    private static final ExecutorService BACKFILL_EXECUTOR = new ThreadPoolExecutor(
+            0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> new Thread(runnable, "db-backfill"));
+
     public abstract UserDao userDao();
     public abstract WalletDao walletDao();
     public abstract CategoryDao categoryDao();
     public abstract TransactionDao transactionDao();
     public abstract BudgetDao budgetDao();
     public abstract SavingGoalDao savingGoalDao();
+    public abstract RollupDao rollupDao();
+    public abstract DashboardDao dashboardDao();
+
+    /**
+     * Hand-written objects Room doesn't know about, created on every open
+     * (IF NOT EXISTS). Tests building their own database call this too.
+     */
+    static void createTriggers(@NonNull SupportSQLiteDatabase db) {
+        // ⏳ Progress of chunked backfills, read by the triggers below
+        ChunkedBackfill.createProgressTable(db);
+        // 📊 Triggers that keep the daily/monthly rollups in sync
+        RollupMaintenance.createTriggers(db);
+        // 🔍 Trigger that drops deleted transactions from the search index
+        TransactionSearch.createTriggers(db);
+    }
 
     public static synchronized AppDatabase getInstance(Context context) {
         if (instance == null) {
@@ -55,171 +85,44 @@ public abstract class AppDatabase extends RoomDatabase {
                             AppDatabase.class,
                             DATABASE_NAME
                     )
-                    .fallbackToDestructiveMigration() // ✅ tránh crash khi thay đổi entity
-                    .addCallback(new Callback() {
-                        @Override
-                        public void onCreate(@NonNull SupportSQLiteDatabase db) {
-                            super.onCreate(db);
-                            Executors.newSingleThreadExecutor().execute(() -> {
-                                createDefaultUser(context);
-                                createDefaultCategories(context);
-                            });
-                        }
-
-                        @Override
-                        public void onOpen(@NonNull SupportSQLiteDatabase db) {
-                            super.onOpen(db);
-                            Executors.newSingleThreadExecutor().execute(() -> {
-                                ensureDefaultUserExists(context);
-                                ensureDefaultCategoriesExist(context);
-                            });
-                        }
-                    })
+                    .addMigrations(Migrations.ALL)
+                    // Chỉ xoá DB cho các bản cũ hơn v9 (không còn schema để viết migration)
+                    .fallbackToDestructiveMigrationFrom(1, 2, 3, 4, 5, 6, 7, 8)
+                    .addCallback(openCallback(context))
                     .build();
+            // Statistics cache entries are dropped after every ledger commit, queued or not
+            StatisticsCache.getInstance().attach(instance);
         }
         return instance;
     }
 
-    // 🧍‍♂️ Tạo user mặc định
-    private static void createDefaultUser(Context context) {
-        AppDatabase db = getInstance(context);
-
-        User defaultUser = new User();
-        defaultUser.setUsername("default_user");
-        defaultUser.setFullName("Default User");
-        defaultUser.setEmail("default@mymoney.app");
-        defaultUser.setPassword("");
-        defaultUser.setGender("Not set");
-        defaultUser.setJob("");
-        defaultUser.setAddress("");
-        defaultUser.setTel("");
-        defaultUser.setDateOfBirth("");
-
-        long userId = db.userDao().insert(defaultUser);
-        android.util.Log.d("AppDatabase", "✅ Default user created with ID: " + userId);
-    }
-
-    // ✅ Đảm bảo user mặc định tồn tại
-    private static void ensureDefaultUserExists(Context context) {
-        AppDatabase db = getInstance(context);
-        List<User> users = db.userDao().getAllUsers();
-        if (users.isEmpty()) {
-            createDefaultUser(context);
-        }
-    }
-
-    // 🍱 Tạo category mặc định
-    private static void createDefaultCategories(Context context) {
-        AppDatabase db = getInstance(context);
-
-        // Default wallet
-        Wallet defaultWallet = new Wallet();
-        defaultWallet.setName("Default Wallet");
-        defaultWallet.setType("cash");
-        defaultWallet.setBalance(0.0);
-        defaultWallet.setCurrency("VND");
-        defaultWallet.setUserId(1);
-        defaultWallet.setActive(true);
-
-        db.walletDao().insert(defaultWallet);
-
-        // Create expense categories with icons
-        String[][] expenseCategories = {
-            {"Food", "ic_food"},
-            {"Home", "ic_home"},
-            {"Transport", "ic_transport"},
-            {"Relationship", "ic_love"},
-            {"Entertainment", "ic_entertainment"}
-        };
-        
-        for (String[] categoryData : expenseCategories) {
-            Category category = new Category();
-            category.setName(categoryData[0]);
-            category.setDescription("Default " + categoryData[0] + " category");
-            category.setType("expense");
-            category.setIcon(categoryData[1]);
-
-            long categoryId = db.categoryDao().insert(category);
-            android.util.Log.d("AppDatabase", "Default expense category created: " + categoryData[0] + " with ID: " + categoryId);
-        }
-        
-        // Create income categories with icons
-        String[][] incomeCategories = {
-            {"Salary", "ic_salary"},
-            {"Business", "ic_work"},
-            {"Gifts", "ic_gift"},
-            {"Others", "ic_more_apps"}
-        };
-        
-        for (String[] categoryData : incomeCategories) {
-            Category category = new Category();
-            category.setName(categoryData[0]);
-            category.setDescription("Default " + categoryData[0] + " category");
-            category.setType("income");
-            category.setIcon(categoryData[1]);
-
-            long categoryId = db.categoryDao().insert(category);
-            android.util.Log.d("AppDatabase", "Default income category created: " + categoryData[0] + " with ID: " + categoryId);
-        }
-    }
-
-    // ✅ Đảm bảo category mặc định tồn tại
-    private static void ensureDefaultCategoriesExist(Context context) {
-        AppDatabase db = getInstance(context);
-        List<Category> categories = db.categoryDao().getAllCategories();
-        if (categories.isEmpty()) {
-            // Create default wallet if none exists (for transactions, not categories)
-            List<Wallet> wallets = db.walletDao().getActiveWalletsByUserId(1);
-            if (wallets.isEmpty()) {
-                Wallet defaultWallet = new Wallet();
-                defaultWallet.setName("Default Wallet");
-                defaultWallet.setType("cash");
-                defaultWallet.setBalance(0.0);
-                defaultWallet.setCurrency("VND");
-                defaultWallet.setUserId(1);
-                defaultWallet.setActive(true);
-                db.walletDao().insert(defaultWallet);
-            }
-            
-            // Create expense categories with icons
-            String[][] expenseCategories = {
-                {"Food", "ic_food"},
-                {"Home", "ic_home"},
-                {"Transport", "ic_transport"},
-                {"Relationship", "ic_love"},
-                {"Entertainment", "ic_entertainment"}
-            };
-            
-            for (String[] categoryData : expenseCategories) {
-                Category category = new Category();
-                category.setName(categoryData[0]);
-                category.setDescription("Default " + categoryData[0] + " category");
-                category.setType("expense");
-                category.setIcon(categoryData[1]);
-
-                long categoryId = db.categoryDao().insert(category);
-                android.util.Log.d("AppDatabase", "Default expense category ensured: " + categoryData[0] + " with ID: " + categoryId);
+    /**
+     * Seeding on create; triggers, the one-time seed check and pending
+     * backfills on every open. Package-private so tests can time an open.
+     */
+    static Callback openCallback(Context context) {
+        return new Callback() {
+            @Override
+            public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                super.onCreate(db);
+                // 🌱 Seed trong cùng transaction tạo bảng, không cần thread riêng
+                DatabaseSeeder.seedNewDatabase(context, db);
             }
-            
-            // Create income categories with icons
-            String[][] incomeCategories = {
-                {"Salary", "ic_salary"},
-                {"Business", "ic_work"},
-                {"Gifts", "ic_gift"},
-                {"Others", "ic_more_apps"}
-            };
-            
-            for (String[] categoryData : incomeCategories) {
-                Category category = new Category();
-                category.setName(categoryData[0]);
-                category.setDescription("Default " + categoryData[0] + " category");
-                category.setType("income");
-                category.setIcon(categoryData[1]);
 
-                long categoryId = db.categoryDao().insert(category);
-                android.util.Log.d("AppDatabase", "Default income category ensured: " + categoryData[0] + " with ID: " + categoryId);
+            @Override
+            public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                super.onOpen(db);
+                long start = System.nanoTime();
+                createTriggers(db);
+                // 🌱 No-op after the first run (seed version marker)
+                DatabaseSeeder.seedIfNeeded(context, db);
+                if (ChunkedBackfill.hasPending(db)) {
+                    // Fill local dates / rollups / search index left empty by a migration
+                    BACKFILL_EXECUTOR.execute(() -> ChunkedBackfill.runPending(getInstance(context)));
+                }
+                android.util.Log.d("AppDatabase", "⏱ onOpen took "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
             }
-        }
+        };
     }
 }
-
@@ -0,0 +1,211 @@
+package com.example.mymoney.database;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resumable, chunked backfills of derived data (local date columns, rollups,
+ * search index) over the transaction table.
+ *
+ * A migration only creates the empty table and calls schedule(); the rows
+ * are filled after the database is open, CHUNK_SIZE transaction ids per SQL
+ * transaction, on a background thread. Progress lives in the
+ * backfill_progress table and is advanced in the same SQL transaction as the
+ * chunk it covers, so a kill mid-way resumes exactly where it stopped.
+ *
+ * While a backfill is pending its sync triggers only act on rows the cursor
+ * has already passed (see coveredSql()). Rows beyond the cursor, including
+ * ones inserted during the backfill, are picked up by a later chunk, so every
+ * transaction is counted exactly once. The search index is written by the
+ * DAOs rather than by triggers; its chunks use INSERT OR REPLACE, so a row
+ * indexed by both simply ends up indexed once.
+ */
+public final class ChunkedBackfill {
+
+    private static final String TAG = "ChunkedBackfill";
+
+    public static final String LOCAL_DATES = "local_dates";
+    public static final String ROLLUPS = "rollups";
+    public static final String FTS = "fts";
+
+    static final int CHUNK_SIZE = 2000;
+
+    static final String CREATE_PROGRESS_TABLE =
+            "CREATE TABLE IF NOT EXISTS backfill_progress (" +
+                    "name TEXT PRIMARY KEY NOT NULL, last_id INTEGER NOT NULL)";
+
+    private ChunkedBackfill() {
+    }
+
+    public static void createProgressTable(SupportSQLiteDatabase db) {
+        db.execSQL(CREATE_PROGRESS_TABLE);
+    }
+
+    /**
+     * Mark a backfill as pending from the first transaction id. Called from
+     * migrations, inside their transaction.
+     */
+    static void schedule(SupportSQLiteDatabase db, String name) {
+        createProgressTable(db);
+        db.execSQL("INSERT OR REPLACE INTO backfill_progress (name, last_id) VALUES (?, 0)", new Object[]{name});
+    }
+
+    /** Forget a backfill, e.g. after a full rebuild made it redundant */
+    static void finish(SupportSQLiteDatabase db, String name) {
+        db.execSQL("DELETE FROM backfill_progress WHERE name = ?", new Object[]{name});
+    }
+
+    /**
+     * SQL condition, usable in a trigger WHEN clause, that is true when the
+     * row with the given id is already reflected by the named backfill.
+     */
+    static String coveredSql(String name, String idExpr) {
+        return idExpr + " <= IFNULL((SELECT last_id FROM backfill_progress WHERE name = '" + name + "'), " +
+                Long.MAX_VALUE + ")";
+    }
+
+    public static boolean hasPending(SupportSQLiteDatabase db) {
+        try (Cursor cursor = db.query("SELECT EXISTS(SELECT 1 FROM backfill_progress)")) {
+            return cursor.moveToFirst() && cursor.getInt(0) != 0;
+        }
+    }
+
+    /**
+     * Run every pending backfill to completion. Must run off the main thread.
+     */
+    public static void runPending(AppDatabase database) {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        // Local dates first, so a pending rollup backfill reads stamped rows
+        run(db, LOCAL_DATES);
+        run(db, ROLLUPS);
+        run(db, FTS);
+    }
+
+    private static void run(SupportSQLiteDatabase db, String name) {
+        long start = System.currentTimeMillis();
+        int chunks = 0;
+        while (true) {
+            Boolean more;
+            db.beginTransaction();
+            try {
+                more = runChunk(db, name);
+                db.setTransactionSuccessful();
+            } catch (RuntimeException e) {
+                // Progress is only committed together with its chunk, next open retries from here
+                Log.e(TAG, "Backfill " + name + " failed, will resume on next open", e);
+                return;
+            } finally {
+                db.endTransaction();
+            }
+            if (more == null) return; // nothing pending
+            if (ROLLUPS.equals(name)) {
+                // Statistics cached while the rollups were partial are now short
+                StatisticsCache.getInstance().invalidateAll();
+            }
+            chunks++;
+            if (!more) break;
+        }
+        Log.d(TAG, "✅ Backfill " + name + " done: " + chunks + " chunks in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * @return null if the backfill is not pending, true if more chunks remain,
+     * false if this chunk completed it
+     */
+    private static Boolean runChunk(SupportSQLiteDatabase db, String name) {
+        long lastId;
+        try (Cursor cursor = db.query("SELECT last_id FROM backfill_progress WHERE name = ?", new Object[]{name})) {
+            if (!cursor.moveToFirst()) return null;
+            lastId = cursor.getLong(0);
+        }
+        long maxId;
+        try (Cursor cursor = db.query("SELECT IFNULL(MAX(id), 0) FROM `transaction`")) {
+            cursor.moveToFirst();
+            maxId = cursor.getLong(0);
+        }
+        if (lastId >= maxId) {
+            finish(db, name);
+            return false;
+        }
+
+        long upTo = Math.min(lastId + CHUNK_SIZE, maxId);
+        if (LOCAL_DATES.equals(name)) {
+            localDateChunk(db, lastId, upTo);
+        } else if (ROLLUPS.equals(name)) {
+            rollupChunk(db, lastId, upTo);
+        } else if (FTS.equals(name)) {
+            TransactionSearch.indexRange(db, lastId, upTo);
+        } else {
+            throw new IllegalStateException("Unknown backfill " + name);
+        }
+        db.execSQL("UPDATE backfill_progress SET last_id = ? WHERE name = ?", new Object[]{upTo, name});
+        return true;
+    }
+
+    /**
+     * Stamp local_day / local_month on transactions with lastId < id <= upTo
+     * that predate the columns. Rows written since already carry them.
+     */
+    private static void localDateChunk(SupportSQLiteDatabase db, long lastId, long upTo) {
+        db.execSQL("UPDATE `transaction` SET local_day = " + RollupMaintenance.localDaySql("created_at") + ", " +
+                        "local_month = " + RollupMaintenance.localMonthSql("created_at") + " " +
+                        "WHERE id > ? AND id <= ? AND local_day = 0",
+                new Object[]{lastId, upTo});
+    }
+
+    /** Add transactions with lastId < id <= upTo to the daily and monthly rollups */
+    private static void rollupChunk(SupportSQLiteDatabase db, long lastId, long upTo) {
+        Map<String, Object[]> monthly = new HashMap<>();
+        try (Cursor cursor = db.query(
+                "SELECT user_id, wallet_id, category_id, IFNULL(type, '') AS tp, " +
+                        "CASE WHEN local_day > 0 THEN local_day ELSE " +
+                        RollupMaintenance.localDaySql("created_at") + " END AS d, " +
+                        "SUM(amount), COUNT(*) FROM `transaction` WHERE id > ? AND id <= ? " +
+                        "GROUP BY user_id, wallet_id, category_id, tp, d",
+                new Object[]{lastId, upTo})) {
+            while (cursor.moveToNext()) {
+                int userId = cursor.getInt(0);
+                int walletId = cursor.getInt(1);
+                int categoryId = cursor.getInt(2);
+                String type = cursor.getString(3);
+                int day = cursor.getInt(4);
+                long total = cursor.getLong(5);
+                int count = cursor.getInt(6);
+
+                addToBucket(db, "transaction_daily_rollup", "day", userId, walletId, categoryId, type, day, total, count);
+
+                int month = day / 100;
+                String key = userId + "|" + walletId + "|" + categoryId + "|" + type + "|" + month;
+                Object[] bucket = monthly.get(key);
+                if (bucket == null) {
+                    monthly.put(key, new Object[]{userId, walletId, categoryId, type, month, total, count});
+                } else {
+                    bucket[5] = (long) bucket[5] + total;
+                    bucket[6] = (int) bucket[6] + count;
+                }
+            }
+        }
+        for (Object[] b : monthly.values()) {
+            addToBucket(db, "transaction_monthly_rollup", "month",
+                    (int) b[0], (int) b[1], (int) b[2], (String) b[3], (int) b[4], (long) b[5], (int) b[6]);
+        }
+    }
+
+    private static void addToBucket(SupportSQLiteDatabase db, String table, String bucketColumn,
+                                    int userId, int walletId, int categoryId, String type, int bucket,
+                                    long total, int count) {
+        db.execSQL("INSERT OR IGNORE INTO " + table +
+                        " (user_id, wallet_id, category_id, type, " + bucketColumn + ", total, tx_count) " +
+                        "VALUES (?, ?, ?, ?, ?, 0, 0)",
+                new Object[]{userId, walletId, categoryId, type, bucket});
+        db.execSQL("UPDATE " + table + " SET total = total + ?, tx_count = tx_count + ? " +
+                        "WHERE user_id = ? AND wallet_id = ? AND category_id = ? AND type = ? AND " + bucketColumn + " = ?",
+                new Object[]{total, count, userId, walletId, categoryId, type, bucket});
+    }
+}
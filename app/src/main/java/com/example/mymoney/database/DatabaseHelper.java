@@ -4,6 +4,7 @@ import android.content.Context;
 
 import com.example.mymoney.database.dao.BudgetDao;
 import com.example.mymoney.database.dao.CategoryDao;
+import com.example.mymoney.database.dao.RollupDao;
 import com.example.mymoney.database.dao.SavingGoalDao;
 import com.example.mymoney.database.dao.TransactionDao;
 import com.example.mymoney.database.dao.UserDao;
@@ -41,6 +42,10 @@ public class DatabaseHelper {
         return database.savingGoalDao();
     }
     
+    public RollupDao getRollupDao() {
+        return database.rollupDao();
+    }
+    
     public AppDatabase getDatabase() {
         return database;
     }
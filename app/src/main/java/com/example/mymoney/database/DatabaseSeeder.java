@@ -0,0 +1,159 @@
+package com.example.mymoney.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Default user, wallet and categories.
+ *
+ * A new database is seeded inside Room's onCreate, in the same transaction
+ * that creates the tables. Databases that existed before seeding moved here
+ * are topped up once on open. SEED_VERSION is then stored in
+ * SharedPreferences, so every later start skips seeding without touching
+ * the database. Bump SEED_VERSION when the default data changes.
+ */
+public final class DatabaseSeeder {
+
+    private static final String TAG = "DatabaseSeeder";
+
+    static final int SEED_VERSION = 1;
+
+    static final String PREFS_NAME = "database_seed";
+    static final String KEY_SEED_VERSION = "seed_version";
+
+    // {name, icon}
+    private static final String[][] EXPENSE_CATEGORIES = {
+            {"Food", "ic_food"},
+            {"Home", "ic_home"},
+            {"Transport", "ic_transport"},
+            {"Relationship", "ic_love"},
+            {"Entertainment", "ic_entertainment"}
+    };
+
+    private static final String[][] INCOME_CATEGORIES = {
+            {"Salary", "ic_salary"},
+            {"Business", "ic_work"},
+            {"Gifts", "ic_gift"},
+            {"Others", "ic_more_apps"}
+    };
+
+    private DatabaseSeeder() {
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Seed a freshly created database. Runs inside Room's creation transaction.
+     */
+    static void seedNewDatabase(Context context, SupportSQLiteDatabase db) {
+        long start = System.nanoTime();
+        insertDefaultUser(db);
+        insertDefaultWallet(db);
+        insertDefaultCategories(db);
+        markSeeded(context);
+        Log.d(TAG, "✅ New database seeded in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Top up an existing database once per SEED_VERSION. After that this is
+     * a SharedPreferences lookup and does no database I/O.
+     */
+    static void seedIfNeeded(Context context, SupportSQLiteDatabase db) {
+        if (prefs(context).getInt(KEY_SEED_VERSION, 0) >= SEED_VERSION) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        db.beginTransaction();
+        try {
+            if (isEmpty(db, "user")) {
+                insertDefaultUser(db);
+            }
+            if (isEmpty(db, "category")) {
+                if (!hasActiveWallet(db, 1)) {
+                    insertDefaultWallet(db);
+                }
+                insertDefaultCategories(db);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        markSeeded(context);
+        Log.d(TAG, "✅ Seed v" + SEED_VERSION + " checked in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static void markSeeded(Context context) {
+        prefs(context).edit().putInt(KEY_SEED_VERSION, SEED_VERSION).apply();
+    }
+
+    private static boolean isEmpty(SupportSQLiteDatabase db, String table) {
+        try (Cursor cursor = db.query("SELECT EXISTS(SELECT 1 FROM `" + table + "`)")) {
+            return !cursor.moveToFirst() || cursor.getInt(0) == 0;
+        }
+    }
+
+    private static boolean hasActiveWallet(SupportSQLiteDatabase db, int userId) {
+        try (Cursor cursor = db.query("SELECT EXISTS(SELECT 1 FROM wallet WHERE user_id = ? AND is_active = 1)",
+                new Object[]{userId})) {
+            return cursor.moveToFirst() && cursor.getInt(0) != 0;
+        }
+    }
+
+    // 🧍‍♂️ User mặc định (id 1, xem MainActivity.currentUserId)
+    private static void insertDefaultUser(SupportSQLiteDatabase db) {
+        ContentValues user = new ContentValues();
+        user.put("username", "default_user");
+        user.put("full_name", "Default User");
+        user.put("email", "default@mymoney.app");
+        user.put("password", "");
+        user.put("gender", "Not set");
+        user.put("job", "");
+        user.put("address", "");
+        user.put("tel", "");
+        user.put("date_of_birth", "");
+        user.put("created_at", System.currentTimeMillis());
+        long userId = db.insert("user", SQLiteDatabase.CONFLICT_ABORT, user);
+        Log.d(TAG, "Default user created with ID: " + userId);
+    }
+
+    // 👛 Ví mặc định
+    private static void insertDefaultWallet(SupportSQLiteDatabase db) {
+        long now = System.currentTimeMillis();
+        ContentValues wallet = new ContentValues();
+        wallet.put("name", "Default Wallet");
+        wallet.put("type", "cash");
+        wallet.put("currency", "VND");
+        wallet.put("balance", 0L);
+        wallet.put("is_active", 1);
+        wallet.put("created_at", now);
+        wallet.put("updated_at", now);
+        wallet.put("user_id", 1);
+        db.insert("wallet", SQLiteDatabase.CONFLICT_ABORT, wallet);
+    }
+
+    // 🍱 Category mặc định
+    private static void insertDefaultCategories(SupportSQLiteDatabase db) {
+        insertCategories(db, EXPENSE_CATEGORIES, "expense");
+        insertCategories(db, INCOME_CATEGORIES, "income");
+    }
+
+    private static void insertCategories(SupportSQLiteDatabase db, String[][] categories, String type) {
+        for (String[] categoryData : categories) {
+            ContentValues category = new ContentValues();
+            category.put("name", categoryData[0]);
+            category.put("description", "Default " + categoryData[0] + " category");
+            category.put("type", type);
+            category.put("icon", categoryData[1]);
+            db.insert("category", SQLiteDatabase.CONFLICT_ABORT, category);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.mymoney.database;
+
+import java.util.Calendar;
+
+/**
+ * Integer date keys used by the rollup tables, in the device's local time zone:
+ * day = yyyyMMdd (e.g. 20251014), month = yyyyMM (e.g. 202510).
+ *
+ * Also the format of transaction.local_day / local_month. These must agree
+ * with the strftime(..., 'localtime') expressions RollupMaintenance and
+ * ChunkedBackfill use for rows that were not stamped by TransactionDao.
+ */
+public final class DateKeys {
+
+    private DateKeys() {
+    }
+
+    public static int dayKey(long timeMillis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(timeMillis);
+        return cal.get(Calendar.YEAR) * 10000
+                + (cal.get(Calendar.MONTH) + 1) * 100
+                + cal.get(Calendar.DAY_OF_MONTH);
+    }
+
+    /** Local midnight at the start of a yyyyMMdd day key */
+    public static long startOfDay(int dayKey) {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(dayKey / 10000, (dayKey / 100) % 100 - 1, dayKey % 100);
+        return cal.getTimeInMillis();
+    }
+
+    /** Day key :days local days after (or before, if negative) a day key */
+    public static int addDays(int dayKey, int days) {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(dayKey / 10000, (dayKey / 100) % 100 - 1, dayKey % 100);
+        cal.add(Calendar.DAY_OF_MONTH, days);
+        return cal.get(Calendar.YEAR) * 10000
+                + (cal.get(Calendar.MONTH) + 1) * 100
+                + cal.get(Calendar.DAY_OF_MONTH);
+    }
+
+    /** Number of local days from startDay to endDay, both included */
+    public static int daysBetweenInclusive(int startDay, int endDay) {
+        // Rounded: a DST switch makes one day 23 or 25 hours long
+        long millis = startOfDay(endDay) - startOfDay(startDay);
+        return (int) Math.round(millis / 86_400_000.0) + 1;
+    }
+
+    public static int monthKey(long timeMillis) {
+        return dayKey(timeMillis) / 100;
+    }
+
+    public static int monthKey(int year, int month) {
+        return year * 100 + month;
+    }
+}
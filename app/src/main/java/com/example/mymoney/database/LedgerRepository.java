@@ -0,0 +1,92 @@
+package com.example.mymoney.database;
+
+import android.content.Context;
+
+import com.example.mymoney.database.entity.Transaction;
+import com.example.mymoney.database.entity.Wallet;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Single entry point for ledger writes. Every method changes the transaction
+ * rows and the wallet balance in one SQL transaction (see the *WithBalance
+ * methods in TransactionDao), so a crash or a concurrent save can never leave
+ * a balance that disagrees with the transactions.
+ *
+ * Writes go through a LedgerWriteQueue: they are safe to call from the main
+ * thread, and the returned future completes on the writer thread once the
+ * change is committed. Use runOnUiThread to touch views from the callback.
+ */
+public class LedgerRepository {
+
+    private static volatile LedgerRepository instance;
+
+    private final LedgerWriteQueue writeQueue;
+    private final LookupCache lookups;
+
+    private LedgerRepository(AppDatabase database, LookupCache lookups) {
+        this.writeQueue = new LedgerWriteQueue(database);
+        this.lookups = lookups;
+    }
+
+    public static LedgerRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (LedgerRepository.class) {
+                if (instance == null) {
+                    instance = new LedgerRepository(AppDatabase.getInstance(context),
+                            LookupCache.getInstance(context));
+                }
+            }
+        }
+        return instance;
+    }
+
+    public LedgerWriteQueue getWriteQueue() {
+        return writeQueue;
+    }
+
+    // ===== Transactions =====
+
+    /**
+     * @return future of the new transaction id, also set on the transaction
+     */
+    public CompletableFuture<Long> addTransaction(Transaction transaction) {
+        return writeQueue.submit(db -> db.transactionDao().insertWithBalance(transaction));
+    }
+
+    public CompletableFuture<long[]> addTransactions(List<Transaction> transactions) {
+        return writeQueue.submit(db -> db.transactionDao().insertAll(transactions));
+    }
+
+    public CompletableFuture<Void> updateTransaction(Transaction transaction) {
+        transaction.setUpdatedAt(System.currentTimeMillis());
+        return writeQueue.submit(db -> {
+            db.transactionDao().updateWithBalance(transaction);
+            return null;
+        });
+    }
+
+    /**
+     * @return future completing with true if the transaction existed and was deleted
+     */
+    public CompletableFuture<Boolean> deleteTransaction(Transaction transaction) {
+        return deleteTransaction(transaction.getId());
+    }
+
+    public CompletableFuture<Boolean> deleteTransaction(int transactionId) {
+        return writeQueue.submit(db -> db.transactionDao().deleteWithBalance(transactionId));
+    }
+
+    // ===== Wallets =====
+
+    public CompletableFuture<Long> addWallet(Wallet wallet) {
+        return writeQueue.submit(db -> {
+            long id = db.walletDao().insert(wallet);
+            wallet.setId((int) id);
+            // Its currency is known before the caller moves on to the new wallet
+            lookups.invalidateWallets();
+            return id;
+        });
+    }
+}
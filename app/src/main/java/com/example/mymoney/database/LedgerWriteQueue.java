@@ -0,0 +1,188 @@
+package com.example.mymoney.database;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-writer queue for ledger mutations (transactions, wallets).
+ *
+ * One background thread owns all writes. Mutations that arrive within
+ * BATCH_WINDOW_MS of each other are applied in a single SQL transaction
+ * (group commit), so a burst of saves - voice entry, imports, recurring
+ * catch-up - costs one commit and one fsync instead of one per save, and
+ * writers never contend for the SQLite write lock.
+ *
+ * If any mutation in a batch throws, the batch is rolled back and every
+ * mutation is retried in its own transaction, so one bad write only fails
+ * its own future.
+ */
+public class LedgerWriteQueue {
+
+    private static final String TAG = "LedgerWriteQueue";
+
+    static final long BATCH_WINDOW_MS = 15;
+    static final int MAX_BATCH_SIZE = 256;
+
+    /**
+     * A database write. Runs on the writer thread inside a transaction.
+     */
+    public interface Mutation<T> {
+        T apply(AppDatabase db);
+    }
+
+    private static final class Pending<T> {
+        final Mutation<T> mutation;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+
+        Pending(Mutation<T> mutation) {
+            this.mutation = mutation;
+        }
+
+        void run(AppDatabase db) {
+            result = mutation.apply(db);
+        }
+
+        void complete() {
+            future.complete(result);
+        }
+    }
+
+    private final AppDatabase database;
+    private final BlockingQueue<Pending<?>> queue = new LinkedBlockingQueue<>();
+
+    // ===== Metrics =====
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong commitCount = new AtomicLong();
+    private final AtomicLong mutationCount = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+    private volatile long lastCommitNanos;
+    private volatile int lastBatchSize;
+
+    public LedgerWriteQueue(AppDatabase database) {
+        this.database = database;
+        Thread writer = new Thread(this::runLoop, "ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Enqueue a mutation. The future completes on the writer thread once the
+     * batch containing it has committed.
+     */
+    public <T> CompletableFuture<T> submit(Mutation<T> mutation) {
+        Pending<T> pending = new Pending<>(mutation);
+        queueDepth.incrementAndGet();
+        queue.add(pending);
+        return pending.future;
+    }
+
+    private void runLoop() {
+        List<Pending<?>> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BATCH_WINDOW_MS);
+                while (batch.size() < MAX_BATCH_SIZE) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Pending<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                queueDepth.addAndGet(-batch.size());
+                commit(batch);
+            } catch (InterruptedException e) {
+                Log.w(TAG, "Writer interrupted", e);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending<?>> batch) {
+        try {
+            commitBatch(batch);
+        } finally {
+            // Readers that overlapped the write can't keep stale statistics
+            StatisticsCache.getInstance().afterCommit();
+        }
+    }
+
+    private void commitBatch(List<Pending<?>> batch) {
+        long start = System.nanoTime();
+        try {
+            database.runInTransaction(() -> {
+                for (Pending<?> pending : batch) {
+                    pending.run(database);
+                }
+            });
+            recordCommit(start, batch.size());
+            for (Pending<?> pending : batch) {
+                pending.complete();
+            }
+        } catch (RuntimeException batchError) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(batchError);
+                return;
+            }
+            Log.w(TAG, "Batch of " + batch.size() + " failed, retrying one by one", batchError);
+            for (Pending<?> pending : batch) {
+                long singleStart = System.nanoTime();
+                try {
+                    database.runInTransaction(() -> pending.run(database));
+                    recordCommit(singleStart, 1);
+                    pending.complete();
+                } catch (RuntimeException e) {
+                    pending.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void recordCommit(long startNanos, int batchSize) {
+        long elapsed = System.nanoTime() - startNanos;
+        lastCommitNanos = elapsed;
+        lastBatchSize = batchSize;
+        totalCommitNanos.addAndGet(elapsed);
+        commitCount.incrementAndGet();
+        mutationCount.addAndGet(batchSize);
+    }
+
+    // ===== Metrics accessors =====
+
+    /** Mutations submitted but not yet picked up by the writer */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+
+    public long getMutationCount() {
+        return mutationCount.get();
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public double getLastCommitLatencyMs() {
+        return lastCommitNanos / 1_000_000.0;
+    }
+
+    public double getAverageCommitLatencyMs() {
+        long commits = commitCount.get();
+        return commits == 0 ? 0 : totalCommitNanos.get() / 1_000_000.0 / commits;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.mymoney.database;
+
+import android.content.Context;
+import android.os.Looper;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.InvalidationTracker;
+
+import com.example.mymoney.database.entity.Category;
+import com.example.mymoney.database.entity.Wallet;
+import com.example.mymoney.model.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * App-wide id → Category / id → wallet currency lookup.
+ *
+ * Both tables are small, so they are kept whole in SparseArrays. An
+ * InvalidationTracker observer reloads the categories in the background
+ * whenever Room commits a write to category, so lookups never need a query
+ * and are safe on the main thread (category pickers, OCR/voice matching).
+ * Transaction lists don't use it: they read TransactionListItem, which has
+ * the names joined in.
+ *
+ * The wallet table is not observed: every ledger write updates the balance,
+ * and the balance is not cached here. Only the currency is, which is fixed
+ * when the wallet is created, so LedgerRepository.addWallet reloads the
+ * wallets right after inserting the new row, on the writer thread.
+ *
+ * Off the main thread a stale cache is reloaded before the lookup returns.
+ * On the main thread the first lookup waits for the initial load; after
+ * that it never blocks and sees the last loaded snapshot.
+ */
+public class LookupCache {
+
+    private static final String TAG = "LookupCache";
+
+    private static volatile LookupCache instance;
+
+    private final AppDatabase database;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor();
+    private final Object loadLock = new Object();
+
+    // Immutable once published, swapped as a whole on reload
+    private volatile SparseArray<Category> categories;
+    private volatile SparseArray<String> walletCurrencies;
+    private volatile boolean categoriesStale = true;
+    private volatile boolean walletsStale = true;
+
+    private LookupCache(AppDatabase database) {
+        this.database = database;
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("category") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                categoriesStale = true;
+                loader.execute(LookupCache.this::ensureLoaded);
+            }
+        });
+    }
+
+    public static LookupCache getInstance(Context context) {
+        if (instance == null) {
+            synchronized (LookupCache.class) {
+                if (instance == null) {
+                    instance = new LookupCache(AppDatabase.getInstance(context));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Start loading in the background, e.g. from MainActivity.onCreate */
+    public void preload() {
+        if (categoriesStale || walletsStale) {
+            loader.execute(this::ensureLoaded);
+        }
+    }
+
+    /**
+     * Reload the wallets after one was added or removed. Must run off the
+     * main thread, e.g. on the ledger writer right after the insert.
+     */
+    public void invalidateWallets() {
+        walletsStale = true;
+        ensureLoaded();
+    }
+
+    /**
+     * Load whichever table changed since the last load. Must run off the
+     * main thread.
+     */
+    public void ensureLoaded() {
+        if (!categoriesStale && !walletsStale) return;
+        synchronized (loadLock) {
+            long start = System.nanoTime();
+            // Clear first: a write committed during the load marks it stale again
+            if (categoriesStale) {
+                categoriesStale = false;
+                try {
+                    SparseArray<Category> loaded = new SparseArray<>();
+                    for (Category category : database.categoryDao().getAllCategories()) {
+                        loaded.put(category.getId(), category);
+                    }
+                    categories = loaded;
+                } catch (RuntimeException e) {
+                    categoriesStale = true;
+                    Log.e(TAG, "Error loading categories", e);
+                }
+            }
+            if (walletsStale) {
+                walletsStale = false;
+                try {
+                    SparseArray<String> loaded = new SparseArray<>();
+                    for (Wallet wallet : database.walletDao().getAllWallets()) {
+                        loaded.put(wallet.getId(), wallet.getCurrency() != null
+                                ? wallet.getCurrency() : Money.DEFAULT_CURRENCY);
+                    }
+                    walletCurrencies = loaded;
+                } catch (RuntimeException e) {
+                    walletsStale = true;
+                    Log.e(TAG, "Error loading wallets", e);
+                }
+            }
+            Log.d(TAG, "Lookups loaded in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+
+    /**
+     * Make sure something is loaded before a lookup. Off the main thread
+     * that means an up-to-date load; on it, only the first load is waited
+     * for (a few dozen rows), later reloads run in the background.
+     */
+    private void awaitLoaded() {
+        boolean mainThread = Looper.myLooper() == Looper.getMainLooper();
+        if (!mainThread) {
+            ensureLoaded();
+        } else if (categories == null || walletCurrencies == null) {
+            try {
+                loader.submit(this::ensureLoaded).get();
+            } catch (ExecutionException e) {
+                Log.e(TAG, "Error loading lookups", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Nullable
+    private SparseArray<Category> categories() {
+        awaitLoaded();
+        return categories;
+    }
+
+    @Nullable
+    public Category getCategory(int categoryId) {
+        SparseArray<Category> s = categories();
+        return s != null ? s.get(categoryId) : null;
+    }
+
+    /**
+     * Currency of a wallet, or null if there is no such wallet.
+     */
+    @Nullable
+    public String getWalletCurrency(int walletId) {
+        awaitLoaded();
+        SparseArray<String> s = walletCurrencies;
+        return s != null ? s.get(walletId) : null;
+    }
+
+    /**
+     * Categories of one type ("expense", "income") in id order, same as
+     * CategoryDao.getAllExpenseCategories() / getAllIncomeCategories().
+     */
+    @NonNull
+    public List<Category> getCategoriesOfType(String type) {
+        List<Category> result = new ArrayList<>();
+        SparseArray<Category> s = categories();
+        if (s == null) return result;
+        for (int i = 0; i < s.size(); i++) {
+            Category category = s.valueAt(i);
+            if (type.equals(category.getType())) {
+                result.add(category);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Case-insensitive match on the category name within a type ("expense",
+     * "income"), e.g. for OCR and voice input.
+     */
+    @Nullable
+    public Category findCategory(String type, String name) {
+        SparseArray<Category> s = categories();
+        if (s == null || name == null) return null;
+        for (int i = 0; i < s.size(); i++) {
+            Category category = s.valueAt(i);
+            if (type.equals(category.getType()) && name.equalsIgnoreCase(category.getName())) {
+                return category;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.mymoney.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.mymoney.model.Money;
+
+/**
+ * Explicit schema migrations. Every version bump that changes the schema
+ * adds a Migration here and registers it in AppDatabase.getInstance().
+ *
+ * The CREATE statements must match what Room generates for the entities,
+ * otherwise Room's schema validation fails right after the migration.
+ */
+public final class Migrations {
+
+    private Migrations() {
+    }
+
+    /** Currencies offered when creating a wallet, see AddWalletFragment */
+    private static final String[] KNOWN_CURRENCIES = {"VND", "USD", "EUR", "GBP", "JPY"};
+
+    /** SQL expression giving minor units per major unit for a currency column */
+    private static String scaleExpr(String currencyColumn) {
+        StringBuilder sql = new StringBuilder("(CASE ").append(currencyColumn);
+        for (String code : KNOWN_CURRENCIES) {
+            sql.append(" WHEN '").append(code).append("' THEN ").append(Money.scale(code));
+        }
+        return sql.append(" ELSE 1 END)").toString();
+    }
+
+    /** SQL expression converting a REAL major-unit amount to INTEGER minor units */
+    private static String toMinorExpr(String amountColumn, String currencyColumn) {
+        return "CAST(ROUND(IFNULL(" + amountColumn + ", 0) * " + scaleExpr(currencyColumn) + ") AS INTEGER)";
+    }
+
+    /**
+     * Replace a table with a new definition, copying rows through a SELECT.
+     * SQLite cannot change a column type in place, so this is the standard
+     * create-copy-drop-rename rebuild. Foreign keys are not enforced while
+     * Room runs migrations, so dropping a parent table does not cascade.
+     */
+    private static void rebuildTable(SupportSQLiteDatabase db, String table, String createSql,
+                                     String columns, String selectSql, String[] indexSql) {
+        String tmp = table + "_new";
+        db.execSQL("DROP TABLE IF EXISTS `" + tmp + "`");
+        db.execSQL(createSql.replace("`" + table + "`", "`" + tmp + "`"));
+        db.execSQL("INSERT INTO `" + tmp + "` (" + columns + ") " + selectSql);
+        db.execSQL("DROP TABLE `" + table + "`");
+        db.execSQL("ALTER TABLE `" + tmp + "` RENAME TO `" + table + "`");
+        execAll(db, indexSql);
+    }
+
+    /**
+     * Drop the hand-written triggers before rebuilding tables: newer SQLite
+     * versions re-parse every trigger on ALTER TABLE RENAME and fail while a
+     * table they mention is temporarily missing. AppDatabase.onOpen puts them
+     * back with CREATE TRIGGER IF NOT EXISTS.
+     */
+    private static void dropTriggers(SupportSQLiteDatabase db) {
+        for (String name : new String[]{
+                "trg_transaction_rollup_insert", "trg_transaction_rollup_delete", "trg_transaction_rollup_update",
+                "trg_transaction_local_date",
+                "trg_transaction_fts_insert", "trg_transaction_fts_delete", "trg_transaction_fts_update",
+                "trg_category_fts_rename"}) {
+            db.execSQL("DROP TRIGGER IF EXISTS " + name);
+        }
+    }
+
+    private static String index(String table, String... columns) {
+        StringBuilder name = new StringBuilder("index_").append(table);
+        StringBuilder cols = new StringBuilder();
+        for (String column : columns) {
+            name.append('_').append(column);
+            if (cols.length() > 0) cols.append(", ");
+            cols.append('`').append(column).append('`');
+        }
+        return "CREATE INDEX IF NOT EXISTS `" + name + "` ON `" + table + "` (" + cols + ")";
+    }
+
+    /** Indices of the transaction table from version 10 to 16; 16 -> 17 drops the unused ones */
+    private static String[] transactionIndices() {
+        return new String[]{
+                index("transaction", "wallet_id", "created_at"),
+                index("transaction", "wallet_id", "type", "created_at"),
+                index("transaction", "wallet_id", "type", "category_id", "created_at"),
+                index("transaction", "user_id", "created_at"),
+                index("transaction", "user_id", "type", "created_at"),
+                index("transaction", "category_id", "created_at"),
+                index("transaction", "type", "created_at"),
+                index("transaction", "created_at"),
+                index("transaction", "is_recurring")
+        };
+    }
+
+    private static String createRollupTable(String table, String bucket, String totalType) {
+        return "CREATE TABLE IF NOT EXISTS `" + table + "` (" +
+                "`user_id` INTEGER NOT NULL, `wallet_id` INTEGER NOT NULL, `category_id` INTEGER NOT NULL, " +
+                "`type` TEXT NOT NULL, `" + bucket + "` INTEGER NOT NULL, " +
+                "`total` " + totalType + " NOT NULL, `tx_count` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`user_id`, `wallet_id`, `category_id`, `type`, `" + bucket + "`))";
+    }
+
+    private static String[] rollupIndices(String table, String bucket) {
+        return new String[]{
+                index(table, "wallet_id", "type", bucket),
+                index(table, "type", bucket)
+        };
+    }
+
+    /** transaction_fts since version 12, see TransactionFts */
+    private static final String CREATE_FTS =
+            "CREATE VIRTUAL TABLE IF NOT EXISTS `transaction_fts` USING FTS4(" +
+                    "`description` TEXT, `category_name` TEXT, `amount_text` TEXT, " +
+                    "tokenize=unicode61 `remove_diacritics=1`)";
+
+    private static void execAll(SupportSQLiteDatabase db, String... statements) {
+        for (String sql : statements) {
+            db.execSQL(sql);
+        }
+    }
+
+    /**
+     * 9 -> 10: single-column transaction indices replaced by composite ones
+     * matching the DAO access paths. Index builds can't be deferred: Room
+     * validates them when the database opens.
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP INDEX IF EXISTS `index_transaction_wallet_id`");
+            db.execSQL("DROP INDEX IF EXISTS `index_transaction_category_id`");
+            db.execSQL("DROP INDEX IF EXISTS `index_transaction_user_id`");
+            execAll(db, transactionIndices());
+        }
+    };
+
+    /**
+     * 10 -> 11: daily/monthly rollup tables. They start empty and are filled
+     * by ChunkedBackfill after the database opens.
+     */
+    public static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(createRollupTable("transaction_daily_rollup", "day", "REAL"));
+            execAll(db, rollupIndices("transaction_daily_rollup", "day"));
+            db.execSQL(createRollupTable("transaction_monthly_rollup", "month", "REAL"));
+            execAll(db, rollupIndices("transaction_monthly_rollup", "month"));
+            ChunkedBackfill.schedule(db, ChunkedBackfill.ROLLUPS);
+        }
+    };
+
+    /**
+     * 11 -> 12: full-text search table, filled by ChunkedBackfill after open.
+     */
+    public static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(CREATE_FTS);
+            ChunkedBackfill.schedule(db, ChunkedBackfill.FTS);
+        }
+    };
+
+    /**
+     * 12 -> 13: money columns from REAL major units to INTEGER minor units
+     * (transaction.amount, wallet.balance, budget.budget_amount,
+     * saving_goals.target/current_amount and the rollup totals). The rollups
+     * are emptied and refilled from the rounded amounts by ChunkedBackfill.
+     *
+     * A column type change needs a table rebuild, which is one
+     * INSERT ... SELECT per table and can't be split into resumable chunks:
+     * Room validates the new column types as soon as the migration returns.
+     */
+    public static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            dropTriggers(db);
+
+            // transaction: scale by the currency of the wallet it belongs to
+            rebuildTable(db, "transaction",
+                    "CREATE TABLE IF NOT EXISTS `transaction` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                            "`wallet_id` INTEGER NOT NULL, `category_id` INTEGER NOT NULL, `user_id` INTEGER NOT NULL, " +
+                            "`amount` INTEGER NOT NULL, `description` TEXT, `is_recurring` INTEGER NOT NULL, " +
+                            "`recurring_interval` TEXT, `created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL, " +
+                            "`type` TEXT, " +
+                            "FOREIGN KEY(`wallet_id`) REFERENCES `wallet`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                            "FOREIGN KEY(`category_id`) REFERENCES `category`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                            "FOREIGN KEY(`user_id`) REFERENCES `user`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+                    "id, wallet_id, category_id, user_id, amount, description, is_recurring, " +
+                            "recurring_interval, created_at, updated_at, type",
+                    "SELECT t.id, t.wallet_id, t.category_id, t.user_id, " + toMinorExpr("t.amount", "w.currency") + ", " +
+                            "t.description, t.is_recurring, t.recurring_interval, t.created_at, t.updated_at, t.type " +
+                            "FROM `transaction` t LEFT JOIN wallet w ON w.id = t.wallet_id",
+                    transactionIndices());
+
+            // Rollups: re-aggregated from the converted amounts by ChunkedBackfill after open.
+            // Rescaling the buckets would round each sum once instead of each row, and the
+            // rollups could then differ from SUM(amount)
+            for (String[] rollup : new String[][]{
+                    {"transaction_daily_rollup", "day"},
+                    {"transaction_monthly_rollup", "month"}}) {
+                db.execSQL("DROP TABLE IF EXISTS `" + rollup[0] + "`");
+                db.execSQL(createRollupTable(rollup[0], rollup[1], "INTEGER"));
+                execAll(db, rollupIndices(rollup[0], rollup[1]));
+            }
+            ChunkedBackfill.schedule(db, ChunkedBackfill.ROLLUPS);
+
+            rebuildTable(db, "budget",
+                    "CREATE TABLE IF NOT EXISTS `budget` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT, " +
+                            "`budget_amount` INTEGER NOT NULL, `budget_type` TEXT, `period_unit` TEXT, " +
+                            "`start_date` TEXT, `end_date` TEXT, `alert_threshold` REAL NOT NULL, " +
+                            "`created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL, " +
+                            "`category_id` INTEGER NOT NULL, `wallet_id` INTEGER NOT NULL, `user_id` INTEGER NOT NULL, " +
+                            "FOREIGN KEY(`category_id`) REFERENCES `category`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                            "FOREIGN KEY(`wallet_id`) REFERENCES `wallet`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                            "FOREIGN KEY(`user_id`) REFERENCES `user`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+                    "id, name, budget_amount, budget_type, period_unit, start_date, end_date, alert_threshold, " +
+                            "created_at, updated_at, category_id, wallet_id, user_id",
+                    "SELECT b.id, b.name, " + toMinorExpr("b.budget_amount", "w.currency") + ", b.budget_type, " +
+                            "b.period_unit, b.start_date, b.end_date, b.alert_threshold, b.created_at, b.updated_at, " +
+                            "b.category_id, b.wallet_id, b.user_id " +
+                            "FROM budget b LEFT JOIN wallet w ON w.id = b.wallet_id",
+                    new String[]{
+                            index("budget", "category_id"),
+                            index("budget", "wallet_id"),
+                            index("budget", "user_id")});
+
+            rebuildTable(db, "saving_goals",
+                    "CREATE TABLE IF NOT EXISTS `saving_goals` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT, " +
+                            "`target` INTEGER NOT NULL, `current_amount` INTEGER NOT NULL, " +
+                            "`start_date` TEXT, `end_date` TEXT, `description` TEXT, `status` TEXT, " +
+                            "`created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL, " +
+                            "`category_id` INTEGER NOT NULL, `wallet_id` INTEGER NOT NULL, `user_id` INTEGER NOT NULL, " +
+                            "FOREIGN KEY(`category_id`) REFERENCES `category`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                            "FOREIGN KEY(`wallet_id`) REFERENCES `wallet`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                            "FOREIGN KEY(`user_id`) REFERENCES `user`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+                    "id, name, target, current_amount, start_date, end_date, description, status, " +
+                            "created_at, updated_at, category_id, wallet_id, user_id",
+                    "SELECT g.id, g.name, " + toMinorExpr("g.target", "w.currency") + ", " +
+                            toMinorExpr("g.current_amount", "w.currency") + ", g.start_date, g.end_date, " +
+                            "g.description, g.status, g.created_at, g.updated_at, g.category_id, g.wallet_id, g.user_id " +
+                            "FROM saving_goals g LEFT JOIN wallet w ON w.id = g.wallet_id",
+                    new String[]{
+                            index("saving_goals", "category_id"),
+                            index("saving_goals", "wallet_id"),
+                            index("saving_goals", "user_id")});
+
+            // wallet last: the rebuilds above read its currency column
+            rebuildTable(db, "wallet",
+                    "CREATE TABLE IF NOT EXISTS `wallet` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT, `type` TEXT, " +
+                            "`currency` TEXT, `balance` INTEGER NOT NULL, `is_active` INTEGER NOT NULL, " +
+                            "`created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL, `description` TEXT, " +
+                            "`user_id` INTEGER NOT NULL, " +
+                            "FOREIGN KEY(`user_id`) REFERENCES `user`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+                    "id, name, type, currency, balance, is_active, created_at, updated_at, description, user_id",
+                    "SELECT id, name, type, currency, " + toMinorExpr("balance", "currency") + ", is_active, " +
+                            "created_at, updated_at, description, user_id FROM wallet",
+                    new String[]{index("wallet", "user_id")});
+        }
+    };
+
+    /**
+     * 13 -> 14: index (wallet_id, day) on the daily rollup for the Home screen's
+     * "last N active days" query.
+     */
+    public static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(index("transaction_daily_rollup", "wallet_id", "day"));
+        }
+    };
+
+    /**
+     * 14 -> 15: local_day / local_month on transaction, the local date of
+     * created_at stamped at write time, with indices for day/month grouping.
+     * Existing rows are stamped by ChunkedBackfill after open; until then
+     * the rollup triggers derive their bucket from created_at as before.
+     */
+    public static final Migration MIGRATION_14_15 = new Migration(14, 15) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // Triggers are recreated on open with the local_day-aware bucket expressions
+            dropTriggers(db);
+            db.execSQL("ALTER TABLE `transaction` ADD COLUMN `local_day` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `transaction` ADD COLUMN `local_month` INTEGER NOT NULL DEFAULT 0");
+            execAll(db,
+                    index("transaction", "wallet_id", "type", "local_day"),
+                    index("transaction", "wallet_id", "type", "local_month"));
+            ChunkedBackfill.schedule(db, ChunkedBackfill.LOCAL_DATES);
+        }
+    };
+
+    /**
+     * 15 -> 16: search text is folded before indexing (TransactionSearch.fold()),
+     * so letters with two diacritics such as "ố" / "ườ" match their base
+     * letters. The old index is dropped and refilled by ChunkedBackfill.
+     * Rows are now indexed by the DAOs, so only the delete trigger is
+     * recreated on open; the old insert/update/rename triggers go for good.
+     */
+    public static final Migration MIGRATION_15_16 = new Migration(15, 16) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            dropTriggers(db);
+            // Dropping the virtual table is faster than deleting every row
+            db.execSQL("DROP TABLE IF EXISTS `transaction_fts`");
+            db.execSQL(CREATE_FTS);
+            ChunkedBackfill.schedule(db, ChunkedBackfill.FTS);
+        }
+    };
+
+    /**
+     * 16 -> 17: drop the transaction indices no query uses any more. The
+     * statistics moved to the rollup tables and the legacy per-user/per-date
+     * queries are gone, so these only cost time on every insert.
+     */
+    public static final Migration MIGRATION_16_17 = new Migration(16, 17) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            for (String name : new String[]{
+                    "index_transaction_wallet_id_type_category_id_created_at",
+                    "index_transaction_type_created_at",
+                    "index_transaction_created_at",
+                    "index_transaction_is_recurring",
+                    "index_transaction_wallet_id_type_local_day",
+                    "index_transaction_wallet_id_type_local_month"}) {
+                db.execSQL("DROP INDEX IF EXISTS `" + name + "`");
+            }
+        }
+    };
+
+    /** Every migration above, in order; registered by AppDatabase and replayed by MigrationTest */
+    public static final Migration[] ALL = {
+            MIGRATION_9_10,
+            MIGRATION_10_11,
+            MIGRATION_11_12,
+            MIGRATION_12_13,
+            MIGRATION_13_14,
+            MIGRATION_14_15,
+            MIGRATION_15_16,
+            MIGRATION_16_17
+    };
+}
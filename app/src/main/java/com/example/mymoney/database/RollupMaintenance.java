@@ -0,0 +1,170 @@
+package com.example.mymoney.database;
+
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.mymoney.model.RollupBucket;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps transaction_daily_rollup / transaction_monthly_rollup in sync with the
+ * transaction table.
+ *
+ * The rollups are maintained by AFTER INSERT/UPDATE/DELETE triggers, so every
+ * write path (DAO, cascade delete of a wallet, raw SQL) updates them inside the
+ * same SQLite transaction as the row change. rebuild() recomputes both tables
+ * from scratch and check() compares them with the raw sums.
+ *
+ * Rows are bucketed by their stored local_day / local_month, so removing a
+ * row hits the bucket it was added to even if the device time zone changed
+ * in between. Rows from before those columns existed fall back to
+ * strftime(..., 'localtime') until ChunkedBackfill stamps them.
+ */
+public final class RollupMaintenance {
+
+    private static final String TAG = "RollupMaintenance";
+
+    private RollupMaintenance() {
+    }
+
+    /** yyyyMMdd of a created_at column in the device's time zone, see DateKeys.dayKey */
+    static String localDaySql(String createdAt) {
+        return "CAST(strftime('%Y%m%d', " + createdAt + " / 1000, 'unixepoch', 'localtime') AS INTEGER)";
+    }
+
+    static String localMonthSql(String createdAt) {
+        return "CAST(strftime('%Y%m', " + createdAt + " / 1000, 'unixepoch', 'localtime') AS INTEGER)";
+    }
+
+    /** Bucket of a row: its stamped local_day, or derived for rows not stamped yet */
+    private static String dayExpr(String row) {
+        return "(CASE WHEN " + row + ".local_day > 0 THEN " + row + ".local_day " +
+                "ELSE " + localDaySql(row + ".created_at") + " END)";
+    }
+
+    private static String monthExpr(String row) {
+        return "(CASE WHEN " + row + ".local_month > 0 THEN " + row + ".local_month " +
+                "ELSE " + localMonthSql(row + ".created_at") + " END)";
+    }
+
+    /** Statements adding NEW to the bucket it falls in */
+    private static String addRow(String table, String bucketColumn, String bucketExpr) {
+        String key = "user_id = NEW.user_id AND wallet_id = NEW.wallet_id AND category_id = NEW.category_id " +
+                "AND type = IFNULL(NEW.type, '') AND " + bucketColumn + " = " + bucketExpr;
+        return "INSERT OR IGNORE INTO " + table + " (user_id, wallet_id, category_id, type, " + bucketColumn + ", total, tx_count) " +
+                "VALUES (NEW.user_id, NEW.wallet_id, NEW.category_id, IFNULL(NEW.type, ''), " + bucketExpr + ", 0, 0); " +
+                "UPDATE " + table + " SET total = total + NEW.amount, tx_count = tx_count + 1 WHERE " + key + "; ";
+    }
+
+    /** Statements removing OLD from its bucket, dropping the bucket once empty */
+    private static String removeRow(String table, String bucketColumn, String bucketExpr) {
+        String key = "user_id = OLD.user_id AND wallet_id = OLD.wallet_id AND category_id = OLD.category_id " +
+                "AND type = IFNULL(OLD.type, '') AND " + bucketColumn + " = " + bucketExpr;
+        return "UPDATE " + table + " SET total = total - OLD.amount, tx_count = tx_count - 1 WHERE " + key + "; " +
+                "DELETE FROM " + table + " WHERE tx_count <= 0 AND " + key + "; ";
+    }
+
+    static String[] triggerStatements() {
+        String add = addRow("transaction_daily_rollup", "day", dayExpr("NEW"))
+                + addRow("transaction_monthly_rollup", "month", monthExpr("NEW"));
+        String remove = removeRow("transaction_daily_rollup", "day", dayExpr("OLD"))
+                + removeRow("transaction_monthly_rollup", "month", monthExpr("OLD"));
+
+        // Rows not yet reached by a pending ChunkedBackfill are left to the backfill
+        return new String[]{
+                "CREATE TRIGGER IF NOT EXISTS trg_transaction_rollup_insert AFTER INSERT ON `transaction` " +
+                        "WHEN " + ChunkedBackfill.coveredSql(ChunkedBackfill.ROLLUPS, "NEW.id") + " " +
+                        "BEGIN " + add + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_transaction_rollup_delete AFTER DELETE ON `transaction` " +
+                        "WHEN " + ChunkedBackfill.coveredSql(ChunkedBackfill.ROLLUPS, "OLD.id") + " " +
+                        "BEGIN " + remove + "END",
+                "CREATE TRIGGER IF NOT EXISTS trg_transaction_rollup_update " +
+                        "AFTER UPDATE OF user_id, wallet_id, category_id, type, amount, created_at ON `transaction` " +
+                        "WHEN " + ChunkedBackfill.coveredSql(ChunkedBackfill.ROLLUPS, "OLD.id") + " " +
+                        "BEGIN " + remove + add + "END",
+                // Rows inserted without going through TransactionDao (raw SQL) still get their local date.
+                // Not listed in the UPDATE OF above, so it doesn't touch the rollups a second time.
+                "CREATE TRIGGER IF NOT EXISTS trg_transaction_local_date AFTER INSERT ON `transaction` " +
+                        "WHEN NEW.local_day = 0 " +
+                        "BEGIN UPDATE `transaction` SET local_day = " + localDaySql("NEW.created_at") + ", " +
+                        "local_month = " + localMonthSql("NEW.created_at") + " WHERE id = NEW.id; END"
+        };
+    }
+
+    /**
+     * Create the rollup triggers if missing. Cheap enough to run on every open,
+     * which also covers the tables being recreated by a destructive migration.
+     */
+    public static void createTriggers(SupportSQLiteDatabase db) {
+        for (String sql : triggerStatements()) {
+            db.execSQL(sql);
+        }
+    }
+
+    /**
+     * One-shot backfill: recompute both rollup tables from the raw transactions.
+     * Must run off the main thread.
+     */
+    public static void rebuild(AppDatabase db) {
+        long start = System.currentTimeMillis();
+        db.runInTransaction(() -> {
+            db.rollupDao().rebuild();
+            // A full rebuild supersedes any pending chunked backfill
+            ChunkedBackfill.finish(db.getOpenHelper().getWritableDatabase(), ChunkedBackfill.ROLLUPS);
+        });
+        StatisticsCache.getInstance().invalidateAll();
+        Log.d(TAG, "Rollups rebuilt in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Compare the rollups with raw sums at month granularity: raw transactions
+     * vs the monthly table, and the daily table summed per month vs the monthly
+     * table. Must run off the main thread.
+     *
+     * @return human readable mismatches, empty when consistent
+     */
+    public static List<String> check(AppDatabase db) {
+        List<String> problems = new ArrayList<>();
+        // Read all three views from one snapshot so concurrent writes can't show up as drift
+        List<List<RollupBucket>> snapshot = new ArrayList<>();
+        db.runInTransaction(() -> {
+            snapshot.add(db.rollupDao().getRawMonthlyBuckets());
+            snapshot.add(db.rollupDao().getDailyRollupByMonth());
+            snapshot.add(db.rollupDao().getMonthlyRollupBuckets());
+        });
+
+        compare("raw vs monthly", snapshot.get(0), snapshot.get(2), problems);
+        compare("daily vs monthly", snapshot.get(1), snapshot.get(2), problems);
+
+        for (String problem : problems) {
+            Log.w(TAG, "⚠️ Rollup mismatch - " + problem);
+        }
+        return problems;
+    }
+
+    private static void compare(String label, List<RollupBucket> expected, List<RollupBucket> actual,
+                                List<String> problems) {
+        Map<String, RollupBucket> actualByKey = new HashMap<>();
+        for (RollupBucket bucket : actual) {
+            actualByKey.put(bucket.key(), bucket);
+        }
+
+        for (RollupBucket want : expected) {
+            RollupBucket got = actualByKey.remove(want.key());
+            if (got == null) {
+                problems.add(label + ": missing bucket " + want.key());
+            } else if (got.total != want.total || got.txCount != want.txCount) {
+                problems.add(label + ": " + want.key() + " expected " + want.total + "/" + want.txCount
+                        + " but was " + got.total + "/" + got.txCount);
+            }
+        }
+        for (String orphan : actualByKey.keySet()) {
+            problems.add(label + ": unexpected bucket " + orphan);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.mymoney.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+import androidx.room.RoomDatabase;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of Statistics results (category totals, monthly totals,
+ * period totals), keyed by (user, wallet, day range, kind), so flipping
+ * between years, ranges and tabs reuses what was already read.
+ *
+ * Entries are dropped selectively: TransactionDao calls invalidate() with
+ * the wallet and local day of every row it writes, which removes only the
+ * entries of that wallet whose range contains the day. The marks are
+ * applied twice, inside the write transaction (so a reload triggered by the
+ * commit never sees the old entry) and again in afterCommit() (so a read
+ * that overlapped the write can't put its stale result back).
+ *
+ * afterCommit() runs after every commit that touched `transaction`, from
+ * the InvalidationTracker observer attach() registers, whether the write
+ * went through LedgerWriteQueue or straight to the DAO. Category writes
+ * drop everything: cached category totals carry the names, and deleting a
+ * category deletes its transactions by cascade. WalletDao drops a deleted
+ * wallet's entries itself, since balance updates write `wallet` on every
+ * save.
+ */
+public final class StatisticsCache {
+
+    static final int MAX_ENTRIES = 48;
+
+    /** What a cached result holds for its range */
+    public enum Kind {
+        /** Expense per category, List<CategoryTotal> */
+        CATEGORIES,
+        /** Expense per month, List<MonthTotal> */
+        MONTHS,
+        /** Income / expense / count, PeriodTotal */
+        TOTALS,
+        /** Expense of every day of the range, float[] */
+        DAILY
+    }
+
+    static final class Key {
+        final int userId;
+        final int walletId;
+        final int startDay;
+        final int endDay;
+        final Kind kind;
+
+        Key(int userId, int walletId, int startDay, int endDay, Kind kind) {
+            this.userId = userId;
+            this.walletId = walletId;
+            this.startDay = startDay;
+            this.endDay = endDay;
+            this.kind = kind;
+        }
+
+        /** True if a write to the wallet on the day may change this result; day 0 = any day */
+        boolean isAffectedBy(int walletId, int day) {
+            return this.walletId == walletId && (day <= 0 || (day >= startDay && day <= endDay));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return userId == k.userId && walletId == k.walletId
+                    && startDay == k.startDay && endDay == k.endDay && kind == k.kind;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = userId;
+            h = 31 * h + walletId;
+            h = 31 * h + startDay;
+            h = 31 * h + endDay;
+            h = 31 * h + kind.hashCode();
+            return h;
+        }
+    }
+
+    /** Counters at one point in time, for a debug screen or a test to read instead of the log */
+    public static final class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long invalidations;
+        public final int size;
+
+        Stats(long hits, long misses, long evictions, long invalidations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.size = size;
+        }
+
+        /** Share of lookups answered from the cache, 0..1 */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : hits / (double) lookups;
+        }
+
+        /** "hits 12, misses 4 (75.0%), size 9/48, evictions 0, invalidated 3" */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "hits %d, misses %d (%.1f%%), size %d/%d, evictions %d, invalidated %d",
+                    hits, misses, hitRate() * 100, size, MAX_ENTRIES, evictions, invalidations);
+        }
+    }
+
+    private static final StatisticsCache INSTANCE = new StatisticsCache();
+
+    // Access order: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Object> entries = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // (walletId << 32 | day) marks of the writes being committed, replayed by afterCommit();
+    // a set, so a bulk import adds one mark per wallet and day, not one per row
+    private final Set<Long> pendingMarks = new LinkedHashSet<>();
+
+    // Bumped by every invalidation; a load only stores its result if it didn't move
+    private long generation;
+
+    // ===== Metrics =====
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    private StatisticsCache() {
+    }
+
+    public static StatisticsCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Replay the marks after every commit to the database's transactions,
+     * and forget everything after a category rename or delete. Called once
+     * per database by AppDatabase.getInstance.
+     */
+    public void attach(RoomDatabase database) {
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("transaction", "category") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                if (tables.contains("category")) {
+                    invalidateAll();
+                }
+                afterCommit();
+            }
+        });
+    }
+
+    /**
+     * Cached result for the key, or the loader's result, stored unless a
+     * write invalidated the cache while it was loading. Results are shared
+     * between callers and must not be modified.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(Kind kind, int userId, int walletId, int startDay, int endDay, Supplier<T> loader) {
+        Key key = new Key(userId, walletId, startDay, endDay, kind);
+        long loadGeneration;
+        synchronized (this) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return (T) cached;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        T value = loader.get();
+
+        synchronized (this) {
+            if (value != null && loadGeneration == generation) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * A transaction of the wallet on the local day (DateKeys.dayKey) was
+     * written. Call inside the write transaction; day 0 (row not stamped
+     * yet) drops every entry of the wallet.
+     */
+    public synchronized void invalidate(int walletId, int day) {
+        pendingMarks.add((long) walletId << 32 | (day & 0xFFFFFFFFL));
+        removeAffected(walletId, day);
+    }
+
+    /** Forget everything, e.g. after the rollups were rebuilt or backfilled */
+    public synchronized void invalidateAll() {
+        invalidations += entries.size();
+        entries.clear();
+        generation++;
+    }
+
+    /**
+     * Replay the marks of the transaction that just ended, committed or not.
+     * Called by LedgerWriteQueue after each batch, and by the observer
+     * attach() registers after any other commit.
+     */
+    public synchronized void afterCommit() {
+        if (pendingMarks.isEmpty()) return;
+        for (long mark : pendingMarks) {
+            removeAffected((int) (mark >> 32), (int) mark);
+        }
+        pendingMarks.clear();
+    }
+
+    private void removeAffected(int walletId, int day) {
+        Iterator<Key> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().isAffectedBy(walletId, day)) {
+                it.remove();
+                invalidations++;
+            }
+        }
+        generation++;
+    }
+
+    // ===== Metrics accessors =====
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidationCount() {
+        return invalidations;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Marks waiting for afterCommit() */
+    synchronized int pendingMarkCount() {
+        return pendingMarks.size();
+    }
+
+    /** All counters read together, so they are consistent with each other */
+    public synchronized Stats snapshot() {
+        return new Stats(hits, misses, evictions, invalidations, entries.size());
+    }
+
+    /** "hits 12, misses 4 (75.0%), size 9/48, evictions 0, invalidated 3" for logging */
+    public String stats() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.mymoney.database;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Emits whenever Room commits a write to one of the given tables, for
+ * screens whose loading is not a single query (keyset pager, several
+ * statistics queries). Single queries use LiveData DAO methods instead.
+ *
+ * Changes are only delivered while the LiveData is active. Any number of
+ * changes while inactive are folded into one emission on the next
+ * activation, so a screen coming back re-queries only if something
+ * actually changed. There is no initial value; call dispose() when the
+ * owning view is destroyed.
+ */
+public class TableChangeLiveData extends LiveData<Set<String>> {
+
+    private final InvalidationTracker tracker;
+    private final InvalidationTracker.Observer observer;
+    private final AtomicBoolean changedWhileInactive = new AtomicBoolean(false);
+    private volatile boolean active;
+
+    public TableChangeLiveData(AppDatabase database, String... tables) {
+        this.tracker = database.getInvalidationTracker();
+        this.observer = new InvalidationTracker.Observer(tables) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> changed) {
+                if (active) {
+                    postValue(changed);
+                } else {
+                    changedWhileInactive.set(true);
+                }
+            }
+        };
+        // Registered for the whole lifetime so changes while inactive are noticed
+        tracker.addObserver(observer);
+    }
+
+    @Override
+    protected void onActive() {
+        active = true;
+        if (changedWhileInactive.compareAndSet(true, false)) {
+            setValue(Collections.emptySet());
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        active = false;
+    }
+
+    /** Stop tracking, call when the owning screen is destroyed */
+    public void dispose() {
+        tracker.removeObserver(observer);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.mymoney.database;
+
+import androidx.annotation.Nullable;
+
+import com.example.mymoney.database.dao.TransactionDao;
+import com.example.mymoney.model.TransactionListItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keyset-paged data source over the transaction ledger, newest first.
+ *
+ * The pager remembers the (created_at, id) of the last row it handed out and
+ * asks for the next page strictly after it, so memory use and per-page cost
+ * stay constant however large the ledger grows. Scope is either a single
+ * wallet or, when walletId is -1, all wallets of the user.
+ *
+ * With a search match set, pages come from the ranked full-text search
+ * instead. Rank order has no stable key, so those pages use LIMIT/OFFSET.
+ *
+ * loadNextPage() hits the database and must run off the main thread. Rows
+ * come back with their display labels already formatted.
+ */
+public class TransactionPager {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final TransactionDao transactionDao;
+    private final int pageSize;
+
+    private int userId;
+    private int walletId;
+    @Nullable
+    private String type;
+    @Nullable
+    private String match;
+
+    private long lastCreatedAt;
+    private int loadedCount;
+    private int lastId;
+    private boolean endReached;
+    private boolean loading;
+    private int generation;
+
+    public TransactionPager(TransactionDao transactionDao) {
+        this(transactionDao, DEFAULT_PAGE_SIZE);
+    }
+
+    public TransactionPager(TransactionDao transactionDao, int pageSize) {
+        this.transactionDao = transactionDao;
+        this.pageSize = pageSize;
+        reset(-1, -1, null, null);
+    }
+
+    /**
+     * Start over from the newest transaction with a new scope.
+     *
+     * @param type  "income", "expense" or null for both
+     * @param match FTS MATCH expression from TransactionSearch.toMatchQuery(), or null to list everything
+     */
+    public synchronized void reset(int userId, int walletId, @Nullable String type, @Nullable String match) {
+        this.userId = userId;
+        this.walletId = walletId;
+        this.type = type;
+        this.match = match;
+        this.loadedCount = 0;
+        this.lastCreatedAt = Long.MAX_VALUE;
+        this.lastId = Integer.MAX_VALUE;
+        this.endReached = false;
+        this.loading = false;
+        this.generation++;
+    }
+
+    /**
+     * Generation of the current scope. A page loaded for an older generation
+     * arrived after a reset() and should be dropped by the caller.
+     */
+    public synchronized int getGeneration() {
+        return generation;
+    }
+
+    public synchronized boolean canLoadMore() {
+        return !endReached && !loading;
+    }
+
+    public synchronized boolean isEndReached() {
+        return endReached;
+    }
+
+    /**
+     * Load the next page. Returns an empty list when the end was reached or a
+     * load is already in flight.
+     */
+    public List<TransactionListItem> loadNextPage() {
+        int scopeUser;
+        int scopeWallet;
+        String scopeType;
+        String scopeMatch;
+        int offset;
+        long beforeCreatedAt;
+        int beforeId;
+        int startGeneration;
+
+        synchronized (this) {
+            if (endReached || loading) {
+                return Collections.emptyList();
+            }
+            loading = true;
+            scopeUser = userId;
+            scopeWallet = walletId;
+            scopeType = type;
+            scopeMatch = match;
+            offset = loadedCount;
+            beforeCreatedAt = lastCreatedAt;
+            beforeId = lastId;
+            startGeneration = generation;
+        }
+
+        List<TransactionListItem> page;
+        try {
+            page = scopeMatch != null
+                    ? searchPage(scopeUser, scopeWallet, scopeType, scopeMatch, offset)
+                    : queryPage(scopeUser, scopeWallet, scopeType, beforeCreatedAt, beforeId);
+            // Still on the loading thread: format once here, not on every bind
+            for (TransactionListItem item : page) {
+                item.prepareLabels();
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                if (startGeneration == generation) loading = false;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            if (startGeneration != generation) {
+                // Scope changed while loading, the caller will drop this page
+                return page;
+            }
+            loading = false;
+            loadedCount += page.size();
+            if (page.size() < pageSize) {
+                endReached = true;
+            }
+            if (!page.isEmpty()) {
+                TransactionListItem last = page.get(page.size() - 1);
+                lastCreatedAt = last.createdAt;
+                lastId = last.id;
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Re-read the rows of the current scope strictly after (beforeCreatedAt,
+     * beforeId) and down to (downToCreatedAt, downToId) included, e.g. the
+     * rows on screen after the ledger changed. Pass Long.MIN_VALUE /
+     * Integer.MIN_VALUE to read to the end. Keyset scopes only: search
+     * pages have no stable key. Does not move the paging cursor.
+     */
+    public List<TransactionListItem> loadRange(long beforeCreatedAt, int beforeId,
+                                               long downToCreatedAt, int downToId) {
+        int scopeUser;
+        int scopeWallet;
+        String scopeType;
+        synchronized (this) {
+            scopeUser = userId;
+            scopeWallet = walletId;
+            scopeType = type;
+        }
+
+        List<TransactionListItem> rows = new ArrayList<>();
+        while (true) {
+            List<TransactionListItem> page = queryPage(scopeUser, scopeWallet, scopeType, beforeCreatedAt, beforeId);
+            for (TransactionListItem item : page) {
+                if (item.createdAt < downToCreatedAt || (item.createdAt == downToCreatedAt && item.id < downToId)) {
+                    return rows;
+                }
+                rows.add(item.prepareLabels());
+            }
+            if (page.size() < pageSize) return rows;
+            TransactionListItem last = page.get(page.size() - 1);
+            beforeCreatedAt = last.createdAt;
+            beforeId = last.id;
+        }
+    }
+
+    private List<TransactionListItem> queryPage(int userId, int walletId, @Nullable String type,
+                                        long beforeCreatedAt, int beforeId) {
+        if (walletId != -1) {
+            return type == null
+                    ? transactionDao.getTransactionPageByWallet(walletId, beforeCreatedAt, beforeId, pageSize)
+                    : transactionDao.getTransactionPageByWalletAndType(walletId, type, beforeCreatedAt, beforeId, pageSize);
+        }
+        return type == null
+                ? transactionDao.getTransactionPageByUser(userId, beforeCreatedAt, beforeId, pageSize)
+                : transactionDao.getTransactionPageByUserAndType(userId, type, beforeCreatedAt, beforeId, pageSize);
+    }
+
+    private List<TransactionListItem> searchPage(int userId, int walletId, @Nullable String type,
+                                         String match, int offset) {
+        return walletId != -1
+                ? transactionDao.search(match, walletId, type, pageSize, offset)
+                : transactionDao.searchByUser(match, userId, type, pageSize, offset);
+    }
+}
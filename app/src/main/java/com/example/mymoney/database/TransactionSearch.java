@@ -0,0 +1,159 @@
+package com.example.mymoney.database;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.mymoney.database.entity.Transaction;
+import com.example.mymoney.database.entity.TransactionFts;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Keeps transaction_fts in sync with the transaction and category tables and
+ * turns what the user typed into an FTS4 MATCH expression.
+ *
+ * Text is folded in Java (fold()) before it is indexed and queried:
+ * unicode61 with remove_diacritics=1 leaves đ and letters carrying two
+ * marks (ố, ề, ườ, ữ...) as they are, so "uong" would never match "uống",
+ * and remove_diacritics=2 needs SQLite 3.27 (API 30) while minSdk is 27.
+ * A trigger can't call Java and SQLite's parser overflows on a REPLACE
+ * chain long enough to fold them in SQL, so rows are indexed by
+ * TransactionDao / CategoryDao in the same transaction as the write,
+ * and in bulk by rebuild() / indexRange(). Only deletes, which need no
+ * folding and may cascade from a wallet, are left to a trigger.
+ */
+public final class TransactionSearch {
+
+    private TransactionSearch() {
+    }
+
+    /**
+     * Text as the index sees it: decomposed (NFD), combining marks dropped,
+     * đ/Đ mapped to d and lower-cased. "Đường nước" -> "duong nuoc".
+     */
+    @NonNull
+    public static String fold(@Nullable String text) {
+        if (text == null) return "";
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (isMark(c)) continue;
+            folded.append(c == 'đ' || c == 'Đ' ? 'd' : c);
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+
+    /** Search index row of a transaction, the category name looked up by the caller */
+    @NonNull
+    public static TransactionFts indexRow(@NonNull Transaction transaction, @Nullable String categoryName) {
+        TransactionFts row = new TransactionFts();
+        row.setRowId(transaction.getId());
+        row.setDescription(fold(transaction.getDescription()));
+        row.setCategoryName(fold(categoryName));
+        row.setAmountText(String.valueOf(transaction.getAmount()));
+        return row;
+    }
+
+    static String[] triggerStatements() {
+        // Unconditional, unlike the rollup triggers: the DAOs also index rows a
+        // pending backfill hasn't reached, and deleting a missing row is a no-op
+        return new String[]{
+                "CREATE TRIGGER IF NOT EXISTS trg_transaction_fts_delete AFTER DELETE ON `transaction` " +
+                        "BEGIN DELETE FROM transaction_fts WHERE rowid = OLD.id; END"
+        };
+    }
+
+    public static void createTriggers(SupportSQLiteDatabase db) {
+        for (String sql : triggerStatements()) {
+            db.execSQL(sql);
+        }
+    }
+
+    private static final String INDEX_SOURCE =
+            "SELECT t.id, t.description, c.name, t.amount " +
+                    "FROM `transaction` t LEFT JOIN category c ON c.id = t.category_id";
+
+    // OR REPLACE: a row written by the app while a backfill is pending is indexed twice
+    private static final String INDEX_INSERT =
+            "INSERT OR REPLACE INTO transaction_fts (rowid, description, category_name, amount_text) VALUES (?, ?, ?, ?)";
+
+    /**
+     * Re-index every transaction. Must run off the main thread.
+     */
+    public static void rebuild(SupportSQLiteDatabase db) {
+        db.beginTransaction();
+        try {
+            db.execSQL("DELETE FROM transaction_fts");
+            index(db, db.query(INDEX_SOURCE));
+            // A full rebuild supersedes any pending chunked backfill
+            ChunkedBackfill.finish(db, ChunkedBackfill.FTS);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Index transactions with fromId < id <= toId. Used by ChunkedBackfill,
+     * runs inside the caller's transaction.
+     */
+    static void indexRange(SupportSQLiteDatabase db, long fromId, long toId) {
+        index(db, db.query(INDEX_SOURCE + " WHERE t.id > ? AND t.id <= ?", new Object[]{fromId, toId}));
+    }
+
+    /** Insert the rows of an INDEX_SOURCE cursor, folded in Java, then close it */
+    private static void index(SupportSQLiteDatabase db, Cursor rows) {
+        SupportSQLiteStatement insert = db.compileStatement(INDEX_INSERT);
+        try (Cursor cursor = rows) {
+            while (cursor.moveToNext()) {
+                insert.bindLong(1, cursor.getLong(0));
+                insert.bindString(2, fold(cursor.getString(1)));
+                insert.bindString(3, fold(cursor.getString(2)));
+                insert.bindString(4, String.valueOf(cursor.getLong(3)));
+                insert.executeInsert();
+                insert.clearBindings();
+            }
+        } finally {
+            try {
+                insert.close();
+            } catch (IOException ignored) {
+                // Closing a compiled statement only releases it
+            }
+        }
+    }
+
+    /**
+     * Build a MATCH expression from free text: every word is folded like the
+     * index and becomes a prefix term, and all of them must match,
+     * e.g. "ăn uống" -> "an* uong*".
+     *
+     * @return null when the text contains no searchable word
+     */
+    @Nullable
+    public static String toMatchQuery(@Nullable String text) {
+        if (text == null) return null;
+        String folded = fold(text);
+
+        StringBuilder match = new StringBuilder();
+        for (String word : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            match.append(word).append('*');
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+}
@@ -4,8 +4,10 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
+import com.example.mymoney.database.TransactionSearch;
 import com.example.mymoney.database.entity.Category;
 
 import java.util.List;
@@ -17,7 +19,18 @@ public interface CategoryDao {
     long insert(Category category);
     
     @Update
-    void update(Category category);
+    void updateRow(Category category);
+
+    /** Update the category and re-label its transactions in the search index */
+    @Transaction
+    default void update(Category category) {
+        updateRow(category);
+        relabelForSearch(category.getId(), TransactionSearch.fold(category.getName()));
+    }
+
+    @Query("UPDATE transaction_fts SET category_name = :foldedName " +
+            "WHERE rowid IN (SELECT id FROM `transaction` WHERE category_id = :categoryId)")
+    void relabelForSearch(int categoryId, String foldedName);
     
     @Delete
     void delete(Category category);
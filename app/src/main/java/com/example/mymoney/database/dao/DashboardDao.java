@@ -0,0 +1,42 @@
+package com.example.mymoney.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.example.mymoney.model.DashboardSummary;
+
+import java.util.List;
+
+/**
+ * Dashboard projections: wallet row + all-time and one-month totals in one
+ * statement. The totals come from transaction_monthly_rollup, joined through
+ * its (wallet_id, type, month) index.
+ */
+@Dao
+public interface DashboardDao {
+
+    String SUMMARY_SELECT = "SELECT w.id AS walletId, w.user_id AS userId, w.name AS name, w.type AS type, " +
+            "w.currency AS currency, w.balance AS balance, " +
+            "IFNULL(SUM(CASE WHEN r.type = 'income' THEN r.total END), 0) AS totalIncome, " +
+            "IFNULL(SUM(CASE WHEN r.type = 'expense' THEN r.total END), 0) AS totalExpense, " +
+            "IFNULL(SUM(CASE WHEN r.type = 'income' AND r.month = :month THEN r.total END), 0) AS monthIncome, " +
+            "IFNULL(SUM(CASE WHEN r.type = 'expense' AND r.month = :month THEN r.total END), 0) AS monthExpense, " +
+            "IFNULL(SUM(r.tx_count), 0) AS txCount " +
+            "FROM wallet w LEFT JOIN transaction_monthly_rollup r ON r.wallet_id = w.id ";
+
+    /**
+     * @param month current month key yyyyMM, see DateKeys.monthKey()
+     * @return null if the wallet does not exist
+     */
+    @Query(SUMMARY_SELECT + "WHERE w.id = :walletId GROUP BY w.id")
+    DashboardSummary getSummary(int walletId, int month);
+
+    /** Summaries of the user's active wallets, for the wallet panel */
+    @Query(SUMMARY_SELECT + "WHERE w.user_id = :userId AND w.is_active = 1 GROUP BY w.id ORDER BY w.id")
+    List<DashboardSummary> getActiveSummaries(int userId, int month);
+
+    /** getActiveSummaries() as LiveData, re-queried whenever wallet or the monthly rollup changes */
+    @Query(SUMMARY_SELECT + "WHERE w.user_id = :userId AND w.is_active = 1 GROUP BY w.id ORDER BY w.id")
+    LiveData<List<DashboardSummary>> observeActiveSummaries(int userId, int month);
+}
@@ -0,0 +1,206 @@
+package com.example.mymoney.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.mymoney.CategoryTotal;
+import com.example.mymoney.MonthTotal;
+import com.example.mymoney.database.DateKeys;
+import com.example.mymoney.database.StatisticsCache;
+import com.example.mymoney.model.CategoryExpense;
+import com.example.mymoney.model.DailyTotal;
+import com.example.mymoney.model.PeriodTotal;
+import com.example.mymoney.model.RollupBucket;
+import com.example.mymoney.model.StatisticsBundle;
+
+import java.util.List;
+
+/**
+ * Reads over the daily/monthly rollup tables. Day keys are yyyyMMdd and month
+ * keys yyyyMM in local time, see DateKeys.
+ */
+@Dao
+public interface RollupDao {
+
+    // ===== Statistics =====
+    @Query("SELECT c.name AS category, SUM(r.total) AS total " +
+            "FROM transaction_daily_rollup r " +
+            "JOIN category c ON r.category_id = c.id " +
+            "WHERE r.type = 'expense' AND r.user_id = :userId AND r.wallet_id = :walletId AND r.day BETWEEN :startDay AND :endDay " +
+            "GROUP BY c.name " +
+            "ORDER BY total DESC")
+    List<CategoryTotal> getExpensesByDayRange(int userId, int walletId, int startDay, int endDay);
+
+    @Query("SELECT c.name AS category, SUM(r.total) AS total " +
+            "FROM transaction_daily_rollup r " +
+            "JOIN category c ON r.category_id = c.id " +
+            "WHERE r.type = 'expense' AND r.user_id = :userId AND r.wallet_id = :walletId AND r.day BETWEEN :startDay AND :endDay " +
+            "GROUP BY c.name " +
+            "ORDER BY total DESC " +
+            "LIMIT 5")
+    List<CategoryTotal> getTopExpensesByDayRange(int userId, int walletId, int startDay, int endDay);
+
+    @Query("SELECT printf('%02d', r.month % 100) AS month, SUM(r.total) AS total " +
+            "FROM transaction_monthly_rollup r " +
+            "WHERE r.type = 'expense' AND r.user_id = :userId AND r.wallet_id = :walletId AND r.month BETWEEN :startMonth AND :endMonth " +
+            "GROUP BY r.month " +
+            "ORDER BY r.month")
+    List<MonthTotal> getMonthlyExpenses(int userId, int walletId, int startMonth, int endMonth);
+
+    @Query("SELECT IFNULL(SUM(CASE WHEN type = 'income' THEN total ELSE 0 END), 0) AS income, " +
+            "IFNULL(SUM(CASE WHEN type = 'expense' THEN total ELSE 0 END), 0) AS expense, " +
+            "IFNULL(SUM(tx_count), 0) AS txCount " +
+            "FROM transaction_daily_rollup " +
+            "WHERE user_id = :userId AND wallet_id = :walletId AND day BETWEEN :startDay AND :endDay")
+    PeriodTotal getTotalsByDayRange(int userId, int walletId, int startDay, int endDay);
+
+    /** Days of [startDay, endDay] with transactions, oldest first, for the spending sparkline */
+    @Query("SELECT day, " +
+            "SUM(CASE WHEN type = 'income' THEN total ELSE 0 END) AS income, " +
+            "SUM(CASE WHEN type = 'expense' THEN total ELSE 0 END) AS expense, " +
+            "SUM(tx_count) AS txCount " +
+            "FROM transaction_daily_rollup " +
+            "WHERE user_id = :userId AND wallet_id = :walletId AND day BETWEEN :startDay AND :endDay " +
+            "GROUP BY day " +
+            "ORDER BY day")
+    List<DailyTotal> getDailyTotalsByDayRange(int userId, int walletId, int startDay, int endDay);
+
+    /**
+     * Everything the Statistics screen shows, in one transaction so no write
+     * can land between the queries: category totals and income/expense
+     * totals of [startDay, endDay], the same totals of the equally long
+     * period right before it, the expense of each day of the range and the
+     * monthly expenses of :year.
+     *
+     * Each part is looked up in the cache first, so changing only the year
+     * re-reads only the monthly totals.
+     */
+    @Transaction
+    default StatisticsBundle loadStatisticsBundle(int userId, int walletId, int startDay, int endDay, int year,
+                                                  StatisticsCache cache) {
+        StatisticsBundle bundle = new StatisticsBundle();
+
+        long start = System.nanoTime();
+        bundle.categoryTotals = cache.getOrLoad(StatisticsCache.Kind.CATEGORIES, userId, walletId, startDay, endDay,
+                () -> getExpensesByDayRange(userId, walletId, startDay, endDay));
+        long mark = System.nanoTime();
+        bundle.categoryNanos = mark - start;
+
+        // Keyed by day range like the rest, so a write on any day of the year invalidates it
+        int yearStart = year * 10000 + 101;
+        int yearEnd = year * 10000 + 1231;
+        bundle.monthlyTotals = cache.getOrLoad(StatisticsCache.Kind.MONTHS, userId, walletId, yearStart, yearEnd,
+                () -> getMonthlyExpenses(userId, walletId, DateKeys.monthKey(year, 1), DateKeys.monthKey(year, 12)));
+        start = mark;
+        mark = System.nanoTime();
+        bundle.monthlyNanos = mark - start;
+
+        bundle.period = cache.getOrLoad(StatisticsCache.Kind.TOTALS, userId, walletId, startDay, endDay,
+                () -> getTotalsByDayRange(userId, walletId, startDay, endDay));
+        start = mark;
+        mark = System.nanoTime();
+        bundle.periodNanos = mark - start;
+
+        int days = DateKeys.daysBetweenInclusive(startDay, endDay);
+        int previousStart = DateKeys.addDays(startDay, -days);
+        int previousEnd = DateKeys.addDays(startDay, -1);
+        bundle.previousPeriod = cache.getOrLoad(StatisticsCache.Kind.TOTALS, userId, walletId, previousStart, previousEnd,
+                () -> getTotalsByDayRange(userId, walletId, previousStart, previousEnd));
+        start = System.nanoTime();
+        bundle.previousNanos = start - mark;
+
+        bundle.dailyExpenses = cache.getOrLoad(StatisticsCache.Kind.DAILY, userId, walletId, startDay, endDay,
+                () -> StatisticsBundle.dailyExpenseSeries(
+                        getDailyTotalsByDayRange(userId, walletId, startDay, endDay), startDay, endDay));
+        bundle.dailyNanos = System.nanoTime() - start;
+        return bundle;
+    }
+
+    // ===== Home =====
+    @Query("SELECT IFNULL(SUM(total), 0) FROM transaction_monthly_rollup WHERE wallet_id = :walletId AND type = :type")
+    long getTotalByWallet(int walletId, String type);
+
+    /**
+     * The most recent :days local days on which the wallet has transactions,
+     * newest first, with per-day totals. Walks index (wallet_id, day) backwards,
+     * so the cost depends on :days, not on the size of the ledger.
+     */
+    @Query("SELECT day, " +
+            "SUM(CASE WHEN type = 'income' THEN total ELSE 0 END) AS income, " +
+            "SUM(CASE WHEN type = 'expense' THEN total ELSE 0 END) AS expense, " +
+            "SUM(tx_count) AS txCount " +
+            "FROM transaction_daily_rollup " +
+            "WHERE wallet_id = :walletId " +
+            "GROUP BY day " +
+            "ORDER BY day DESC " +
+            "LIMIT :days")
+    List<DailyTotal> getRecentActiveDays(int walletId, int days);
+
+    // ===== Budget =====
+    // Totals are minor units, so only wallets in one currency are summed together;
+    // wallets without a currency are VND (Money.DEFAULT_CURRENCY)
+    @Query("SELECT c.name AS category, SUM(r.total) AS total " +
+            "FROM transaction_daily_rollup r " +
+            "JOIN category c ON r.category_id = c.id " +
+            "JOIN wallet w ON r.wallet_id = w.id " +
+            "WHERE r.type = 'expense' AND r.day >= :startDay AND IFNULL(w.currency, 'VND') = :currency " +
+            "GROUP BY c.name " +
+            "HAVING total > 0 " +
+            "ORDER BY total DESC")
+    List<CategoryExpense> getExpensesByCategorySinceDay(int startDay, String currency);
+
+    @Query("SELECT IFNULL(SUM(r.total), 0) FROM transaction_daily_rollup r " +
+            "JOIN wallet w ON r.wallet_id = w.id " +
+            "WHERE r.type = :type AND r.day >= :startDay AND IFNULL(w.currency, 'VND') = :currency")
+    long getTotalSinceDay(String type, int startDay, String currency);
+
+    // ===== Backfill / rebuild =====
+    @Query("DELETE FROM transaction_daily_rollup")
+    void clearDaily();
+
+    @Query("DELETE FROM transaction_monthly_rollup")
+    void clearMonthly();
+
+    @Query("INSERT INTO transaction_daily_rollup (user_id, wallet_id, category_id, type, day, total, tx_count) " +
+            "SELECT user_id, wallet_id, category_id, IFNULL(type, ''), " +
+            "CASE WHEN local_day > 0 THEN local_day " +
+            "ELSE CAST(strftime('%Y%m%d', created_at / 1000, 'unixepoch', 'localtime') AS INTEGER) END AS d, " +
+            "SUM(amount), COUNT(*) " +
+            "FROM `transaction` GROUP BY user_id, wallet_id, category_id, IFNULL(type, ''), d")
+    void backfillDaily();
+
+    @Query("INSERT INTO transaction_monthly_rollup (user_id, wallet_id, category_id, type, month, total, tx_count) " +
+            "SELECT user_id, wallet_id, category_id, type, day / 100 AS m, SUM(total), SUM(tx_count) " +
+            "FROM transaction_daily_rollup GROUP BY user_id, wallet_id, category_id, type, m")
+    void backfillMonthlyFromDaily();
+
+    /**
+     * Recompute both rollup tables from the raw transactions in one transaction
+     */
+    @Transaction
+    default void rebuild() {
+        clearDaily();
+        clearMonthly();
+        backfillDaily();
+        backfillMonthlyFromDaily();
+    }
+
+    // ===== Consistency check =====
+    @Query("SELECT user_id AS userId, wallet_id AS walletId, category_id AS categoryId, IFNULL(type, '') AS type, " +
+            "CASE WHEN local_month > 0 THEN local_month " +
+            "ELSE CAST(strftime('%Y%m', created_at / 1000, 'unixepoch', 'localtime') AS INTEGER) END AS bucket, " +
+            "SUM(amount) AS total, COUNT(*) AS txCount " +
+            "FROM `transaction` GROUP BY userId, walletId, categoryId, type, bucket")
+    List<RollupBucket> getRawMonthlyBuckets();
+
+    @Query("SELECT user_id AS userId, wallet_id AS walletId, category_id AS categoryId, type, " +
+            "day / 100 AS bucket, SUM(total) AS total, SUM(tx_count) AS txCount " +
+            "FROM transaction_daily_rollup GROUP BY userId, walletId, categoryId, type, bucket")
+    List<RollupBucket> getDailyRollupByMonth();
+
+    @Query("SELECT user_id AS userId, wallet_id AS walletId, category_id AS categoryId, type, " +
+            "month AS bucket, total, tx_count AS txCount " +
+            "FROM transaction_monthly_rollup")
+    List<RollupBucket> getMonthlyRollupBuckets();
+}
@@ -41,7 +41,7 @@ public interface SavingGoalDao {
     List<SavingGoal> getAllSavingGoals();
     
     @Query("UPDATE saving_goals SET current_amount = :amount, updated_at = :timestamp WHERE id = :goalId")
-    void updateCurrentAmount(int goalId, double amount, long timestamp);
+    void updateCurrentAmount(int goalId, long amount, long timestamp);
     
     @Query("DELETE FROM saving_goals WHERE id = :goalId")
     void deleteById(int goalId);
@@ -1,133 +1,203 @@
 package com.example.mymoney.database.dao;
 
 import androidx.room.Dao;
-import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
 
-import com.example.mymoney.CategoryTotal;
-import com.example.mymoney.MonthTotal;
-import com.example.mymoney.CategoryTotal;
-import com.example.mymoney.MonthTotal;
+import com.example.mymoney.database.StatisticsCache;
+import com.example.mymoney.database.TransactionSearch;
 import com.example.mymoney.database.entity.Transaction;
-import com.example.mymoney.model.CategoryExpense;
+import com.example.mymoney.database.entity.TransactionFts;
+import com.example.mymoney.model.TransactionListItem;
 
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+
+/**
+ * Abstract class rather than an interface so the raw row writes can stay
+ * protected: outside the DAO a transaction is only ever written through
+ * insertAll / insertWithBalance / updateWithBalance / deleteWithBalance,
+ * which keep the wallet balance, search index and statistics cache in step.
+ */
 @Dao
-public interface TransactionDao {
-
-    @Insert
-    long insert(Transaction transaction);
-
-    @Update
-    void update(Transaction transaction);
-
-    @Delete
-    void delete(Transaction transaction);
-
-    @Query("SELECT * FROM `transaction` WHERE id = :transactionId")
-    Transaction getTransactionById(int transactionId);
-
-    @Query("SELECT * FROM `transaction` WHERE wallet_id = :walletId ORDER BY created_at DESC")
-    List<Transaction> getTransactionsByWalletId(int walletId);
-
-    @Query("SELECT * FROM `transaction` WHERE user_id = :userId ORDER BY created_at DESC")
-    List<Transaction> getTransactionsByUserId(int userId);
-
-    @Query("SELECT * FROM `transaction` WHERE category_id = :categoryId ORDER BY created_at DESC")
-    List<Transaction> getTransactionsByCategoryId(int categoryId);
-
-    @Query("SELECT * FROM `transaction` WHERE wallet_id = :walletId AND type = :type ORDER BY created_at DESC")
-    List<Transaction> getTransactionsByWalletAndType(int walletId, String type);
+public abstract class TransactionDao {
 
-    @Query("SELECT * FROM `transaction` WHERE user_id = :userId AND type = :type ORDER BY created_at DESC")
-    List<Transaction> getTransactionsByUserAndType(int userId, String type);
+    /**
+     * Columns of TransactionListItem. LEFT JOINs so a row whose category was
+     * deleted still shows up; both joins hit a primary key.
+     */
+    public static final String LIST_ITEM_SELECT = "SELECT t.id AS id, t.wallet_id AS walletId, t.category_id AS categoryId, " +
+            "t.amount AS amount, t.type AS type, t.created_at AS createdAt, t.description AS description, " +
+            "c.name AS categoryName, c.icon AS categoryIcon, w.name AS walletName, w.currency AS currency ";
 
-    @Query("SELECT * FROM `transaction` WHERE created_at BETWEEN :startDate AND :endDate ORDER BY created_at DESC")
-    List<Transaction> getTransactionsByDateRange(long startDate, long endDate);
+    public static final String LIST_ITEM_JOINS = "LEFT JOIN category c ON c.id = t.category_id " +
+            "LEFT JOIN wallet w ON w.id = t.wallet_id ";
 
-    @Query("SELECT * FROM `transaction` WHERE user_id = :userId AND created_at BETWEEN :startDate AND :endDate ORDER BY created_at DESC")
-    List<Transaction> getTransactionsByDateRange(int userId, long startDate, long endDate);
-
-    @Query("SELECT * FROM `transaction` WHERE wallet_id = :walletId AND created_at BETWEEN :startDate AND :endDate ORDER BY created_at DESC")
-    List<Transaction> getTransactionsByWalletAndDateRange(int walletId, long startDate, long endDate);
-
-    @Query("SELECT SUM(amount) FROM `transaction` WHERE user_id = :userId AND type = 'expense' AND created_at BETWEEN :startDate AND :endDate")
-    Double getTotalExpensesByDateRange(int userId, long startDate, long endDate);
-
-    @Query("SELECT SUM(amount) FROM `transaction` WHERE user_id = :userId AND type = 'income' AND created_at BETWEEN :startDate AND :endDate")
-    Double getTotalIncomeByDateRange(int userId, long startDate, long endDate);
-
-    @Query("SELECT SUM(amount) FROM `transaction` WHERE wallet_id = :walletId AND type = 'expense'")
-    double getTotalExpensesByWallet(int walletId);
-
-    @Query("SELECT SUM(amount) FROM `transaction` WHERE wallet_id = :walletId AND type = 'income'")
-    double getTotalIncomeByWallet(int walletId);
-
-    @Query("SELECT SUM(amount) FROM `transaction` WHERE user_id = :userId AND type = 'expense'")
-    double getTotalExpensesByUser(int userId);
+    @Insert
+    protected abstract long insert(Transaction transaction);
 
-    @Query("SELECT SUM(amount) FROM `transaction` WHERE user_id = :userId AND type = 'income'")
-    double getTotalIncomeByUser(int userId);
+    // Room binds every row through one compiled INSERT statement
+    @Insert
+    protected abstract long[] insertTransactions(List<Transaction> transactions);
+
+    @Query("UPDATE wallet SET balance = balance + :delta, updated_at = :timestamp WHERE id = :walletId")
+    protected abstract void adjustWalletBalance(int walletId, long delta, long timestamp);
+
+    // ===== Search index (text folded in Java, see TransactionSearch) =====
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract void insertSearchRow(TransactionFts row);
+
+    @Query("SELECT name FROM category WHERE id = :categoryId")
+    protected abstract String getCategoryName(int categoryId);
+
+    /** Index or re-index one saved transaction; call inside its write transaction */
+    protected void indexForSearch(Transaction transaction) {
+        insertSearchRow(TransactionSearch.indexRow(transaction, getCategoryName(transaction.getCategoryId())));
+    }
+
+    /**
+     * Bulk insert (imports, recurring catch-up): all rows plus one aggregated
+     * balance delta per wallet in a single transaction, so N rows cost one
+     * commit instead of N inserts and N wallet read-modify-writes.
+     *
+     * @return the generated ids, also written back into the transactions
+     */
+    @androidx.room.Transaction
+    public long[] insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) return new long[0];
+
+        StatisticsCache cache = StatisticsCache.getInstance();
+        for (Transaction transaction : transactions) {
+            transaction.stampLocalDate();
+            cache.invalidate(transaction.getWalletId(), transaction.getLocalDay());
+        }
+        long[] ids = insertTransactions(transactions);
+
+        Map<Integer, Long> deltaByWallet = new HashMap<>();
+        Map<Integer, String> categoryNames = new HashMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            transaction.setId((int) ids[i]);
+            int categoryId = transaction.getCategoryId();
+            if (!categoryNames.containsKey(categoryId)) {
+                categoryNames.put(categoryId, getCategoryName(categoryId));
+            }
+            insertSearchRow(TransactionSearch.indexRow(transaction, categoryNames.get(categoryId)));
+            Long current = deltaByWallet.get(transaction.getWalletId());
+            deltaByWallet.put(transaction.getWalletId(),
+                    (current != null ? current : 0) + transaction.signedAmount());
+        }
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Integer, Long> entry : deltaByWallet.entrySet()) {
+            adjustWalletBalance(entry.getKey(), entry.getValue(), now);
+        }
+        return ids;
+    }
+
+    // ===== Atomic ledger writes: row change + wallet balance in one transaction =====
+    // Balances move by "balance = balance + delta" in SQL, never by writing back a
+    // Wallet read earlier, so concurrent writers cannot lose each other's updates.
+
+    @androidx.room.Transaction
+    public long insertWithBalance(Transaction transaction) {
+        long id = insert(transaction.stampLocalDate());
+        transaction.setId((int) id);
+        indexForSearch(transaction);
+        StatisticsCache.getInstance().invalidate(transaction.getWalletId(), transaction.getLocalDay());
+        adjustWalletBalance(transaction.getWalletId(), transaction.signedAmount(), System.currentTimeMillis());
+        return id;
+    }
+
+    @androidx.room.Transaction
+    public void updateWithBalance(Transaction transaction) {
+        Transaction stored = getTransactionById(transaction.getId());
+        if (stored == null) return;
+        long now = System.currentTimeMillis();
+        // created_at may have moved to another day
+        update(transaction.stampLocalDate());
+        indexForSearch(transaction);
+        // Both the old and the new wallet/day lose their cached statistics
+        StatisticsCache cache = StatisticsCache.getInstance();
+        cache.invalidate(stored.getWalletId(), stored.getLocalDay());
+        cache.invalidate(transaction.getWalletId(), transaction.getLocalDay());
+        adjustWalletBalance(stored.getWalletId(), -stored.signedAmount(), now);
+        adjustWalletBalance(transaction.getWalletId(), transaction.signedAmount(), now);
+    }
+
+    /**
+     * Deletes by id and reverses the stored row's effect, so a stale or
+     * already-deleted Transaction object can't move the balance twice.
+     *
+     * @return true if a row was deleted
+     */
+    @androidx.room.Transaction
+    public boolean deleteWithBalance(int transactionId) {
+        Transaction stored = getTransactionById(transactionId);
+        if (stored == null) return false;
+        deleteById(transactionId);
+        StatisticsCache.getInstance().invalidate(stored.getWalletId(), stored.getLocalDay());
+        adjustWalletBalance(stored.getWalletId(), -stored.signedAmount(), System.currentTimeMillis());
+        return true;
+    }
 
-    @Query("SELECT * FROM `transaction` WHERE is_recurring = 1")
-    List<Transaction> getRecurringTransactions();
+    @Update
+    protected abstract void update(Transaction transaction);
 
-    @Query("SELECT * FROM `transaction` ORDER BY created_at DESC")
-    List<Transaction> getAllTransactions();
+    @Query("SELECT * FROM `transaction` WHERE id = :transactionId")
+    public abstract Transaction getTransactionById(int transactionId);
+
+    @Query(LIST_ITEM_SELECT + "FROM `transaction` t " + LIST_ITEM_JOINS +
+            "WHERE t.wallet_id = :walletId AND t.created_at >= :since " +
+            "ORDER BY t.created_at DESC, t.id DESC")
+    public abstract List<TransactionListItem> getListItemsByWalletSince(int walletId, long since);
+
+    // ===== Keyset pagination on (created_at, id) =====
+    // Each page starts strictly after the last row of the previous one, so the
+    // cost of a page is independent of how deep into the ledger it is.
+    @Query(LIST_ITEM_SELECT + "FROM `transaction` t " + LIST_ITEM_JOINS + "WHERE t.wallet_id = :walletId " +
+            "AND t.created_at <= :beforeCreatedAt AND (t.created_at < :beforeCreatedAt OR t.id < :beforeId) " +
+            "ORDER BY t.created_at DESC, t.id DESC LIMIT :limit")
+    public abstract List<TransactionListItem> getTransactionPageByWallet(int walletId, long beforeCreatedAt, int beforeId, int limit);
+
+    @Query(LIST_ITEM_SELECT + "FROM `transaction` t " + LIST_ITEM_JOINS + "WHERE t.wallet_id = :walletId AND t.type = :type " +
+            "AND t.created_at <= :beforeCreatedAt AND (t.created_at < :beforeCreatedAt OR t.id < :beforeId) " +
+            "ORDER BY t.created_at DESC, t.id DESC LIMIT :limit")
+    public abstract List<TransactionListItem> getTransactionPageByWalletAndType(int walletId, String type, long beforeCreatedAt, int beforeId, int limit);
+
+    @Query(LIST_ITEM_SELECT + "FROM `transaction` t " + LIST_ITEM_JOINS + "WHERE t.user_id = :userId " +
+            "AND t.created_at <= :beforeCreatedAt AND (t.created_at < :beforeCreatedAt OR t.id < :beforeId) " +
+            "ORDER BY t.created_at DESC, t.id DESC LIMIT :limit")
+    public abstract List<TransactionListItem> getTransactionPageByUser(int userId, long beforeCreatedAt, int beforeId, int limit);
+
+    @Query(LIST_ITEM_SELECT + "FROM `transaction` t " + LIST_ITEM_JOINS + "WHERE t.user_id = :userId AND t.type = :type " +
+            "AND t.created_at <= :beforeCreatedAt AND (t.created_at < :beforeCreatedAt OR t.id < :beforeId) " +
+            "ORDER BY t.created_at DESC, t.id DESC LIMIT :limit")
+    public abstract List<TransactionListItem> getTransactionPageByUserAndType(int userId, String type, long beforeCreatedAt, int beforeId, int limit);
+
+    // ===== Full-text search (transaction_fts) =====
+    // :match comes from TransactionSearch.toMatchQuery(). Rows with more matched
+    // terms (longer offsets() output) rank first, then newest first.
+    @Query(LIST_ITEM_SELECT + "FROM transaction_fts " +
+            "JOIN `transaction` t ON t.id = transaction_fts.rowid " + LIST_ITEM_JOINS +
+            "WHERE transaction_fts MATCH :match AND t.wallet_id = :walletId " +
+            "AND (:type IS NULL OR t.type = :type) " +
+            "ORDER BY length(offsets(transaction_fts)) DESC, t.created_at DESC, t.id DESC " +
+            "LIMIT :limit OFFSET :offset")
+    public abstract List<TransactionListItem> search(String match, int walletId, String type, int limit, int offset);
+
+    @Query(LIST_ITEM_SELECT + "FROM transaction_fts " +
+            "JOIN `transaction` t ON t.id = transaction_fts.rowid " + LIST_ITEM_JOINS +
+            "WHERE transaction_fts MATCH :match AND t.user_id = :userId " +
+            "AND (:type IS NULL OR t.type = :type) " +
+            "ORDER BY length(offsets(transaction_fts)) DESC, t.created_at DESC, t.id DESC " +
+            "LIMIT :limit OFFSET :offset")
+    public abstract List<TransactionListItem> searchByUser(String match, int userId, String type, int limit, int offset);
 
     @Query("DELETE FROM `transaction` WHERE id = :transactionId")
-    void deleteById(int transactionId);
-
-    @Query("SELECT * FROM `transaction` ORDER BY created_at DESC LIMIT :limit")
-    List<Transaction> getRecentTransactions(int limit);
-
-
-    // 🟢 Thêm phương thức thống kê top chi tiêu (wallet + user specific)
-    @Query("SELECT c.name AS category, SUM(t.amount) AS total " +
-            "FROM `transaction` t " +
-            "JOIN category c ON t.category_id = c.id " +
-            "WHERE t.type = 'expense' AND t.user_id = :userId AND t.wallet_id = :walletId AND t.created_at BETWEEN :startDate AND :endDate " +
-            "GROUP BY c.name " +
-            "ORDER BY total DESC " +
-            "LIMIT 5")
-    List<CategoryTotal> getTopExpensesByYear(int userId, int walletId, long startDate, long endDate);
-
-    @Query("SELECT strftime('%m', datetime(created_at / 1000, 'unixepoch')) AS month, " +
-            "SUM(amount) AS total " +
-            "FROM `transaction` " +
-            "WHERE type = 'expense' AND user_id = :userId AND wallet_id = :walletId AND created_at BETWEEN :startDate AND :endDate " +
-            "GROUP BY month " +
-            "ORDER BY month")
-    List<MonthTotal> getMonthlyExpensesByYear(int userId, int walletId, long startDate, long endDate);
-
-    @Query("SELECT c.name AS category, SUM(t.amount) AS total " +
-            "FROM `transaction` t " +
-            "JOIN category c ON t.category_id = c.id " +
-            "WHERE t.type = 'expense' AND t.user_id = :userId AND t.wallet_id = :walletId AND t.created_at BETWEEN :startDate AND :endDate " +
-            "GROUP BY c.name " +
-            "ORDER BY total DESC")
-    List<CategoryTotal> getExpensesByDateRange(int userId, int walletId, long startDate, long endDate);
-    // 🟢 ===== HÀM CHO MỤC BUDGET (dùng trong BudgetFragment) =====
-    @Query("SELECT c.name AS category, SUM(t.amount) AS total " +
-            "FROM `transaction` t " +
-            "JOIN category c ON t.category_id = c.id " +
-            "WHERE t.type = 'expense' AND t.created_at >= :startDate " +
-            "GROUP BY c.name " +
-            "HAVING total > 0 " +
-            "ORDER BY total DESC")
-    List<CategoryExpense> getExpensesByCategorySince(long startDate);
-
-    @Query("SELECT IFNULL(SUM(amount), 0) FROM `transaction` " +
-            "WHERE type = 'income' AND created_at >= :startDate")
-    double getTotalIncomeSince(long startDate);
-
-    // Tổng chi tiêu kể từ một thời điểm
-    @Query("SELECT IFNULL(SUM(amount), 0) FROM `transaction` " +
-            "WHERE type = 'expense' AND created_at >= :startDate")
-    double getTotalExpenseSince(long startDate);
-
-
+    protected abstract void deleteById(int transactionId);
 }
@@ -1,11 +1,11 @@
 package com.example.mymoney.database.dao;
 
 import androidx.room.Dao;
-import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
 import androidx.room.Update;
 
+import com.example.mymoney.database.StatisticsCache;
 import com.example.mymoney.database.entity.Wallet;
 
 import java.util.List;
@@ -19,8 +19,10 @@ public interface WalletDao {
     @Update
     void update(Wallet wallet);
     
-    @Delete
-    void delete(Wallet wallet);
+    /** Delete the wallet; its transactions go with it (ON DELETE CASCADE) */
+    default void delete(Wallet wallet) {
+        deleteById(wallet.getId());
+    }
     
     @Query("SELECT * FROM wallet WHERE id = :walletId")
     Wallet getWalletById(int walletId);
@@ -35,11 +37,18 @@ public interface WalletDao {
     List<Wallet> getAllWallets();
     
     @Query("SELECT SUM(balance) FROM wallet WHERE user_id = :userId AND is_active = 1")
-    double getTotalBalanceByUserId(int userId);
+    long getTotalBalanceByUserId(int userId);
     
     @Query("UPDATE wallet SET balance = :newBalance, updated_at = :timestamp WHERE id = :walletId")
-    void updateBalance(int walletId, double newBalance, long timestamp);
-    
+    void updateBalance(int walletId, long newBalance, long timestamp);
+    
+    /** Delete the wallet and drop the statistics cached for it */
+    default void deleteById(int walletId) {
+        deleteRow(walletId);
+        // Every day of the wallet may have lost transactions
+        StatisticsCache.getInstance().invalidate(walletId, 0);
+    }
+
     @Query("DELETE FROM wallet WHERE id = :walletId")
-    void deleteById(int walletId);
+    void deleteRow(int walletId);
 }
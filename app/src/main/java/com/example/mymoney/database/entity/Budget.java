@@ -38,7 +38,7 @@ public class Budget {
     private String name;
     
     @ColumnInfo(name = "budget_amount")
-    private double budgetAmount;
+    private long budgetAmount; // minor units, see Money
     
     @ColumnInfo(name = "budget_type")
     private String budgetType; // "monthly", "yearly", "custom"
@@ -93,11 +93,11 @@ public class Budget {
         this.name = name;
     }
 
-    public double getBudgetAmount() {
+    public long getBudgetAmount() {
         return budgetAmount;
     }
 
-    public void setBudgetAmount(double budgetAmount) {
+    public void setBudgetAmount(long budgetAmount) {
         this.budgetAmount = budgetAmount;
     }
 
@@ -38,10 +38,10 @@ public class SavingGoal {
     private String name;
     
     @ColumnInfo(name = "target")
-    private double target;
+    private long target; // minor units, see Money
     
     @ColumnInfo(name = "current_amount")
-    private double currentAmount;
+    private long currentAmount;
     
     @ColumnInfo(name = "start_date")
     private String startDate;
@@ -95,19 +95,19 @@ public class SavingGoal {
         this.name = name;
     }
 
-    public double getTarget() {
+    public long getTarget() {
         return target;
     }
 
-    public void setTarget(double target) {
+    public void setTarget(long target) {
         this.target = target;
     }
 
-    public double getCurrentAmount() {
+    public long getCurrentAmount() {
         return currentAmount;
     }
 
-    public void setCurrentAmount(double currentAmount) {
+    public void setCurrentAmount(long currentAmount) {
         this.currentAmount = currentAmount;
     }
 
@@ -6,6 +6,8 @@ import androidx.room.ForeignKey;
 import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import com.example.mymoney.database.DateKeys;
+
 @Entity(tableName = "transaction",
         foreignKeys = {
                 @ForeignKey(
@@ -27,7 +29,18 @@ import androidx.room.PrimaryKey;
                         onDelete = ForeignKey.CASCADE
                 )
         },
-        indices = {@Index("wallet_id"), @Index("category_id"), @Index("user_id")})
+        indices = {
+                // One index per TransactionDao access path, nothing more: every
+                // insert pays for each of them (see BulkInsertTest). Equality
+                // columns first, then created_at, so the keyset pages read
+                // "ORDER BY created_at DESC, id DESC" straight from the index.
+                // Statistics read the rollup tables, not these.
+                @Index({"wallet_id", "created_at"}),          // wallet pages, Home's recent list, FK
+                @Index({"wallet_id", "type", "created_at"}),  // wallet pages filtered by type
+                @Index({"user_id", "created_at"}),            // all-wallets pages, FK
+                @Index({"user_id", "type", "created_at"}),    // all-wallets pages filtered by type
+                @Index({"category_id", "created_at"})         // category delete cascade, search relabel
+        })
 public class Transaction {
     
     @PrimaryKey(autoGenerate = true)
@@ -44,7 +57,7 @@ public class Transaction {
     private int userId;
     
     @ColumnInfo(name = "amount")
-    private double amount;
+    private long amount; // minor units of the wallet currency, see Money
     
     @ColumnInfo(name = "description")
     private String description;
@@ -64,6 +77,13 @@ public class Transaction {
     @ColumnInfo(name = "type")
     private String type; // "expense" or "income"
 
+    // Local date of created_at as DateKeys (yyyyMMdd / yyyyMM), stamped at write time
+    @ColumnInfo(name = "local_day", defaultValue = "0")
+    private int localDay;
+
+    @ColumnInfo(name = "local_month", defaultValue = "0")
+    private int localMonth;
+
     // Constructors
     public Transaction() {
         this.createdAt = System.currentTimeMillis();
@@ -104,11 +124,11 @@ public class Transaction {
         this.userId = userId;
     }
 
-    public double getAmount() {
+    public long getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(long amount) {
         this.amount = amount;
     }
 
@@ -159,4 +179,40 @@ public class Transaction {
     public void setType(String type) {
         this.type = type;
     }
+
+    public int getLocalDay() {
+        return localDay;
+    }
+
+    public void setLocalDay(int localDay) {
+        this.localDay = localDay;
+    }
+
+    public int getLocalMonth() {
+        return localMonth;
+    }
+
+    public void setLocalMonth(int localMonth) {
+        this.localMonth = localMonth;
+    }
+
+    /**
+     * Derive local_day / local_month from created_at in the device's time
+     * zone. Called by the TransactionDao write methods before every insert
+     * and update, so the day a transaction was entered on stays its day
+     * even if the zone changes later.
+     */
+    public Transaction stampLocalDate() {
+        localDay = DateKeys.dayKey(createdAt);
+        localMonth = localDay / 100;
+        return this;
+    }
+
+    /**
+     * Effect of this transaction on its wallet balance: +amount for income,
+     * -amount for expense.
+     */
+    public long signedAmount() {
+        return "income".equals(type) ? amount : -amount;
+    }
 }
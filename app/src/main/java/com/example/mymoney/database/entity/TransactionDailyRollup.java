@@ -0,0 +1,96 @@
+package com.example.mymoney.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * Per-day transaction totals keyed by (user, wallet, category, type, day).
+ * Maintained by SQLite triggers on the transaction table, see RollupMaintenance.
+ */
+@Entity(tableName = "transaction_daily_rollup",
+        primaryKeys = {"user_id", "wallet_id", "category_id", "type", "day"},
+        indices = {@Index({"wallet_id", "type", "day"}), @Index({"wallet_id", "day"}), @Index({"type", "day"})})
+public class TransactionDailyRollup {
+
+    @ColumnInfo(name = "user_id")
+    private int userId;
+
+    @ColumnInfo(name = "wallet_id")
+    private int walletId;
+
+    @ColumnInfo(name = "category_id")
+    private int categoryId;
+
+    @NonNull
+    @ColumnInfo(name = "type")
+    private String type = ""; // "expense" or "income"
+
+    @ColumnInfo(name = "day")
+    private int day; // local date as yyyyMMdd
+
+    @ColumnInfo(name = "total")
+    private long total;
+
+    @ColumnInfo(name = "tx_count")
+    private int txCount;
+
+    // Getters and Setters
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getWalletId() {
+        return walletId;
+    }
+
+    public void setWalletId(int walletId) {
+        this.walletId = walletId;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(int categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    @NonNull
+    public String getType() {
+        return type;
+    }
+
+    public void setType(@NonNull String type) {
+        this.type = type;
+    }
+
+    public int getDay() {
+        return day;
+    }
+
+    public void setDay(int day) {
+        this.day = day;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getTxCount() {
+        return txCount;
+    }
+
+    public void setTxCount(int txCount) {
+        this.txCount = txCount;
+    }
+}
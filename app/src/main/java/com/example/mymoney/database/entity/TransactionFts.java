@@ -0,0 +1,71 @@
+package com.example.mymoney.database.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * Full-text index over transaction description + category name.
+ *
+ * rowid is the transaction id. Rows are written by the DAOs in the same
+ * transaction as the change: TransactionDao.insertSearchRow on every insert
+ * and update, CategoryDao.relabelForSearch when a category is renamed. The
+ * only trigger left is trg_transaction_fts_delete, which drops the row
+ * together with its transaction (see TransactionSearch).
+ * Text is folded by TransactionSearch.fold() before it is indexed and
+ * queried, so "an uong" matches "ăn uống" and "duong" matches "đường":
+ * unicode61 remove_diacritics=1 alone leaves đ and letters with two marks
+ * (ố, ườ, ữ...) untouched.
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61, tokenizerArgs = {"remove_diacritics=1"})
+@Entity(tableName = "transaction_fts")
+public class TransactionFts {
+
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private int rowId;
+
+    @ColumnInfo(name = "description")
+    private String description;
+
+    @ColumnInfo(name = "category_name")
+    private String categoryName;
+
+    @ColumnInfo(name = "amount_text")
+    private String amountText;
+
+    // Getters and Setters
+    public int getRowId() {
+        return rowId;
+    }
+
+    public void setRowId(int rowId) {
+        this.rowId = rowId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public String getAmountText() {
+        return amountText;
+    }
+
+    public void setAmountText(String amountText) {
+        this.amountText = amountText;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.mymoney.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * Per-month transaction totals keyed by (user, wallet, category, type, month).
+ * Maintained by SQLite triggers on the transaction table, see RollupMaintenance.
+ */
+@Entity(tableName = "transaction_monthly_rollup",
+        primaryKeys = {"user_id", "wallet_id", "category_id", "type", "month"},
+        indices = {@Index({"wallet_id", "type", "month"}), @Index({"type", "month"})})
+public class TransactionMonthlyRollup {
+
+    @ColumnInfo(name = "user_id")
+    private int userId;
+
+    @ColumnInfo(name = "wallet_id")
+    private int walletId;
+
+    @ColumnInfo(name = "category_id")
+    private int categoryId;
+
+    @NonNull
+    @ColumnInfo(name = "type")
+    private String type = ""; // "expense" or "income"
+
+    @ColumnInfo(name = "month")
+    private int month; // local month as yyyyMM
+
+    @ColumnInfo(name = "total")
+    private long total;
+
+    @ColumnInfo(name = "tx_count")
+    private int txCount;
+
+    // Getters and Setters
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getWalletId() {
+        return walletId;
+    }
+
+    public void setWalletId(int walletId) {
+        this.walletId = walletId;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(int categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    @NonNull
+    public String getType() {
+        return type;
+    }
+
+    public void setType(@NonNull String type) {
+        this.type = type;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getTxCount() {
+        return txCount;
+    }
+
+    public void setTxCount(int txCount) {
+        this.txCount = txCount;
+    }
+}
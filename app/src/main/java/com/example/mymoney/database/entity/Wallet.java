@@ -30,7 +30,7 @@ public class Wallet {
     private String currency;
     
     @ColumnInfo(name = "balance")
-    private double balance;
+    private long balance; // minor units of currency, see Money
     
     @ColumnInfo(name = "is_active")
     private boolean isActive;
@@ -52,7 +52,7 @@ public class Wallet {
         this.createdAt = System.currentTimeMillis();
         this.updatedAt = System.currentTimeMillis();
         this.isActive = true;
-        this.balance = 0.0;
+        this.balance = 0;
     }
 
     // Getters and Setters
@@ -88,11 +88,11 @@ public class Wallet {
         this.currency = currency;
     }
 
-    public double getBalance() {
+    public long getBalance() {
         return balance;
     }
 
-    public void setBalance(double balance) {
+    public void setBalance(long balance) {
         this.balance = balance;
     }
 
@@ -10,9 +10,9 @@ public class CategoryExpense {
     @NonNull
     public String category;
 
-    public double total;
+    public long total;
 
-    public CategoryExpense(@NonNull String category, double total) {
+    public CategoryExpense(@NonNull String category, long total) {
         this.category = category;
         this.total = total;
     }
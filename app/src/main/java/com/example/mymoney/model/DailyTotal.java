@@ -0,0 +1,12 @@
+package com.example.mymoney.model;
+
+/**
+ * Income/expense totals of one local day (yyyyMMdd, see DateKeys) of a
+ * wallet, aggregated in SQL from the daily rollup. Filled by Room projections.
+ */
+public class DailyTotal {
+    public int day;
+    public long income;
+    public long expense;
+    public int txCount;
+}
@@ -1,7 +1,5 @@
 package com.example.mymoney.model;
 
-import com.example.mymoney.database.entity.Transaction;
-
 import java.util.List;
 
 /**
@@ -11,30 +9,59 @@ public class DailyTransactionGroup {
     private String date;
     private String fullDate;
     private long timestamp;
-    private double totalIncome;
-    private double totalExpense;
-    private List<Transaction> transactions;
+    private long totalIncome;
+    private long totalExpense;
+    private List<TransactionListItem> transactions;
     private boolean isExpanded;   // expanded hay k
+    // Currency of the wallet the transactions belong to
+    private String currency;
+    // Header text, formatted when the totals change instead of on every bind
+    private String summaryLabel;
 
-    public DailyTransactionGroup(String date, String fullDate, long timestamp, List<Transaction> transactions) {
+    public DailyTransactionGroup(String date, String fullDate, long timestamp, List<TransactionListItem> transactions) {
         this.date = date;
         this.fullDate = fullDate;
         this.timestamp = timestamp;
         this.transactions = transactions;
         this.isExpanded = true;  // Default to expanded
+        this.currency = transactions.isEmpty() ? null : transactions.get(0).currency;
         calculateTotals();
     }
 
+    /**
+     * Group whose totals were already computed (in SQL), so the transactions
+     * are not summed again.
+     * @param currency currency of the wallet, for the header totals
+     */
+    public DailyTransactionGroup(String date, String fullDate, long timestamp, List<TransactionListItem> transactions,
+                                 long totalIncome, long totalExpense, String currency) {
+        this.date = date;
+        this.fullDate = fullDate;
+        this.timestamp = timestamp;
+        this.transactions = transactions;
+        this.isExpanded = true;  // Default to expanded
+        this.totalIncome = totalIncome;
+        this.totalExpense = totalExpense;
+        this.currency = currency;
+        updateSummaryLabel();
+    }
+
     private void calculateTotals() {
         totalIncome = 0;
         totalExpense = 0;
-        for (Transaction transaction : transactions) {
-            if ("income".equals(transaction.getType())) {
-                totalIncome += transaction.getAmount();
-            } else if ("expense".equals(transaction.getType())) {
-                totalExpense += transaction.getAmount();
+        for (TransactionListItem transaction : transactions) {
+            if ("income".equals(transaction.type)) {
+                totalIncome += transaction.amount;
+            } else if ("expense".equals(transaction.type)) {
+                totalExpense += transaction.amount;
             }
         }
+        updateSummaryLabel();
+    }
+
+    private void updateSummaryLabel() {
+        summaryLabel = "Income: " + MoneyFormatter.format(totalIncome, currency)
+                + "  Expense: " + MoneyFormatter.format(totalExpense, currency);
     }
 
     public String getDate() {
@@ -61,19 +88,24 @@ public class DailyTransactionGroup {
         this.timestamp = timestamp;
     }
 
-    public double getTotalIncome() {
+    public long getTotalIncome() {
         return totalIncome;
     }
 
-    public double getTotalExpense() {
+    public long getTotalExpense() {
         return totalExpense;
     }
 
-    public List<Transaction> getTransactions() {
+    /** "Income: 150,000 VND  Expense: 20,000 VND" */
+    public String getSummaryLabel() {
+        return summaryLabel;
+    }
+
+    public List<TransactionListItem> getTransactions() {
         return transactions;
     }
 
-    public void setTransactions(List<Transaction> transactions) {
+    public void setTransactions(List<TransactionListItem> transactions) {
         this.transactions = transactions;
         calculateTotals();
     }
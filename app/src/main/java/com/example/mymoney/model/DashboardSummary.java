@@ -0,0 +1,21 @@
+package com.example.mymoney.model;
+
+/**
+ * Everything the dashboard shows about one wallet, read by a single
+ * statement (DashboardDao) from the wallet row and the monthly rollup.
+ * Amounts are minor units of currency, see Money. Filled by Room projections.
+ */
+public class DashboardSummary {
+    public int walletId;
+    public int userId;
+    public String name;
+    public String type;
+    public String currency;
+    public long balance;
+    public long totalIncome;
+    public long totalExpense;
+    /** Totals of the month passed to the query (yyyyMM) */
+    public long monthIncome;
+    public long monthExpense;
+    public int txCount;
+}
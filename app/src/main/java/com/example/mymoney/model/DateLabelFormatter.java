@@ -0,0 +1,71 @@
+package com.example.mymoney.model;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Thread-safe date labels for lists and headers.
+ *
+ * java.time formatters are immutable, so one set per locale/time zone is
+ * shared by every thread, unlike SimpleDateFormat which had to be created
+ * per call or confined to the main thread. The set is rebuilt only when
+ * the default locale or time zone changes.
+ */
+public final class DateLabelFormatter {
+
+    private static final class Formatters {
+        final Locale locale;
+        final ZoneId zone;
+        final DateTimeFormatter time;
+        final DateTimeFormatter dayShort;
+        final DateTimeFormatter dayFull;
+        final DateTimeFormatter date;
+
+        Formatters(Locale locale, ZoneId zone) {
+            this.locale = locale;
+            this.zone = zone;
+            this.time = DateTimeFormatter.ofPattern("HH:mm", locale).withZone(zone);
+            this.dayShort = DateTimeFormatter.ofPattern("EEE, dd/MM", locale).withZone(zone);
+            this.dayFull = DateTimeFormatter.ofPattern("EEEE, MMMM dd, yyyy", locale).withZone(zone);
+            this.date = DateTimeFormatter.ofPattern("dd/MM/yyyy", locale).withZone(zone);
+        }
+    }
+
+    private static volatile Formatters formatters;
+
+    private DateLabelFormatter() {
+    }
+
+    private static Formatters formatters() {
+        Locale locale = Locale.getDefault();
+        ZoneId zone = ZoneId.systemDefault();
+        Formatters f = formatters;
+        if (f == null || !f.locale.equals(locale) || !f.zone.equals(zone)) {
+            f = new Formatters(locale, zone);
+            formatters = f;
+        }
+        return f;
+    }
+
+    /** "14:05", time of a transaction row */
+    public static String time(long millis) {
+        return formatters().time.format(Instant.ofEpochMilli(millis));
+    }
+
+    /** "Mon, 06/10", day header */
+    public static String dayShort(long millis) {
+        return formatters().dayShort.format(Instant.ofEpochMilli(millis));
+    }
+
+    /** "Monday, October 06, 2025" */
+    public static String dayFull(long millis) {
+        return formatters().dayFull.format(Instant.ofEpochMilli(millis));
+    }
+
+    /** "06/10/2025" */
+    public static String date(long millis) {
+        return formatters().date.format(Instant.ofEpochMilli(millis));
+    }
+}
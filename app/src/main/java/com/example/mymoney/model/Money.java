@@ -0,0 +1,185 @@
+package com.example.mymoney.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Số tiền lưu dưới dạng long theo đơn vị nhỏ nhất của tiền tệ (minor units):
+ * 1 = 1 đồng với VND/JPY, 1 = 1 cent với USD/EUR/GBP.
+ *
+ * Mọi cột tiền trong DB (transaction.amount, wallet.balance,
+ * budget.budget_amount, saving_goals.target/current_amount) đều là INTEGER
+ * theo đơn vị này, nên cộng trừ số dư và SUM() luôn chính xác.
+ * Chuyển đổi sang/từ chuỗi hiển thị chỉ đi qua class này.
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Currency used when the wallet's currency is unknown (transaction form, reports) */
+    public static final String DEFAULT_CURRENCY = "VND";
+
+    private final long minor;
+    @NonNull
+    private final String currency;
+
+    private Money(long minor, @NonNull String currency) {
+        this.minor = minor;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minor, @Nullable String currency) {
+        return new Money(minor, currency != null ? currency : DEFAULT_CURRENCY);
+    }
+
+    public static Money ofMinor(long minor) {
+        return new Money(minor, DEFAULT_CURRENCY);
+    }
+
+    // ===== Scale =====
+
+    /** Number of decimals of the currency: 0 for VND/JPY, 2 for USD/EUR/GBP */
+    public static int fractionDigits(@Nullable String currency) {
+        return MoneyFormatter.fractionDigits(currency);
+    }
+
+    /** Minor units per major unit: 1 for VND, 100 for USD */
+    public static long scale(@Nullable String currency) {
+        long scale = 1;
+        for (int i = fractionDigits(currency); i > 0; i--) scale *= 10;
+        return scale;
+    }
+
+    // ===== Parsing =====
+
+    /**
+     * Convert a major-unit amount (e.g. what the user typed, "12.5" USD) to
+     * minor units, rounding half up.
+     */
+    public static long toMinor(double major, @Nullable String currency) {
+        return BigDecimal.valueOf(major)
+                .movePointRight(fractionDigits(currency))
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    /**
+     * Parse user input such as "150000", "150,000" or "12.50" into minor
+     * units without going through double.
+     *
+     * @throws NumberFormatException if the text is not a number
+     */
+    public static long parseMinor(@NonNull String text, @Nullable String currency) {
+        String cleaned = text.trim().replace(",", "").replace(" ", "");
+        try {
+            return new BigDecimal(cleaned)
+                    .movePointRight(fractionDigits(currency))
+                    .setScale(0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    /** Major-unit value, only for charts and ratios - never for storage */
+    public static double toMajor(long minor, @Nullable String currency) {
+        return minor / (double) scale(currency);
+    }
+
+    // ===== Formatting (see MoneyFormatter) =====
+
+    /** "150,000 VND", "12.50 USD" */
+    public static String format(long minor, @Nullable String currency) {
+        return MoneyFormatter.format(minor, currency);
+    }
+
+    public static String format(long minor) {
+        return format(minor, DEFAULT_CURRENCY);
+    }
+
+    /** "+150,000 VND" / "-150,000 VND" using the sign given, not the sign of minor */
+    public static String formatSigned(long minor, boolean positive, @Nullable String currency) {
+        return MoneyFormatter.formatSigned(minor, positive, currency);
+    }
+
+    /** Grouped number without currency code: "150,000", "12.50" */
+    public static String formatNumber(long minor, @Nullable String currency) {
+        return MoneyFormatter.formatNumber(minor, currency);
+    }
+
+    /**
+     * Short major-unit label for chart axes and bars: "1.5M", "250K", "12.5".
+     * Not exact - never use it for an amount the user reads as a balance.
+     */
+    public static String formatCompact(long minor, @Nullable String currency) {
+        double major = toMajor(minor, currency);
+        double abs = Math.abs(major);
+        if (abs >= 1_000_000_000d) {
+            return String.format(Locale.getDefault(), "%.1fB", major / 1_000_000_000d);
+        } else if (abs >= 1_000_000d) {
+            return String.format(Locale.getDefault(), "%.1fM", major / 1_000_000d);
+        } else if (abs >= 1_000d) {
+            return String.format(Locale.getDefault(), "%.1fK", major / 1_000d);
+        }
+        return String.format(Locale.getDefault(), "%." + Math.min(fractionDigits(currency), 1) + "f", major);
+    }
+
+    // ===== Value type =====
+
+    public long getMinor() {
+        return minor;
+    }
+
+    @NonNull
+    public String getCurrency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minor, other.minor), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minor, other.minor), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minor), currency);
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minor, other.minor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money money = (Money) o;
+        return minor == money.minor && currency.equals(money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minor, currency);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return format(minor, currency);
+    }
+}
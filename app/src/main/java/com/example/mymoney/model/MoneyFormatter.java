@@ -0,0 +1,145 @@
+package com.example.mymoney.model;
+
+import androidx.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormatSymbols;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe, allocation-light formatting of minor-unit amounts, behind
+ * Money.format / formatSigned / formatNumber.
+ *
+ * Output matches String.format(locale, "%,.Nf", major) for the default
+ * locale (grouping, decimal separator and digits), but the digits are
+ * written right to left into a per-thread char buffer, so one call
+ * allocates only the resulting String. Locale symbols and currency
+ * fraction digits are looked up once and cached.
+ */
+public final class MoneyFormatter {
+
+    private static final int GROUP_SIZE = 3;
+
+    // Long.MIN_VALUE has 19 digits; room for grouping, sign, decimals and a currency code
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+    private static final ConcurrentHashMap<String, Integer> FRACTION_DIGITS = new ConcurrentHashMap<>();
+
+    /** Separators and digits of one locale, swapped as a whole when the locale changes */
+    private static final class Symbols {
+        final Locale locale;
+        final char grouping;
+        final char decimal;
+        final char zero;
+
+        Symbols(Locale locale) {
+            DecimalFormatSymbols dfs = DecimalFormatSymbols.getInstance(locale);
+            this.locale = locale;
+            this.grouping = dfs.getGroupingSeparator();
+            this.decimal = dfs.getDecimalSeparator();
+            this.zero = dfs.getZeroDigit();
+        }
+    }
+
+    private static volatile Symbols symbols;
+
+    private MoneyFormatter() {
+    }
+
+    private static Symbols symbols() {
+        Locale locale = Locale.getDefault();
+        Symbols s = symbols;
+        if (s == null || !s.locale.equals(locale)) {
+            s = new Symbols(locale);
+            symbols = s;
+        }
+        return s;
+    }
+
+    /** Number of decimals of the currency: 0 for VND/JPY, 2 for USD/EUR/GBP */
+    public static int fractionDigits(@Nullable String currency) {
+        if (currency == null) return 0;
+        Integer cached = FRACTION_DIGITS.get(currency);
+        if (cached != null) return cached;
+        int digits;
+        try {
+            digits = Math.max(0, Currency.getInstance(currency).getDefaultFractionDigits());
+        } catch (IllegalArgumentException e) {
+            digits = 0;
+        }
+        FRACTION_DIGITS.put(currency, digits);
+        return digits;
+    }
+
+    /** Grouped number without currency code: "150,000", "12.50" */
+    public static String formatNumber(long minor, @Nullable String currency) {
+        return write(minor, fractionDigits(currency), minor < 0 ? '-' : 0, null);
+    }
+
+    /** "150,000 VND", "12.50 USD" */
+    public static String format(long minor, @Nullable String currency) {
+        String code = currency != null ? currency : Money.DEFAULT_CURRENCY;
+        return write(minor, fractionDigits(code), minor < 0 ? '-' : 0, code);
+    }
+
+    /** "+150,000 VND" / "-150,000 VND" using the sign given, not the sign of minor */
+    public static String formatSigned(long minor, boolean positive, @Nullable String currency) {
+        String code = currency != null ? currency : Money.DEFAULT_CURRENCY;
+        // Math.abs(Long.MIN_VALUE) stays negative; write() handles that case
+        return write(Math.abs(minor), fractionDigits(code), positive ? '+' : '-', code);
+    }
+
+    /**
+     * @param sign 0 for none, else the character put in front
+     * @param code currency code appended after a space, or null
+     */
+    private static String write(long minor, int fractionDigits, char sign, @Nullable String code) {
+        if (minor == Long.MIN_VALUE) {
+            // No positive long counterpart; rare enough to take the slow path
+            String number = String.format(Locale.getDefault(), "%,." + fractionDigits + "f",
+                    BigDecimal.valueOf(minor, fractionDigits).abs());
+            return (sign != 0 ? String.valueOf(sign) : "") + number + (code != null ? " " + code : "");
+        }
+
+        Symbols s = symbols();
+        char[] buf = BUFFER.get();
+        // 19 digits + 6 separators + sign + decimal point + fraction + " " + code
+        int needed = 27 + fractionDigits + (code != null ? code.length() + 1 : 0);
+        if (needed > buf.length) {
+            buf = new char[needed];
+        }
+        int pos = buf.length;
+
+        if (code != null) {
+            pos -= code.length();
+            code.getChars(0, code.length(), buf, pos);
+            buf[--pos] = ' ';
+        }
+
+        long value = Math.abs(minor);
+        if (fractionDigits > 0) {
+            for (int i = 0; i < fractionDigits; i++) {
+                buf[--pos] = (char) (s.zero + (int) (value % 10));
+                value /= 10;
+            }
+            buf[--pos] = s.decimal;
+        }
+
+        int written = 0;
+        do {
+            if (written > 0 && written % GROUP_SIZE == 0) {
+                buf[--pos] = s.grouping;
+            }
+            buf[--pos] = (char) (s.zero + (int) (value % 10));
+            value /= 10;
+            written++;
+        } while (value > 0);
+
+        if (sign != 0) {
+            buf[--pos] = sign;
+        }
+        return new String(buf, pos, buf.length - pos);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.mymoney.model;
+
+/**
+ * Income/expense totals of a wallet over a range of local days, aggregated
+ * in SQL from the daily rollup. Filled by Room projections.
+ */
+public class PeriodTotal {
+    public long income;
+    public long expense;
+    public int txCount;
+}
@@ -0,0 +1,19 @@
+package com.example.mymoney.model;
+
+/**
+ * One aggregated bucket (user, wallet, category, type, day or month) used by
+ * the rollup consistency checker. Filled by Room projections.
+ */
+public class RollupBucket {
+    public int userId;
+    public int walletId;
+    public int categoryId;
+    public String type;
+    public int bucket;
+    public long total;
+    public int txCount;
+
+    public String key() {
+        return userId + "/" + walletId + "/" + categoryId + "/" + type + "/" + bucket;
+    }
+}
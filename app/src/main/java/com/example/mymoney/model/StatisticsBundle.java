@@ -0,0 +1,70 @@
+package com.example.mymoney.model;
+
+import com.example.mymoney.CategoryTotal;
+import com.example.mymoney.MonthTotal;
+import com.example.mymoney.database.DateKeys;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Everything the Statistics screen shows for one scope, read in a single
+ * database transaction (RollupDao.loadStatisticsBundle()) so the charts,
+ * totals and comparison always come from the same snapshot.
+ */
+public class StatisticsBundle {
+    /** Expense per category in the selected day range, largest first */
+    public List<CategoryTotal> categoryTotals;
+    /** Expense per month of the selected year */
+    public List<MonthTotal> monthlyTotals;
+    /** Totals of the selected day range */
+    public PeriodTotal period;
+    /** Totals of the same number of days right before the range */
+    public PeriodTotal previousPeriod;
+    /** Expense of each day of the range, oldest first, 0 on days without any */
+    public float[] dailyExpenses;
+    /** Currency of the wallet the amounts are in */
+    public String currency = Money.DEFAULT_CURRENCY;
+
+    // Per-stage timings in nanoseconds
+    public long categoryNanos;
+    public long monthlyNanos;
+    public long periodNanos;
+    public long previousNanos;
+    public long dailyNanos;
+    /** The whole load, stages plus the wallet lookup */
+    public long loadNanos;
+
+    /**
+     * Expense change against the previous period in percent, or null when
+     * the previous period has no expense to compare with.
+     */
+    public Double expenseChangePercent() {
+        if (previousPeriod == null || previousPeriod.expense == 0) return null;
+        long current = period != null ? period.expense : 0;
+        return (current - previousPeriod.expense) * 100.0 / previousPeriod.expense;
+    }
+
+    /** "categories 1.2 ms, months 0.4 ms, ..." for logging */
+    public String timings() {
+        return String.format(Locale.ROOT,
+                "categories %.2f ms, months %.2f ms, period %.2f ms, previous %.2f ms, daily %.2f ms",
+                categoryNanos / 1e6, monthlyNanos / 1e6, periodNanos / 1e6, previousNanos / 1e6,
+                dailyNanos / 1e6);
+    }
+
+    /**
+     * One value per day of [startDay, endDay] from the days that have
+     * transactions, ready for LineChartView.
+     */
+    public static float[] dailyExpenseSeries(List<DailyTotal> days, int startDay, int endDay) {
+        float[] series = new float[Math.max(0, DateKeys.daysBetweenInclusive(startDay, endDay))];
+        for (DailyTotal day : days) {
+            int index = DateKeys.daysBetweenInclusive(startDay, day.day) - 1;
+            if (index >= 0 && index < series.length) {
+                series[index] = day.expense;
+            }
+        }
+        return series;
+    }
+}
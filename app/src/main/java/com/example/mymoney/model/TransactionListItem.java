@@ -0,0 +1,45 @@
+package com.example.mymoney.model;
+
+import androidx.room.Ignore;
+
+/**
+ * One transaction row as the list screens and the detail dialog show it:
+ * the transaction columns plus category name/icon and wallet name/currency,
+ * read with a single JOIN (see TransactionDao.LIST_ITEM_SELECT) instead of a
+ * lookup per row. Filled by Room projections.
+ */
+public class TransactionListItem {
+    public int id;
+    public int walletId;
+    public int categoryId;
+    public long amount;
+    public String type;
+    public long createdAt;
+    public String description;
+    /** null if the category was deleted */
+    public String categoryName;
+    public String categoryIcon;
+    public String walletName;
+    public String currency;
+
+    /** "14:05", filled by prepareLabels() */
+    @Ignore
+    public String timeLabel;
+    /** "-150,000 VND" / "+150,000 VND", filled by prepareLabels() */
+    @Ignore
+    public String amountLabel;
+
+    public boolean isIncome() {
+        return "income".equals(type);
+    }
+
+    /**
+     * Format the display strings on the loading thread, so binding a row
+     * only sets text. Expenses show a minus, everything else a plus.
+     */
+    public TransactionListItem prepareLabels() {
+        timeLabel = DateLabelFormatter.time(createdAt);
+        amountLabel = MoneyFormatter.formatSigned(amount, !"expense".equals(type), currency);
+        return this;
+    }
+}
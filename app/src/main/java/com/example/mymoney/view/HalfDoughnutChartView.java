@@ -5,14 +5,14 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.RectF;
 import android.util.AttributeSet;
-import android.view.View;
 
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 
 import com.example.mymoney.R;
+import com.example.mymoney.view.chart.ChartView;
 
-public class HalfDoughnutChartView extends View {
+public class HalfDoughnutChartView extends ChartView {
     
     private Paint expensePaint;
     private Paint incomePaint;
@@ -123,8 +123,4 @@ public class HalfDoughnutChartView extends View {
         this.incomeAmount = Math.abs(income);
         invalidate(); // Redraw the view
     }
-    
-    private float dpToPx(float dp) {
-        return dp * getContext().getResources().getDisplayMetrics().density;
-    }
 }
@@ -0,0 +1,170 @@
+package com.example.mymoney.view.chart;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.example.mymoney.R;
+
+/**
+ * One column per value: value label on top, bar scaled to the largest
+ * value, category label (e.g. month name) underneath.
+ *
+ * Everything is drawn on one Canvas with Paint/RectF objects created once;
+ * setData() copies the values and labels, so onDraw() allocates nothing and
+ * a reload costs a single invalidate() instead of inflating a layout per bar.
+ */
+public class BarChartView extends ChartView {
+
+    private static final float BAR_WIDTH_DP = 20f;
+    private static final float BAR_MAX_HEIGHT_DP = 96f;
+    private static final float BAR_MIN_HEIGHT_DP = 8f;
+    private static final float LABEL_TEXT_SP = 10f;
+    private static final float LABEL_GAP_DP = 4f;
+    private static final float EMPTY_TEXT_SP = 14f;
+
+    private Paint barPaint;
+    private Paint labelPaint;
+    private Paint emptyPaint;
+    private RectF barRect;
+
+    private float barWidth;
+    private float barMaxHeight;
+    private float barMinHeight;
+    private float labelGap;
+    private String noDataText = "";
+
+    // Prepared by setData(), read by onDraw()
+    private int count = 0;
+    private float[] ratios = new float[12];
+    private int[] colors = new int[12];
+    private String[] valueLabels = new String[12];
+    private String[] labels = new String[12];
+
+    public BarChartView(Context context) {
+        super(context);
+        init(context);
+    }
+
+    public BarChartView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(context);
+    }
+
+    public BarChartView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context);
+    }
+
+    private void init(Context context) {
+        barPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        barPaint.setStyle(Paint.Style.FILL);
+
+        labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+        labelPaint.setTextSize(spToPx(LABEL_TEXT_SP));
+        labelPaint.setColor(ContextCompat.getColor(context, R.color.text_secondary));
+
+        emptyPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        emptyPaint.setTextSize(spToPx(EMPTY_TEXT_SP));
+        emptyPaint.setColor(ContextCompat.getColor(context, R.color.text_secondary));
+
+        barRect = new RectF();
+
+        barWidth = dpToPx(BAR_WIDTH_DP);
+        barMaxHeight = dpToPx(BAR_MAX_HEIGHT_DP);
+        barMinHeight = dpToPx(BAR_MIN_HEIGHT_DP);
+        labelGap = dpToPx(LABEL_GAP_DP);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // Height doesn't depend on the data, so setData() never needs a layout pass
+        float labelHeight = labelPaint.getFontSpacing();
+        int desiredHeight = (int) Math.ceil(getPaddingTop() + labelHeight + labelGap + barMaxHeight
+                + labelGap + labelHeight + getPaddingBottom());
+        setMeasuredDimension(
+                getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+                resolveSize(desiredHeight, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        int left = getPaddingLeft();
+        int contentWidth = getWidth() - left - getPaddingRight();
+        if (contentWidth <= 0) {
+            return;
+        }
+
+        if (count == 0) {
+            canvas.drawText(noDataText, left, getPaddingTop() - emptyPaint.ascent(), emptyPaint);
+            return;
+        }
+
+        float labelHeight = labelPaint.getFontSpacing();
+        // Bars grow up from this line; labels sit below it
+        float baseline = getPaddingTop() + labelHeight + labelGap + barMaxHeight;
+        float columnWidth = (float) contentWidth / count;
+
+        for (int i = 0; i < count; i++) {
+            float centerX = left + columnWidth * i + columnWidth / 2f;
+            float height = Math.max(ratios[i] * barMaxHeight, barMinHeight);
+
+            barRect.set(centerX - barWidth / 2f, baseline - height, centerX + barWidth / 2f, baseline);
+            barPaint.setColor(colors[i]);
+            canvas.drawRect(barRect, barPaint);
+
+            if (valueLabels[i] != null) {
+                canvas.drawText(valueLabels[i], centerX, barRect.top - labelGap - labelPaint.descent(), labelPaint);
+            }
+            if (labels[i] != null) {
+                canvas.drawText(labels[i], centerX, baseline + labelGap - labelPaint.ascent(), labelPaint);
+            }
+        }
+    }
+
+    /**
+     * Set the bars to draw, left to right.
+     * @param values bar heights, scaled to the largest one
+     * @param valueLabels text above each bar, or null
+     * @param labels text under each bar, or null
+     * @param palette colours in bar order, reused cyclically
+     */
+    public void setData(float[] values, @Nullable String[] valueLabels, @Nullable String[] labels, int[] palette) {
+        int size = values.length;
+        if (size > ratios.length) {
+            ratios = new float[size];
+            colors = new int[size];
+            this.valueLabels = new String[size];
+            this.labels = new String[size];
+        }
+
+        // Tìm giá trị lớn nhất để chuẩn hóa chiều cao
+        float max = 0f;
+        for (float value : values) {
+            max = Math.max(max, value);
+        }
+
+        for (int i = 0; i < size; i++) {
+            ratios[i] = max > 0f ? Math.max(values[i], 0f) / max : 0f;
+            colors[i] = palette[i % palette.length];
+            this.valueLabels[i] = valueLabels != null ? valueLabels[i] : null;
+            this.labels[i] = labels != null ? labels[i] : null;
+        }
+        count = size;
+        invalidate(); // Redraw the view
+    }
+
+    /** Text shown when there are no bars */
+    public void setNoDataText(String text) {
+        this.noDataText = text != null ? text : "";
+        if (count == 0) invalidate();
+    }
+}
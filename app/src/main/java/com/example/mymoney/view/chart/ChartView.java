@@ -0,0 +1,71 @@
+package com.example.mymoney.view.chart;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.animation.DecelerateInterpolator;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Base of the in-house charts (PieChartView, BarChartView, LineChartView,
+ * LegendView and HalfDoughnutChartView).
+ *
+ * Charts take primitive arrays, prepare everything that allocates (labels,
+ * angles, paths) when the data is set, and keep onDraw() allocation-free.
+ * The entry animation runs on the view's properties with a hardware layer,
+ * so the chart is drawn once into the layer and each frame is only
+ * composited by the GPU, instead of re-running onDraw() 60 times a second.
+ */
+public abstract class ChartView extends View {
+
+    private static final float ENTER_SCALE = 0.85f;
+
+    public ChartView(Context context) {
+        super(context);
+    }
+
+    public ChartView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public ChartView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    /**
+     * Fade and scale the chart in. The layer is dropped again when the
+     * animation ends (ViewPropertyAnimator.withLayer()).
+     */
+    public void animateIn(long durationMs) {
+        animate().cancel();
+        setAlpha(0f);
+        setScaleX(ENTER_SCALE);
+        setScaleY(ENTER_SCALE);
+        animate()
+                .alpha(1f)
+                .scaleX(1f)
+                .scaleY(1f)
+                .setDuration(durationMs)
+                .setInterpolator(new DecelerateInterpolator())
+                .withLayer()
+                .start();
+    }
+
+    protected float dpToPx(float dp) {
+        return dp * getContext().getResources().getDisplayMetrics().density;
+    }
+
+    protected float spToPx(float sp) {
+        return sp * getContext().getResources().getDisplayMetrics().scaledDensity;
+    }
+
+    /** Grow a float array to at least size; contents are not kept */
+    static float[] ensureCapacity(float[] array, int size) {
+        return array.length >= size ? array : new float[size];
+    }
+
+    static int[] ensureCapacity(int[] array, int size) {
+        return array.length >= size ? array : new int[size];
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.mymoney.view.chart;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Chart legend: one row per entry with a colour dot and its name.
+ *
+ * Drawn on one Canvas instead of a LinearLayout/View/TextView per row. Names
+ * are ellipsized to the row width in setEntries()/onSizeChanged(), so
+ * onDraw() allocates nothing.
+ */
+public class LegendView extends ChartView {
+
+    private static final float DOT_SIZE_DP = 12f;
+    private static final float DOT_GAP_DP = 12f;
+    private static final float ROW_PADDING_DP = 8f;
+    private static final float TEXT_SIZE_SP = 14f;
+
+    private Paint dotPaint;
+    private TextPaint textPaint;
+
+    private float dotSize;
+    private float dotGap;
+    private float rowPadding;
+
+    // Prepared by setEntries(), read by onDraw()
+    private int count = 0;
+    private String[] names = new String[8];
+    private CharSequence[] labels = new CharSequence[8];
+    private int[] colors = new int[8];
+
+    public LegendView(Context context) {
+        super(context);
+        init(context);
+    }
+
+    public LegendView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(context);
+    }
+
+    public LegendView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context);
+    }
+
+    private void init(Context context) {
+        dotPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        dotPaint.setStyle(Paint.Style.FILL);
+
+        // Tên (đổi màu theo Light / Dark mode)
+        textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setTextSize(spToPx(TEXT_SIZE_SP));
+        boolean night = (context.getResources().getConfiguration().uiMode
+                & Configuration.UI_MODE_NIGHT_MASK) == Configuration.UI_MODE_NIGHT_YES;
+        textPaint.setColor(night ? Color.WHITE : Color.parseColor("#333333"));
+
+        dotSize = dpToPx(DOT_SIZE_DP);
+        dotGap = dpToPx(DOT_GAP_DP);
+        rowPadding = dpToPx(ROW_PADDING_DP);
+    }
+
+    private float rowHeight() {
+        return Math.max(dotSize, textPaint.getFontSpacing()) + rowPadding * 2;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int desiredHeight = (int) Math.ceil(getPaddingTop() + count * rowHeight() + getPaddingBottom());
+        setMeasuredDimension(
+                getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+                resolveSize(desiredHeight, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (w != oldw) {
+            ellipsize();
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        float rowHeight = rowHeight();
+        float left = getPaddingLeft() + rowPadding;
+        float textX = left + dotSize + dotGap;
+        // Vertically centre the text on the dot
+        float textOffset = -(textPaint.ascent() + textPaint.descent()) / 2f;
+
+        for (int i = 0; i < count; i++) {
+            float centerY = getPaddingTop() + rowHeight * i + rowHeight / 2f;
+
+            dotPaint.setColor(colors[i]);
+            canvas.drawCircle(left + dotSize / 2f, centerY, dotSize / 2f, dotPaint);
+
+            CharSequence label = labels[i];
+            canvas.drawText(label, 0, label.length(), textX, centerY + textOffset, textPaint);
+        }
+    }
+
+    /**
+     * Set the legend rows.
+     * @param entryNames names in chart order
+     * @param palette colours in chart order, reused cyclically
+     */
+    public void setEntries(String[] entryNames, int[] palette) {
+        int size = entryNames.length;
+        if (size > names.length) {
+            names = new String[size];
+            labels = new CharSequence[size];
+            colors = new int[size];
+        }
+        for (int i = 0; i < size; i++) {
+            names[i] = entryNames[i] != null ? entryNames[i] : "";
+            colors[i] = palette[i % palette.length];
+        }
+
+        boolean rowsChanged = size != count;
+        count = size;
+        ellipsize();
+        if (rowsChanged) {
+            requestLayout(); // Height follows the number of rows
+        }
+        invalidate(); // Redraw the view
+    }
+
+    private void ellipsize() {
+        float available = getWidth() - getPaddingLeft() - getPaddingRight() - rowPadding * 2 - dotSize - dotGap;
+        for (int i = 0; i < count; i++) {
+            labels[i] = available > 0
+                    ? TextUtils.ellipsize(names[i], textPaint, available, TextUtils.TruncateAt.END)
+                    : names[i];
+        }
+    }
+}
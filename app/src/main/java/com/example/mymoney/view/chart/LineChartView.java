@@ -0,0 +1,141 @@
+package com.example.mymoney.view.chart;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.example.mymoney.R;
+
+/**
+ * Sparkline: the values as one line from left to right, scaled between
+ * zero and the largest value, with a dot on the last point.
+ *
+ * The Path is rebuilt (rewound, not reallocated) when the data or the size
+ * changes; onDraw() only strokes it.
+ */
+public class LineChartView extends ChartView {
+
+    private static final float LINE_WIDTH_DP = 2f;
+    private static final float DOT_RADIUS_DP = 3f;
+
+    private Paint linePaint;
+    private Paint dotPaint;
+    private Path linePath;
+
+    private float dotRadius;
+
+    // Copied by setData(), turned into linePath by rebuildPath()
+    private int count = 0;
+    private float[] values = new float[32];
+    private float lastX;
+    private float lastY;
+
+    public LineChartView(Context context) {
+        super(context);
+        init(context);
+    }
+
+    public LineChartView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(context);
+    }
+
+    public LineChartView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context);
+    }
+
+    private void init(Context context) {
+        int color = ContextCompat.getColor(context, R.color.red_expense);
+
+        linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeWidth(dpToPx(LINE_WIDTH_DP));
+        linePaint.setStrokeJoin(Paint.Join.ROUND);
+        linePaint.setStrokeCap(Paint.Cap.ROUND);
+        linePaint.setColor(color);
+
+        dotPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        dotPaint.setStyle(Paint.Style.FILL);
+        dotPaint.setColor(color);
+
+        linePath = new Path();
+        dotRadius = dpToPx(DOT_RADIUS_DP);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        rebuildPath();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (count == 0) {
+            return;
+        }
+        canvas.drawPath(linePath, linePaint);
+        canvas.drawCircle(lastX, lastY, dotRadius, dotPaint);
+    }
+
+    /**
+     * Set the points, evenly spaced from left to right.
+     * @param data values, negative ones are drawn as zero
+     */
+    public void setData(float[] data) {
+        values = ensureCapacity(values, data.length);
+        System.arraycopy(data, 0, values, 0, data.length);
+        count = data.length;
+        rebuildPath();
+        invalidate(); // Redraw the view
+    }
+
+    public void setLineColor(int color) {
+        linePaint.setColor(color);
+        dotPaint.setColor(color);
+        invalidate();
+    }
+
+    private void rebuildPath() {
+        linePath.rewind();
+        if (count == 0) {
+            return;
+        }
+
+        // Keep the stroke and the end dot inside the view
+        float inset = Math.max(dotRadius, linePaint.getStrokeWidth() / 2f);
+        float left = getPaddingLeft() + inset;
+        float top = getPaddingTop() + inset;
+        float width = getWidth() - getPaddingRight() - inset - left;
+        float height = getHeight() - getPaddingBottom() - inset - top;
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        float max = 0f;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, values[i]);
+        }
+
+        float step = count > 1 ? width / (count - 1) : 0f;
+        for (int i = 0; i < count; i++) {
+            float ratio = max > 0f ? Math.max(values[i], 0f) / max : 0f;
+            float x = count > 1 ? left + step * i : left + width / 2f;
+            float y = top + height * (1f - ratio);
+            if (i == 0) {
+                linePath.moveTo(x, y);
+            } else {
+                linePath.lineTo(x, y);
+            }
+            lastX = x;
+            lastY = y;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.mymoney.view.chart;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.example.mymoney.R;
+
+/**
+ * Non-interactive pie, or donut when a hole ratio is set. Slice angles are
+ * computed in setData(); onDraw() only draws arcs with a preallocated
+ * Paint and RectF.
+ */
+public class PieChartView extends ChartView {
+
+    private static final float START_ANGLE = -90f; // Start from the top
+    private static final float EMPTY_TEXT_SP = 14f;
+
+    private Paint slicePaint;
+    private Paint emptyPaint;
+    private RectF arcRect;
+
+    private float holeRatio = 0f; // 0 = full pie, 0.6 = donut with a hole of 60% of the radius
+    private String noDataText = "";
+
+    // Prepared by setData(), read by onDraw()
+    private int count = 0;
+    private float[] sweeps = new float[8];
+    private int[] colors = new int[8];
+
+    public PieChartView(Context context) {
+        super(context);
+        init(context);
+    }
+
+    public PieChartView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(context);
+    }
+
+    public PieChartView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context);
+    }
+
+    private void init(Context context) {
+        slicePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+        emptyPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        emptyPaint.setTextAlign(Paint.Align.CENTER);
+        emptyPaint.setTextSize(spToPx(EMPTY_TEXT_SP));
+        emptyPaint.setColor(ContextCompat.getColor(context, R.color.text_secondary));
+
+        arcRect = new RectF();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateGeometry();
+    }
+
+    /** Largest centred square inside the padding, inset by half the ring for a donut */
+    private void updateGeometry() {
+        float contentWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        float contentHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+        float radius = Math.max(0f, Math.min(contentWidth, contentHeight) / 2f);
+        float cx = getPaddingLeft() + contentWidth / 2f;
+        float cy = getPaddingTop() + contentHeight / 2f;
+
+        if (holeRatio > 0f) {
+            // Donut: a stroke centred between the hole and the outer edge
+            float ring = radius * (1f - holeRatio);
+            slicePaint.setStyle(Paint.Style.STROKE);
+            slicePaint.setStrokeWidth(ring);
+            radius -= ring / 2f;
+        } else {
+            slicePaint.setStyle(Paint.Style.FILL);
+        }
+        arcRect.set(cx - radius, cy - radius, cx + radius, cy + radius);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (count == 0) {
+            float y = getHeight() / 2f - (emptyPaint.ascent() + emptyPaint.descent()) / 2f;
+            canvas.drawText(noDataText, getWidth() / 2f, y, emptyPaint);
+            return;
+        }
+        if (arcRect.isEmpty()) {
+            return;
+        }
+
+        boolean useCenter = holeRatio <= 0f;
+        float angle = START_ANGLE;
+        for (int i = 0; i < count; i++) {
+            slicePaint.setColor(colors[i]);
+            canvas.drawArc(arcRect, angle, sweeps[i], useCenter, slicePaint);
+            angle += sweeps[i];
+        }
+    }
+
+    /**
+     * Set the slices to draw, clockwise from the top.
+     * @param values slice sizes; values <= 0 are skipped
+     * @param palette colours in slice order, reused cyclically
+     */
+    public void setData(float[] values, int[] palette) {
+        double total = 0;
+        for (float value : values) {
+            if (value > 0) total += value;
+        }
+
+        count = 0;
+        if (total > 0) {
+            sweeps = ensureCapacity(sweeps, values.length);
+            colors = ensureCapacity(colors, values.length);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] <= 0) continue;
+                sweeps[count] = (float) (360.0 * values[i] / total);
+                colors[count] = palette[i % palette.length];
+                count++;
+            }
+        }
+        invalidate(); // Redraw the view
+    }
+
+    /** 0 for a full pie, up to 1 (exclusive) for a donut with that hole/radius ratio */
+    public void setHoleRatio(float holeRatio) {
+        this.holeRatio = Math.max(0f, Math.min(holeRatio, 0.95f));
+        updateGeometry();
+        invalidate();
+    }
+
+    /** Text shown in the middle when there is nothing to draw */
+    public void setNoDataText(String text) {
+        this.noDataText = text != null ? text : "";
+        if (count == 0) invalidate();
+    }
+}
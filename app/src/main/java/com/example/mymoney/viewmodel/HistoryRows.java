@@ -0,0 +1,192 @@
+package com.example.mymoney.viewmodel;
+
+import androidx.annotation.Nullable;
+
+import com.example.mymoney.database.TransactionPager;
+import com.example.mymoney.model.TransactionListItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The rows the History list has paged in, newest first, and which of them
+ * were read after the last ledger change.
+ *
+ * Bookkeeping only, no threads or queries: HistoryViewModel runs the reads
+ * on its loader thread and hands the results in here on the main thread.
+ * Not thread-safe.
+ */
+final class HistoryRows {
+
+    /** Bounds of one re-read of the visible rows, see TransactionPager.loadRange */
+    static final class Refresh {
+        final int first;
+        final int last;
+        final long beforeCreatedAt;
+        final int beforeId;
+        final long downToCreatedAt;
+        final int downToId;
+        final int version;
+
+        Refresh(int first, int last, long beforeCreatedAt, int beforeId,
+                long downToCreatedAt, int downToId, int version) {
+            this.first = first;
+            this.last = last;
+            this.beforeCreatedAt = beforeCreatedAt;
+            this.beforeId = beforeId;
+            this.downToCreatedAt = downToCreatedAt;
+            this.downToId = downToId;
+            this.version = version;
+        }
+    }
+
+    private final List<TransactionListItem> loaded = new ArrayList<>();
+
+    // Rows on screen, reported by the fragment
+    private int firstVisible = 0;
+    private int lastVisible = -1;
+    // Rows [freshFrom, freshTo] of `loaded` were read after the last ledger change
+    private int freshFrom = 0;
+    private int freshTo = Integer.MAX_VALUE;
+    // Bumped whenever rows already in `loaded` move, so a late window refresh is redone
+    private int layoutVersion;
+    private boolean refreshing;
+
+    /** Read-only view of the loaded rows, not a copy */
+    List<TransactionListItem> view() {
+        return Collections.unmodifiableList(loaded);
+    }
+
+    boolean isEmpty() {
+        return loaded.isEmpty();
+    }
+
+    int freshFrom() {
+        return freshFrom;
+    }
+
+    int freshTo() {
+        return freshTo;
+    }
+
+    /**
+     * A new scope is being loaded: what comes next is fresh, and a refresh
+     * still in flight is for the old rows. The old rows stay until the
+     * first page replaces them.
+     */
+    void reset() {
+        layoutVersion++;
+        refreshing = false;
+        freshFrom = 0;
+        freshTo = Integer.MAX_VALUE;
+    }
+
+    /** Append a page below the loaded rows; the first page of a scope replaces them */
+    void addPage(List<TransactionListItem> page, boolean firstPage) {
+        if (firstPage) {
+            loaded.clear();
+        }
+        loaded.addAll(page);
+    }
+
+    /**
+     * The list shows rows first..last.
+     *
+     * @return true if some of them were loaded before the last ledger change
+     */
+    boolean setVisibleRange(int first, int last) {
+        firstVisible = first;
+        lastVisible = last;
+        return first < freshFrom || last > freshTo;
+    }
+
+    /** A ledger write was committed: every loaded row may be out of date */
+    void markAllStale() {
+        freshFrom = 0;
+        freshTo = -1;
+        // A window already being read may predate this write
+        layoutVersion++;
+    }
+
+    /**
+     * Bounds to re-read the visible rows with: from the row above the
+     * window (excluded) to the last visible one (included), so rows
+     * inserted, deleted or edited in that key range show up.
+     *
+     * @param endReached the pager has no rows below the loaded ones
+     * @return null if a refresh is already running or nothing is loaded
+     */
+    @Nullable
+    Refresh startRefresh(boolean endReached) {
+        if (refreshing || loaded.isEmpty()) return null;
+        int first = Math.max(0, Math.min(firstVisible, loaded.size() - 1));
+        // Not laid out yet: treat the first page as the window
+        int last = lastVisible < first
+                ? Math.min(loaded.size(), TransactionPager.DEFAULT_PAGE_SIZE) - 1
+                : Math.min(lastVisible, loaded.size() - 1);
+
+        TransactionListItem above = first > 0 ? loaded.get(first - 1) : null;
+        long beforeCreatedAt = above != null ? above.createdAt : Long.MAX_VALUE;
+        int beforeId = above != null ? above.id : Integer.MAX_VALUE;
+        // At the end of the list rows may also have been added below the last one
+        boolean toEnd = last == loaded.size() - 1 && endReached;
+        TransactionListItem bottom = loaded.get(last);
+        long downToCreatedAt = toEnd ? Long.MIN_VALUE : bottom.createdAt;
+        int downToId = toEnd ? Integer.MIN_VALUE : bottom.id;
+
+        refreshing = true;
+        return new Refresh(first, last, beforeCreatedAt, beforeId, downToCreatedAt, downToId, layoutVersion);
+    }
+
+    /**
+     * Swap the refreshed rows for what was read.
+     *
+     * @return false if rows moved while it was read; the bounds are stale
+     * then, and the caller starts another refresh
+     */
+    boolean finishRefresh(Refresh refresh, List<TransactionListItem> window) {
+        refreshing = false;
+        if (refresh.version != layoutVersion) return false;
+        replaceRows(refresh.first, refresh.last, window);
+        return true;
+    }
+
+    void refreshFailed() {
+        refreshing = false;
+    }
+
+    /** Swap rows first..last for window, in place, and mark them fresh */
+    private void replaceRows(int first, int last, List<TransactionListItem> window) {
+        // A row whose date was edited may still sit, stale, outside the window
+        Set<Integer> ids = new HashSet<>();
+        for (TransactionListItem item : window) {
+            ids.add(item.id);
+        }
+        int removedAbove = 0;
+        boolean removedOther = false;
+        for (int i = loaded.size() - 1; i >= 0; i--) {
+            if ((i < first || i > last) && ids.contains(loaded.get(i).id)) {
+                loaded.remove(i);
+                if (i < first) removedAbove++;
+                removedOther = true;
+            }
+        }
+        int start = first - removedAbove;
+        int end = last - removedAbove;
+
+        // Fresh rows stay one interval: extend it if the window touches it
+        boolean extend = !removedOther && freshFrom <= freshTo && first <= freshTo + 1 && last >= freshFrom - 1;
+        int delta = window.size() - (end - start + 1);
+        int from = extend ? Math.min(freshFrom, start) : start;
+        int to = extend ? Math.max(freshTo, end) + delta : start + window.size() - 1;
+
+        loaded.subList(start, end + 1).clear();
+        loaded.addAll(start, window);
+        freshFrom = from;
+        freshTo = to;
+        layoutVersion++;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.mymoney.viewmodel;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.mymoney.MainActivity;
+import com.example.mymoney.database.AppDatabase;
+import com.example.mymoney.database.TableChangeLiveData;
+import com.example.mymoney.database.TransactionPager;
+import com.example.mymoney.database.TransactionSearch;
+import com.example.mymoney.model.TransactionListItem;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * History screen state, scoped to MainActivity: the pager, the pages loaded
+ * so far and the search / type filter survive the fragment being replaced
+ * by the bottom navigation and configuration changes.
+ *
+ * The list is only reloaded when its scope changes (user, wallet, filter,
+ * search). After a write to the ledger only the rows on screen are read
+ * again, in place; the other loaded rows are re-read when they scroll into
+ * view, so the list keeps its position however deep it was scrolled.
+ * Pages are appended to the loaded rows in place, and every query runs on
+ * the ViewModel's one loader thread; which loaded rows are fresh is
+ * tracked by HistoryRows.
+ */
+public class HistoryViewModel extends AndroidViewModel {
+
+    private static final String TAG = "HistoryViewModel";
+
+    private final TransactionPager pager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // One thread for pages and refreshes, so they apply in the order they were asked for
+    private final ExecutorService loader = Executors.newSingleThreadExecutor();
+
+    // Transactions paged in so far and which of them are fresh. Main thread only
+    private final HistoryRows rows = new HistoryRows();
+    private final MutableLiveData<List<TransactionListItem>> transactions = new MutableLiveData<>();
+
+    // Fires when a transaction, category or wallet write is committed
+    private final TableChangeLiveData ledgerChanges;
+
+    private String typeFilter = null; // null = both income and expense
+    private String searchQuery = ""; // text typed in the search box
+    private String searchMatch = null; // FTS MATCH expression, null = no search
+
+    // Scope of the rows in `loaded`
+    private int loadedUserId = -1;
+    private int loadedWalletId = -1;
+    private boolean hasLoaded;
+
+    public HistoryViewModel(@NonNull Application application) {
+        super(application);
+        AppDatabase db = AppDatabase.getInstance(application);
+        pager = new TransactionPager(db.transactionDao());
+        ledgerChanges = new TableChangeLiveData(db, "transaction", "category", "wallet");
+    }
+
+    /** Pages loaded so far, newest first; a read-only view, not a copy */
+    public LiveData<List<TransactionListItem>> getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Ledger writes, for the fragment to observe with its view lifecycle and
+     * pass to onLedgerChanged(). Changes committed while History is hidden
+     * are delivered once when it is shown again.
+     */
+    public LiveData<Set<String>> getLedgerChanges() {
+        return ledgerChanges;
+    }
+
+    public String getSearchQuery() {
+        return searchQuery;
+    }
+
+    public void setSearchQuery(String query) {
+        if (Objects.equals(searchQuery, query)) return;
+        searchQuery = query;
+        // Search runs as a ranked full-text query over description, category and amount
+        searchMatch = TransactionSearch.toMatchQuery(query);
+        reload();
+    }
+
+    public void setTypeFilter(@Nullable String type) {
+        // Type filtering is done by the paged query, not in memory
+        typeFilter = type;
+        reload();
+    }
+
+    /**
+     * Reload only on the first call or when the user/wallet differs from the
+     * one the rows were loaded for; called whenever the fragment sees the
+     * selected wallet, including when it comes back to the screen.
+     */
+    public void reloadIfScopeChanged() {
+        if (hasLoaded
+                && loadedUserId == MainActivity.getCurrentUserId()
+                && loadedWalletId == MainActivity.getSelectedWalletId()) {
+            return;
+        }
+        reload();
+    }
+
+    /** Start over from the newest transaction with the current scope */
+    public void reload() {
+        loadedUserId = MainActivity.getCurrentUserId();
+        loadedWalletId = MainActivity.getSelectedWalletId();
+        hasLoaded = true;
+        android.util.Log.d(TAG, "reload() - Current user: " + loadedUserId + ", Selected wallet: " + loadedWalletId);
+
+        // If no wallet selected (-1), the pager pages over all transactions of the user
+        pager.reset(loadedUserId, loadedWalletId, typeFilter, searchMatch);
+        rows.reset();
+        loadNextPage(true);
+    }
+
+    /** Load the next page, e.g. when the list is scrolled close to its end */
+    public void loadMore() {
+        loadNextPage(false);
+    }
+
+    /**
+     * The list shows rows first..last. Rows that became visible but were
+     * loaded before the last ledger change are read again.
+     */
+    public void setVisibleRange(int first, int last) {
+        if (rows.setVisibleRange(first, last)) {
+            refreshVisibleRows();
+        }
+    }
+
+    /** A ledger write was committed: re-read what is on screen, the rest when it scrolls into view */
+    public void onLedgerChanged() {
+        // Ranked search pages have no stable key to re-read a window by
+        if (searchMatch != null || rows.isEmpty()) {
+            reload();
+            return;
+        }
+        rows.markAllStale();
+        refreshVisibleRows();
+    }
+
+    private void loadNextPage(boolean firstPage) {
+        if (!pager.canLoadMore()) return;
+        final int generation = pager.getGeneration();
+
+        loader.execute(() -> {
+            try {
+                // Rows come with category and wallet names joined in, one query per page
+                List<TransactionListItem> page = pager.loadNextPage();
+
+                mainHandler.post(() -> {
+                    // Wallet or filter changed while this page was loading
+                    if (generation != pager.getGeneration()) return;
+
+                    rows.addPage(page, firstPage);
+                    publish();
+                    android.util.Log.d(TAG, "Loaded page of " + page.size() + " transactions, " + rows.view().size() + " in memory");
+                });
+            } catch (Exception e) {
+                android.util.Log.e(TAG, "Error loading transactions", e);
+            }
+        });
+    }
+
+    /** Re-read the visible rows that may be out of date and swap them in, see HistoryRows */
+    private void refreshVisibleRows() {
+        HistoryRows.Refresh refresh = rows.startRefresh(pager.isEndReached());
+        if (refresh == null) return;
+
+        final int generation = pager.getGeneration();
+        loader.execute(() -> {
+            try {
+                List<TransactionListItem> window = pager.loadRange(refresh.beforeCreatedAt, refresh.beforeId,
+                        refresh.downToCreatedAt, refresh.downToId);
+                mainHandler.post(() -> {
+                    if (generation != pager.getGeneration()) return;
+                    if (!rows.finishRefresh(refresh, window)) {
+                        // Rows moved while this was loading, the bounds are stale
+                        refreshVisibleRows();
+                        return;
+                    }
+                    publish();
+                    android.util.Log.d(TAG, "Refreshed rows " + refresh.first + ".." + refresh.last
+                            + " -> " + window.size() + " rows");
+                });
+            } catch (Exception e) {
+                mainHandler.post(rows::refreshFailed);
+                android.util.Log.e(TAG, "Error refreshing visible transactions", e);
+            }
+        });
+    }
+
+    private void publish() {
+        transactions.setValue(rows.view());
+    }
+
+    @Override
+    protected void onCleared() {
+        ledgerChanges.dispose();
+        loader.shutdownNow();
+    }
+}
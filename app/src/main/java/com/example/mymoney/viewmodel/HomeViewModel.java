@@ -0,0 +1,122 @@
+package com.example.mymoney.viewmodel;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+
+import com.example.mymoney.MainActivity;
+import com.example.mymoney.database.AppDatabase;
+import com.example.mymoney.database.DateKeys;
+import com.example.mymoney.model.DailyTotal;
+import com.example.mymoney.model.DailyTransactionGroup;
+import com.example.mymoney.model.DashboardSummary;
+import com.example.mymoney.model.DateLabelFormatter;
+import com.example.mymoney.model.TransactionListItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Home screen data, scoped to MainActivity so it outlives the fragment
+ * being replaced by the bottom navigation and configuration changes.
+ *
+ * Room's observable query only re-runs after a write to a table it reads,
+ * so coming back to Home shows the last result straight from memory.
+ */
+public class HomeViewModel extends AndroidViewModel {
+
+    // Số ngày có giao dịch gần nhất hiển thị trên Home
+    private static final int RECENT_DAYS = 5;
+
+    // Tables the Home screen reads; a commit to any of them re-runs the load
+    private static final String[] OBSERVED_TABLES = {
+            "wallet", "transaction", "transaction_daily_rollup", "transaction_monthly_rollup", "category"
+    };
+
+    /** Everything Home shows for one wallet, loaded together off the main thread */
+    public static final class HomeData {
+        @Nullable
+        public final DashboardSummary summary;
+        public final List<DailyTransactionGroup> groups;
+
+        HomeData(@Nullable DashboardSummary summary, List<DailyTransactionGroup> groups) {
+            this.summary = summary;
+            this.groups = groups;
+        }
+    }
+
+    private final LiveData<HomeData> homeData;
+
+    public HomeViewModel(@NonNull Application application) {
+        super(application);
+        AppDatabase db = AppDatabase.getInstance(application);
+        homeData = Transformations.switchMap(MainActivity.getSelectedWalletLiveData(), walletId -> {
+            android.util.Log.d("HomeViewModel", "Observing wallet " + walletId + " for user " + MainActivity.getCurrentUserId());
+            if (walletId == -1) {
+                return new MutableLiveData<>(new HomeData(null, Collections.emptyList()));
+            }
+            // The month totals follow the calendar too, not only writes
+            return Transformations.switchMap(MainActivity.getCurrentMonthLiveData(), monthKey ->
+                    db.getInvalidationTracker().createLiveData(OBSERVED_TABLES, false, () -> {
+                        // Balance + income/expense totals FOR THIS WALLET in one query
+                        DashboardSummary summary = db.dashboardDao().getSummary(walletId, monthKey);
+                        // Recent transactions FOR THIS WALLET, grouped by day in SQL
+                        List<DailyTransactionGroup> groups = loadRecentDays(db, walletId,
+                                summary != null ? summary.currency : null);
+                        android.util.Log.d("HomeViewModel", "Loaded wallet ID: " + walletId + ", daily groups: " + groups.size());
+                        return new HomeData(summary, groups);
+                    }));
+        });
+    }
+
+    /** Summary and recent days of the selected wallet, re-emitted after every relevant write */
+    public LiveData<HomeData> getHomeData() {
+        return homeData;
+    }
+
+    /**
+     * Build the Home groups for the wallet's last RECENT_DAYS active days.
+     * Day list and per-day totals come from the daily rollup; only the
+     * transactions of those days are loaded.
+     */
+    private static List<DailyTransactionGroup> loadRecentDays(AppDatabase db, int walletId, String currency) {
+        List<DailyTotal> days = db.rollupDao().getRecentActiveDays(walletId, RECENT_DAYS);
+        List<DailyTransactionGroup> dailyGroups = new ArrayList<>();
+        if (days.isEmpty()) {
+            return dailyGroups;
+        }
+
+        long since = DateKeys.startOfDay(days.get(days.size() - 1).day);
+        // Category and wallet names come joined into each row
+        List<TransactionListItem> transactions = db.transactionDao().getListItemsByWalletSince(walletId, since);
+
+        // Both lists are newest first: walk them together instead of deriving each row's day
+        int index = 0;
+        for (DailyTotal day : days) {
+            long dayStart = DateKeys.startOfDay(day.day);
+            List<TransactionListItem> dayTransactions = new ArrayList<>(day.txCount);
+            while (index < transactions.size() && transactions.get(index).createdAt >= dayStart) {
+                // Row labels are formatted here, off the main thread
+                dayTransactions.add(transactions.get(index++).prepareLabels());
+            }
+            if (dayTransactions.isEmpty()) continue;
+
+            dailyGroups.add(new DailyTransactionGroup(
+                    DateLabelFormatter.dayShort(dayStart),
+                    DateLabelFormatter.dayFull(dayStart),
+                    dayTransactions.get(0).createdAt,
+                    dayTransactions,
+                    day.income,
+                    day.expense,
+                    currency
+            ));
+        }
+        return dailyGroups;
+    }
+}
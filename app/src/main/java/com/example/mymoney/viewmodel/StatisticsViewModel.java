@@ -0,0 +1,161 @@
+package com.example.mymoney.viewmodel;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.Transformations;
+
+import com.example.mymoney.BuildConfig;
+import com.example.mymoney.MainActivity;
+import com.example.mymoney.database.AppDatabase;
+import com.example.mymoney.database.DateKeys;
+import com.example.mymoney.database.LookupCache;
+import com.example.mymoney.database.StatisticsCache;
+import com.example.mymoney.model.StatisticsBundle;
+
+import java.util.Calendar;
+
+/**
+ * Statistics screen state, scoped to MainActivity: the chosen date range
+ * and year, and the last computed category / monthly totals survive the
+ * fragment being replaced by the bottom navigation and configuration
+ * changes.
+ *
+ * Totals are recomputed only when the scope (user, wallet, range, year)
+ * changes or Room commits a write to the rollup tables, and even then only
+ * the parts missing from StatisticsCache are read from the database.
+ */
+public class StatisticsViewModel extends AndroidViewModel {
+
+    // Tables the statistics read; a commit to any of them re-runs the load
+    private static final String[] OBSERVED_TABLES = {
+            "transaction_daily_rollup", "transaction_monthly_rollup", "category", "wallet"
+    };
+
+    /** What the totals are computed for; equal scopes reuse the last result */
+    private static final class Scope {
+        final int userId;
+        final int walletId;
+        final int startDay;
+        final int endDay;
+        final int year;
+
+        Scope(int userId, int walletId, int startDay, int endDay, int year) {
+            this.userId = userId;
+            this.walletId = walletId;
+            this.startDay = startDay;
+            this.endDay = endDay;
+            this.year = year;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Scope)) return false;
+            Scope s = (Scope) o;
+            return userId == s.userId && walletId == s.walletId
+                    && startDay == s.startDay && endDay == s.endDay && year == s.year;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = userId;
+            h = 31 * h + walletId;
+            h = 31 * h + startDay;
+            h = 31 * h + endDay;
+            h = 31 * h + year;
+            return h;
+        }
+    }
+
+    // 🔹 Các biến lưu ngày tháng
+    private long startDate, endDate;
+    private int selectedYear = Calendar.getInstance().get(Calendar.YEAR);
+
+    private final MediatorLiveData<Scope> scope = new MediatorLiveData<>();
+    private final LiveData<StatisticsBundle> statistics;
+
+    public StatisticsViewModel(@NonNull Application application) {
+        super(application);
+
+        // 🔹 Đặt mặc định khoảng ngày: từ đầu tháng đến cuối tháng hiện tại
+        Calendar cal = Calendar.getInstance();
+        cal.set(Calendar.DAY_OF_MONTH, 1);
+        startDate = cal.getTimeInMillis();
+        cal.set(Calendar.DAY_OF_MONTH, cal.getActualMaximum(Calendar.DAY_OF_MONTH));
+        endDate = cal.getTimeInMillis();
+
+        // Đổi ví / đăng nhập / đăng xuất -> scope mới
+        scope.addSource(MainActivity.getSelectedWalletLiveData(), walletId -> updateScope());
+
+        AppDatabase db = AppDatabase.getInstance(application);
+        LookupCache lookups = LookupCache.getInstance(application);
+        statistics = Transformations.switchMap(scope, s ->
+                db.getInvalidationTracker().createLiveData(OBSERVED_TABLES, false, () -> {
+                    // PieChart, top expenses, BarChart và so sánh kỳ trước - cùng một snapshot
+                    // Parts still cached for this scope are not re-read
+                    StatisticsCache cache = StatisticsCache.getInstance();
+                    long start = System.nanoTime();
+                    StatisticsBundle bundle = db.rollupDao().loadStatisticsBundle(
+                            s.userId, s.walletId, s.startDay, s.endDay, s.year, cache);
+                    String currency = lookups.getWalletCurrency(s.walletId);
+                    if (currency != null) {
+                        bundle.currency = currency;
+                    }
+                    bundle.loadNanos = System.nanoTime() - start;
+                    if (BuildConfig.DEBUG) {
+                        android.util.Log.d("StatisticsViewModel", "Bundle loaded in "
+                                + bundle.loadNanos / 1_000_000 + " ms (" + bundle.timings() + "), cache: "
+                                + cache.stats());
+                    }
+                    return bundle;
+                }));
+    }
+
+    /** Category, monthly and period totals of the current scope */
+    public LiveData<StatisticsBundle> getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Hit / miss / eviction counters of the statistics cache; the stage
+     * timings of a load are on the bundle itself (timings(), loadNanos).
+     */
+    public StatisticsCache.Stats getCacheStats() {
+        return StatisticsCache.getInstance().snapshot();
+    }
+
+    public long getStartDate() {
+        return startDate;
+    }
+
+    public long getEndDate() {
+        return endDate;
+    }
+
+    public int getSelectedYear() {
+        return selectedYear;
+    }
+
+    public void setDateRange(long startDate, long endDate) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        updateScope();
+    }
+
+    public void setSelectedYear(int year) {
+        this.selectedYear = year;
+        updateScope();
+    }
+
+    private void updateScope() {
+        Scope next = new Scope(MainActivity.getCurrentUserId(), MainActivity.getSelectedWalletId(),
+                DateKeys.dayKey(startDate), DateKeys.dayKey(endDate), selectedYear);
+        if (!next.equals(scope.getValue())) {
+            scope.setValue(next);
+        }
+    }
+}
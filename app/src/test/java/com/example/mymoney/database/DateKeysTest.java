@@ -0,0 +1,90 @@
+package com.example.mymoney.database;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local day and month keys, in a zone with daylight saving time so the
+ * 23 and 25 hour days are covered.
+ */
+public class DateKeysTest {
+
+    private TimeZone savedZone;
+
+    @Before
+    public void setUp() {
+        savedZone = TimeZone.getDefault();
+        // DST 2025: starts 30 March, ends 26 October
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(savedZone);
+    }
+
+    @Test
+    public void dayKey_usesLocalDate() {
+        assertEquals(20251014, DateKeys.dayKey(local(2025, 10, 14, 0, 0)));
+        assertEquals(20251014, DateKeys.dayKey(local(2025, 10, 14, 23, 59)));
+        assertEquals(20251015, DateKeys.dayKey(local(2025, 10, 15, 0, 0)));
+        // 23:30 UTC on the 14th is already the 15th in Berlin
+        assertEquals(20251015, DateKeys.dayKey(1760484600000L));
+    }
+
+    @Test
+    public void startOfDay_isLocalMidnight() {
+        assertEquals(local(2025, 3, 30, 0, 0), DateKeys.startOfDay(20250330));
+        assertEquals(20250330, DateKeys.dayKey(DateKeys.startOfDay(20250330)));
+    }
+
+    @Test
+    public void addDays_crossesMonthsYearsAndLeapDays() {
+        assertEquals(20251101, DateKeys.addDays(20251031, 1));
+        assertEquals(20260101, DateKeys.addDays(20251231, 1));
+        assertEquals(20240229, DateKeys.addDays(20240228, 1));
+        assertEquals(20250301, DateKeys.addDays(20250228, 1));
+        assertEquals(20250924, DateKeys.addDays(20251014, -20));
+        assertEquals(20251014, DateKeys.addDays(20251014, 0));
+    }
+
+    @Test
+    public void addDays_crossesDstSwitches() {
+        assertEquals(20250331, DateKeys.addDays(20250329, 2));
+        assertEquals(20251027, DateKeys.addDays(20251025, 2));
+        assertEquals(20250329, DateKeys.addDays(20250331, -2));
+    }
+
+    @Test
+    public void daysBetweenInclusive_countsShortAndLongDaysOnce() {
+        assertEquals(1, DateKeys.daysBetweenInclusive(20251014, 20251014));
+        assertEquals(7, DateKeys.daysBetweenInclusive(20251008, 20251014));
+        // 23 hour day inside the range
+        assertEquals(3, DateKeys.daysBetweenInclusive(20250329, 20250331));
+        // 25 hour day inside the range
+        assertEquals(3, DateKeys.daysBetweenInclusive(20251025, 20251027));
+        assertEquals(365, DateKeys.daysBetweenInclusive(20250101, 20251231));
+        assertEquals(366, DateKeys.daysBetweenInclusive(20240101, 20241231));
+    }
+
+    @Test
+    public void monthKey_fromTimeAndFromParts() {
+        assertEquals(202510, DateKeys.monthKey(local(2025, 10, 31, 23, 59)));
+        assertEquals(202511, DateKeys.monthKey(local(2025, 11, 1, 0, 0)));
+        assertEquals(202501, DateKeys.monthKey(2025, 1));
+        assertEquals(DateKeys.dayKey(local(2025, 3, 30, 12, 0)) / 100, DateKeys.monthKey(local(2025, 3, 30, 12, 0)));
+    }
+
+    private static long local(int year, int month, int day, int hour, int minute) {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(year, month - 1, day, hour, minute);
+        return cal.getTimeInMillis();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.mymoney.database;
+
+import com.example.mymoney.database.StatisticsCache.Kind;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * LRU bound, selective invalidation and the stale-load guard of the
+ * statistics cache. The cache is a singleton: every test starts from an
+ * empty one and compares counters against a snapshot.
+ */
+public class StatisticsCacheTest {
+
+    private static final int USER = 1;
+    private static final int WALLET = 1;
+    private static final int OTHER_WALLET = 2;
+
+    private final StatisticsCache cache = StatisticsCache.getInstance();
+    private StatisticsCache.Stats before;
+
+    @Before
+    public void setUp() {
+        cache.afterCommit();
+        cache.invalidateAll();
+        before = cache.snapshot();
+    }
+
+    @Test
+    public void getOrLoad_loadsOnceThenHits() {
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertEquals("october", load(Kind.TOTALS, WALLET, 20251001, 20251031, "october", loads));
+        }
+        assertEquals(1, loads.get());
+        StatisticsCache.Stats after = cache.snapshot();
+        assertEquals(2, after.hits - before.hits);
+        assertEquals(1, after.misses - before.misses);
+        assertEquals(1, after.size);
+    }
+
+    @Test
+    public void getOrLoad_doesNotCacheNull() {
+        AtomicInteger loads = new AtomicInteger();
+        assertNull(load(Kind.TOTALS, WALLET, 20251001, 20251031, null, loads));
+        assertNull(load(Kind.TOTALS, WALLET, 20251001, 20251031, null, loads));
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsedPastMaxEntries() {
+        for (int i = 0; i < StatisticsCache.MAX_ENTRIES; i++) {
+            load(Kind.DAILY, WALLET, 20250101 + i, 20250101 + i, "day " + i, null);
+        }
+        // Touch the oldest entry so the second oldest becomes the eldest
+        load(Kind.DAILY, WALLET, 20250101, 20250101, "reloaded", null);
+        load(Kind.DAILY, WALLET, 20250301, 20250301, "new", null);
+
+        assertEquals(StatisticsCache.MAX_ENTRIES, cache.size());
+        assertEquals(1, cache.snapshot().evictions - before.evictions);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("day 0", load(Kind.DAILY, WALLET, 20250101, 20250101, "reloaded", loads));
+        assertEquals(0, loads.get());
+        assertEquals("reloaded", load(Kind.DAILY, WALLET, 20250102, 20250102, "reloaded", loads));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void invalidate_dropsOnlyRangesOfTheWalletContainingTheDay() {
+        load(Kind.CATEGORIES, WALLET, 20251001, 20251031, "october", null);
+        load(Kind.TOTALS, WALLET, 20251001, 20251031, "october totals", null);
+        load(Kind.CATEGORIES, WALLET, 20250901, 20250930, "september", null);
+        load(Kind.CATEGORIES, OTHER_WALLET, 20251001, 20251031, "other october", null);
+
+        cache.invalidate(WALLET, 20251014);
+        cache.afterCommit();
+
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.snapshot().invalidations - before.invalidations);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("september", load(Kind.CATEGORIES, WALLET, 20250901, 20250930, "x", loads));
+        assertEquals("other october", load(Kind.CATEGORIES, OTHER_WALLET, 20251001, 20251031, "x", loads));
+        assertEquals(0, loads.get());
+        assertEquals("x", load(Kind.CATEGORIES, WALLET, 20251001, 20251031, "x", loads));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void invalidate_dayZeroDropsEveryRangeOfTheWallet() {
+        load(Kind.CATEGORIES, WALLET, 20251001, 20251031, "october", null);
+        load(Kind.CATEGORIES, WALLET, 20240101, 20241231, "2024", null);
+        load(Kind.CATEGORIES, OTHER_WALLET, 20251001, 20251031, "other", null);
+
+        cache.invalidate(WALLET, 0);
+
+        assertEquals(1, cache.size());
+    }
+
+    /** A load that overlapped a write must not store its possibly stale result */
+    @Test
+    public void getOrLoad_skipsStoreWhenInvalidatedDuringLoad() {
+        String value = cache.getOrLoad(Kind.TOTALS, USER, WALLET, 20251001, 20251031, () -> {
+            cache.invalidate(OTHER_WALLET, 20240101);
+            return "read before the write";
+        });
+        assertEquals("read before the write", value);
+        assertEquals(0, cache.size());
+    }
+
+    /** A read that finished between the write and its commit is dropped again by afterCommit */
+    @Test
+    public void afterCommit_replaysMarksOfTheTransaction() {
+        cache.invalidate(WALLET, 20251014);
+        load(Kind.TOTALS, WALLET, 20251001, 20251031, "stale", null);
+        load(Kind.TOTALS, OTHER_WALLET, 20251001, 20251031, "other", null);
+        assertEquals(2, cache.size());
+
+        cache.afterCommit();
+        assertEquals(1, cache.size());
+
+        // Marks are replayed once only
+        load(Kind.TOTALS, WALLET, 20251001, 20251031, "fresh", null);
+        cache.afterCommit();
+        assertEquals(2, cache.size());
+    }
+
+    /** Direct DAO writes such as insertAll add a mark per row; they must stay bounded */
+    @Test
+    public void invalidate_keepsOneMarkPerWalletAndDay() {
+        for (int i = 0; i < 10_000; i++) {
+            cache.invalidate(WALLET, 20251001 + i % 3);
+        }
+        cache.invalidate(OTHER_WALLET, 20251001);
+        assertEquals(4, cache.pendingMarkCount());
+
+        cache.afterCommit();
+        assertEquals(0, cache.pendingMarkCount());
+    }
+
+    @Test
+    public void snapshot_countsHitsAndMisses() {
+        load(Kind.MONTHS, WALLET, 20250101, 20251231, "year", null);
+        load(Kind.MONTHS, WALLET, 20250101, 20251231, "year", null);
+        load(Kind.MONTHS, WALLET, 20250101, 20251231, "year", null);
+        load(Kind.MONTHS, WALLET, 20250101, 20251231, "year", null);
+        StatisticsCache.Stats stats = cache.snapshot();
+        assertEquals(3, stats.hits - before.hits);
+        assertEquals(1, stats.misses - before.misses);
+        assertTrue(cache.stats().contains("size 1/" + StatisticsCache.MAX_ENTRIES));
+    }
+
+    private String load(Kind kind, int walletId, int startDay, int endDay, String value, AtomicInteger loads) {
+        return cache.getOrLoad(kind, USER, walletId, startDay, endDay, () -> {
+            if (loads != null) loads.incrementAndGet();
+            return value;
+        });
+    }
+}
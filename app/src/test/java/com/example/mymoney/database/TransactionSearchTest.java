@@ -0,0 +1,65 @@
+package com.example.mymoney.database;
+
+import com.example.mymoney.database.entity.Transaction;
+import com.example.mymoney.database.entity.TransactionFts;
+
+import org.junit.Test;
+
+import java.text.Normalizer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Diacritic folding of the search index and queries.
+ */
+public class TransactionSearchTest {
+
+    private static final String[][] WORDS = {
+            {"uống", "uong"},
+            {"tiền", "tien"},
+            {"đường", "duong"},
+            {"nước", "nuoc"},
+            {"Ăn trưa", "an trua"},
+            {"ĐIỆN", "dien"},
+            {"Phở bò", "pho bo"},
+    };
+
+    @Test
+    public void fold_stripsEveryVietnameseDiacritic() {
+        for (String[] word : WORDS) {
+            assertEquals(word[1], TransactionSearch.fold(word[0]));
+        }
+    }
+
+    @Test
+    public void fold_handlesDecomposedInputAndNull() {
+        String decomposed = Normalizer.normalize("uống nước", Normalizer.Form.NFD);
+        assertEquals("uong nuoc", TransactionSearch.fold(decomposed));
+        assertEquals("", TransactionSearch.fold(null));
+    }
+
+    @Test
+    public void toMatchQuery_foldsEveryWordIntoAPrefixTerm() {
+        assertEquals("uong* tien*", TransactionSearch.toMatchQuery("Uống tiền"));
+        assertEquals("duong* nuoc*", TransactionSearch.toMatchQuery("  đường, nước! "));
+        assertEquals("an* uong*", TransactionSearch.toMatchQuery("an uong"));
+        assertNull(TransactionSearch.toMatchQuery(" ,. "));
+        assertNull(TransactionSearch.toMatchQuery(null));
+    }
+
+    @Test
+    public void indexRow_foldsDescriptionAndCategory() {
+        Transaction transaction = new Transaction();
+        transaction.setId(42);
+        transaction.setDescription("Uống nước đường");
+        transaction.setAmount(150000);
+
+        TransactionFts row = TransactionSearch.indexRow(transaction, "Ăn uống");
+        assertEquals(42, row.getRowId());
+        assertEquals("uong nuoc duong", row.getDescription());
+        assertEquals("an uong", row.getCategoryName());
+        assertEquals("150000", row.getAmountText());
+
+        assertEquals("", TransactionSearch.indexRow(transaction, null).getCategoryName());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.mymoney.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Date labels follow the default locale and time zone, also after either
+ * changes while the cached formatters exist.
+ */
+public class DateLabelFormatterTest {
+
+    // 2025-10-06 07:05 UTC, a Monday
+    private static final long MONDAY_MORNING_UTC = 1759734300000L;
+
+    private Locale savedLocale;
+    private TimeZone savedZone;
+
+    @Before
+    public void setUp() {
+        savedLocale = Locale.getDefault();
+        savedZone = TimeZone.getDefault();
+        Locale.setDefault(Locale.US);
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(savedLocale);
+        TimeZone.setDefault(savedZone);
+    }
+
+    @Test
+    public void labels_useThePatternsOfTheScreens() {
+        assertEquals("07:05", DateLabelFormatter.time(MONDAY_MORNING_UTC));
+        assertEquals("Mon, 06/10", DateLabelFormatter.dayShort(MONDAY_MORNING_UTC));
+        assertEquals("Monday, October 06, 2025", DateLabelFormatter.dayFull(MONDAY_MORNING_UTC));
+        assertEquals("06/10/2025", DateLabelFormatter.date(MONDAY_MORNING_UTC));
+    }
+
+    @Test
+    public void labels_followTimeZoneChanges() {
+        assertEquals("07:05", DateLabelFormatter.time(MONDAY_MORNING_UTC));
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Ho_Chi_Minh"));
+        assertEquals("14:05", DateLabelFormatter.time(MONDAY_MORNING_UTC));
+        TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Honolulu"));
+        assertEquals("05/10/2025", DateLabelFormatter.date(MONDAY_MORNING_UTC));
+        assertEquals("21:05", DateLabelFormatter.time(MONDAY_MORNING_UTC));
+    }
+
+    @Test
+    public void labels_followLocaleChanges() {
+        assertEquals("Mon, 06/10", DateLabelFormatter.dayShort(MONDAY_MORNING_UTC));
+        Locale.setDefault(Locale.GERMANY);
+        assertEquals("Montag, Oktober 06, 2025", DateLabelFormatter.dayFull(MONDAY_MORNING_UTC));
+    }
+}
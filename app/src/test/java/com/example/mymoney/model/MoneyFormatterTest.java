@@ -0,0 +1,116 @@
+package com.example.mymoney.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * MoneyFormatter must print exactly what String.format("%,.Nf") prints,
+ * in every locale, from any thread.
+ */
+public class MoneyFormatterTest {
+
+    private static final Locale[] LOCALES = {
+            Locale.US, new Locale("vi", "VN"), Locale.GERMANY, Locale.FRANCE, new Locale("ar", "EG")
+    };
+    private static final String[] CURRENCIES = {"VND", "USD", "JPY", "EUR"};
+
+    private Locale savedLocale;
+
+    @Before
+    public void setUp() {
+        savedLocale = Locale.getDefault();
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(savedLocale);
+    }
+
+    @Test
+    public void formatNumber_matchesStringFormatInEveryLocale() {
+        long[] values = {0, 5, -5, 999, 1_000, -1_000, 150_000, 1_234_567, 100_000_000_000L,
+                Long.MAX_VALUE, Long.MIN_VALUE + 1, Long.MIN_VALUE};
+        for (Locale locale : LOCALES) {
+            Locale.setDefault(locale);
+            for (String currency : CURRENCIES) {
+                for (long value : values) {
+                    assertEquals(locale + " " + currency + " " + value,
+                            reference(value, currency), MoneyFormatter.formatNumber(value, currency));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void formatNumber_matchesStringFormatOnRandomValues() {
+        Random random = new Random(7);
+        Locale.setDefault(Locale.US);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong() >> random.nextInt(63);
+            String currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+            assertEquals(reference(value, currency), MoneyFormatter.formatNumber(value, currency));
+        }
+    }
+
+    @Test
+    public void format_appendsCurrencyCodeAndSign() {
+        Locale.setDefault(Locale.US);
+        assertEquals("150,000 VND", MoneyFormatter.format(150_000, "VND"));
+        assertEquals("150,000 VND", MoneyFormatter.format(150_000, null));
+        assertEquals("-12.50 USD", MoneyFormatter.format(-1_250, "USD"));
+        assertEquals("+0.05 USD", MoneyFormatter.formatSigned(-5, true, "USD"));
+        assertEquals("-9,223,372,036,854,775,808 VND", MoneyFormatter.formatSigned(Long.MIN_VALUE, false, "VND"));
+
+        Locale.setDefault(new Locale("vi", "VN"));
+        assertEquals("150.000 VND", MoneyFormatter.format(150_000, "VND"));
+        assertEquals("12,50 USD", MoneyFormatter.format(1_250, "USD"));
+    }
+
+    @Test
+    public void fractionDigits_defaultsToZeroForUnknownCodes() {
+        assertEquals(0, MoneyFormatter.fractionDigits("VND"));
+        assertEquals(2, MoneyFormatter.fractionDigits("USD"));
+        assertEquals(0, MoneyFormatter.fractionDigits("not a code"));
+        assertEquals(0, MoneyFormatter.fractionDigits(null));
+    }
+
+    /** The per-thread buffer must not leak one thread's digits into another's string */
+    @Test
+    public void format_isThreadSafe() throws Exception {
+        Locale.setDefault(Locale.US);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            long seed = t;
+            workers.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 20_000; i++) {
+                    long value = random.nextInt(Integer.MAX_VALUE);
+                    assertEquals(reference(value, "USD") + " USD", MoneyFormatter.format(value, "USD"));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+    }
+
+    private static String reference(long minor, String currency) {
+        int digits = MoneyFormatter.fractionDigits(currency);
+        return String.format(Locale.getDefault(), "%,." + digits + "f", BigDecimal.valueOf(minor, digits));
+    }
+}
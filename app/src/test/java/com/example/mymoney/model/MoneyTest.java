@@ -0,0 +1,108 @@
+package com.example.mymoney.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Minor-unit scale, parsing and formatting per currency.
+ */
+public class MoneyTest {
+
+    private Locale savedLocale;
+
+    @Before
+    public void setUp() {
+        savedLocale = Locale.getDefault();
+        Locale.setDefault(Locale.US);
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(savedLocale);
+    }
+
+    @Test
+    public void scale_followsCurrencyFractionDigits() {
+        assertEquals(1, Money.scale("VND"));
+        assertEquals(1, Money.scale("JPY"));
+        assertEquals(100, Money.scale("USD"));
+        assertEquals(100, Money.scale("EUR"));
+        // Unknown or missing currency is treated like VND
+        assertEquals(1, Money.scale("XYZ1"));
+        assertEquals(1, Money.scale(null));
+    }
+
+    @Test
+    public void parseMinor_acceptsGroupingAndDecimals() {
+        assertEquals(150_000, Money.parseMinor("150000", "VND"));
+        assertEquals(150_000, Money.parseMinor(" 150,000 ", "VND"));
+        assertEquals(1_250, Money.parseMinor("12.50", "USD"));
+        assertEquals(1_999, Money.parseMinor("19.99", "USD"));
+        assertEquals(1_200, Money.parseMinor("12", "USD"));
+    }
+
+    @Test
+    public void parseMinor_roundsHalfUpWithoutDoubleError() {
+        // 1.005 is 1.00499... as a double; the string path must not see that
+        assertEquals(101, Money.parseMinor("1.005", "USD"));
+        assertEquals(2, Money.parseMinor("1.5", "VND"));
+        assertEquals(101, Money.toMinor(1.005, "USD"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseMinor_rejectsText() {
+        Money.parseMinor("abc", "VND");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseMinor_rejectsOutOfRange() {
+        Money.parseMinor("99999999999999999999", "VND");
+    }
+
+    @Test
+    public void format_usesCurrencyDecimals() {
+        assertEquals("150,000 VND", Money.format(150_000, "VND"));
+        assertEquals("12.50 USD", Money.format(1_250, "USD"));
+        assertEquals("-0.05 USD", Money.format(-5, "USD"));
+        assertEquals("0 VND", Money.format(0));
+        assertEquals("+150,000 VND", Money.formatSigned(-150_000, true, "VND"));
+        assertEquals("-12.50 USD", Money.formatSigned(1_250, false, "USD"));
+    }
+
+    @Test
+    public void formatCompact_scalesToMajorUnits() {
+        assertEquals("1.5M", Money.formatCompact(1_500_000, "VND"));
+        assertEquals("250.0K", Money.formatCompact(250_000, "VND"));
+        assertEquals("2.0B", Money.formatCompact(2_000_000_000L, "VND"));
+        assertEquals("950", Money.formatCompact(950, "VND"));
+        // 1,250,000 cents = 12,500 dollars
+        assertEquals("12.5K", Money.formatCompact(1_250_000, "USD"));
+        assertEquals("12.5", Money.formatCompact(1_250, "USD"));
+        assertEquals("-1.5M", Money.formatCompact(-1_500_000, "VND"));
+    }
+
+    @Test
+    public void arithmetic_keepsCurrencyAndDetectsOverflow() {
+        Money a = Money.ofMinor(1_250, "USD");
+        Money b = Money.ofMinor(750, "USD");
+        assertEquals(Money.ofMinor(2_000, "USD"), a.plus(b));
+        assertEquals(Money.ofMinor(500, "USD"), a.minus(b));
+        assertEquals(Money.ofMinor(-1_250, "USD"), a.negate());
+        assertTrue(a.compareTo(b) > 0);
+        try {
+            Money.ofMinor(Long.MAX_VALUE, "VND").plus(Money.ofMinor(1, "VND"));
+            fail("overflow must throw");
+        } catch (ArithmeticException expected) {
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void arithmetic_rejectsMixedCurrencies() {
+        Money.ofMinor(100, "USD").plus(Money.ofMinor(100, "VND"));
+    }
+}
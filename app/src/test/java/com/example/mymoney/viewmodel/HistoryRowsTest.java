@@ -0,0 +1,257 @@
+package com.example.mymoney.viewmodel;
+
+import com.example.mymoney.model.TransactionListItem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Windowed refresh of the History list: after a ledger write only the rows
+ * on screen are read again, and the loaded rows must end up exactly as the
+ * ledger orders them, whatever moved in the meantime.
+ *
+ * The ledger is a sorted in-memory list read with the same keyset bounds
+ * TransactionPager uses: (created_at, id) descending, the "before" row
+ * excluded and the "down to" row included.
+ */
+public class HistoryRowsTest {
+
+    private static final int PAGE = 20;
+
+    private final List<TransactionListItem> ledger = new ArrayList<>();
+    private HistoryRows rows;
+
+    @Before
+    public void setUp() {
+        // ids 1..100, newest (100) first
+        for (int id = 1; id <= 100; id++) {
+            ledger.add(item(id, id * 1000L));
+        }
+        sortLedger();
+        rows = new HistoryRows();
+        rows.reset();
+    }
+
+    @Test
+    public void insertAboveWindow_keepsPositionAndIsReadWhenScrolledUp() {
+        loadPages(2);
+        assertFalse(rows.setVisibleRange(20, 29));
+
+        ledger.add(item(101, 101_000L));
+        sortLedger();
+        rows.markAllStale();
+
+        // Only rows 20..29 are read: the new row is above them and not loaded yet
+        HistoryRows.Refresh refresh = rows.startRefresh(false);
+        assertNotNull(refresh);
+        assertEquals(81, refresh.beforeId);
+        assertEquals(71, refresh.downToId);
+        assertTrue(rows.finishRefresh(refresh, read(refresh)));
+        assertEquals(40, rows.view().size());
+        assertEquals(100, rows.view().get(0).id);
+        assertEquals(80, rows.view().get(20).id);
+        assertEquals(20, rows.freshFrom());
+        assertEquals(29, rows.freshTo());
+
+        // Scrolling to the top reads it, and everything below shifts by one
+        assertTrue(rows.setVisibleRange(0, 9));
+        refresh = rows.startRefresh(false);
+        assertEquals(Integer.MAX_VALUE, refresh.beforeId);
+        assertTrue(rows.finishRefresh(refresh, read(refresh)));
+        assertEquals(41, rows.view().size());
+        assertEquals(0, rows.freshFrom());
+        assertEquals(10, rows.freshTo());
+        assertMatchesLedger();
+    }
+
+    @Test
+    public void deleteInWindow_shrinksWindowAndFreshRange() {
+        loadPages(2);
+        rows.setVisibleRange(10, 19);
+
+        ledger.removeIf(item -> item.id == 85);
+        rows.markAllStale();
+        HistoryRows.Refresh refresh = rows.startRefresh(false);
+        assertTrue(rows.finishRefresh(refresh, read(refresh)));
+
+        assertEquals(39, rows.view().size());
+        assertEquals(10, rows.freshFrom());
+        assertEquals(18, rows.freshTo());
+        assertMatchesLedger();
+        // Row 19 moved up from below the window: it was not re-read
+        assertFalse(rows.setVisibleRange(10, 18));
+        assertTrue(rows.setVisibleRange(10, 19));
+    }
+
+    @Test
+    public void pageLoadedDuringRefresh_isKeptBelowWindow() {
+        loadPages(1);
+        rows.setVisibleRange(5, 19);
+
+        ledgerItem(95).amount = 42;
+        rows.markAllStale();
+        HistoryRows.Refresh refresh = rows.startRefresh(false);
+        List<TransactionListItem> window = read(refresh);
+
+        // The next page lands on the main thread before the refresh does
+        rows.addPage(copy(nextPage(rows.view().get(rows.view().size() - 1))), false);
+        assertTrue(rows.finishRefresh(refresh, window));
+
+        assertEquals(40, rows.view().size());
+        assertEquals(42, rows.view().get(5).amount);
+        assertEquals(5, rows.freshFrom());
+        assertEquals(19, rows.freshTo());
+        assertMatchesLedger();
+    }
+
+    @Test
+    public void ledgerChangeDuringRefresh_redoesTheRefresh() {
+        loadPages(2);
+        rows.setVisibleRange(0, 9);
+
+        rows.markAllStale();
+        HistoryRows.Refresh first = rows.startRefresh(false);
+        List<TransactionListItem> early = read(first);
+        // Only one refresh at a time
+        assertNull(rows.startRefresh(false));
+
+        // A second write commits while the first window is being read
+        ledger.add(item(101, 101_000L));
+        sortLedger();
+        rows.markAllStale();
+        assertFalse(rows.finishRefresh(first, early));
+
+        HistoryRows.Refresh second = rows.startRefresh(false);
+        assertNotNull(second);
+        assertTrue(rows.finishRefresh(second, read(second)));
+        assertEquals(101, rows.view().get(0).id);
+        assertMatchesLedger();
+    }
+
+    @Test
+    public void rowEditedIntoWindow_dropsItsOldCopy() {
+        loadPages(2);
+        rows.setVisibleRange(0, 9);
+
+        // Row 75 (loaded at index 25) is re-dated between rows 96 and 95
+        ledgerItem(75).createdAt = 95_500L;
+        sortLedger();
+        rows.markAllStale();
+        HistoryRows.Refresh refresh = rows.startRefresh(false);
+        assertTrue(rows.finishRefresh(refresh, read(refresh)));
+
+        assertEquals(40, rows.view().size());
+        assertEquals(75, rows.view().get(5).id);
+        // The stale copy outside the window is gone, so the interval is not extended
+        assertEquals(0, rows.freshFrom());
+        assertEquals(10, rows.freshTo());
+        assertMatchesLedger();
+    }
+
+    @Test
+    public void endOfList_readsNewRowsBelowTheLastOne() {
+        ledger.removeIf(item -> item.id <= 70);
+        loadPages(2);
+        rows.setVisibleRange(20, 29);
+
+        ledger.add(item(5, 5_000L));
+        sortLedger();
+        rows.markAllStale();
+        HistoryRows.Refresh refresh = rows.startRefresh(true);
+        assertEquals(Integer.MIN_VALUE, refresh.downToId);
+        assertTrue(rows.finishRefresh(refresh, read(refresh)));
+
+        assertEquals(31, rows.view().size());
+        assertEquals(5, rows.view().get(30).id);
+        assertMatchesLedger();
+    }
+
+    // ===== Helpers =====
+
+    private static TransactionListItem item(int id, long createdAt) {
+        TransactionListItem item = new TransactionListItem();
+        item.id = id;
+        item.createdAt = createdAt;
+        item.amount = id;
+        item.type = "expense";
+        return item;
+    }
+
+    private static TransactionListItem copy(TransactionListItem source) {
+        TransactionListItem item = item(source.id, source.createdAt);
+        item.amount = source.amount;
+        return item;
+    }
+
+    private static List<TransactionListItem> copy(List<TransactionListItem> source) {
+        List<TransactionListItem> items = new ArrayList<>();
+        for (TransactionListItem item : source) {
+            items.add(copy(item));
+        }
+        return items;
+    }
+
+    private TransactionListItem ledgerItem(int id) {
+        for (TransactionListItem item : ledger) {
+            if (item.id == id) return item;
+        }
+        throw new AssertionError("no row " + id);
+    }
+
+    private void sortLedger() {
+        ledger.sort(Comparator.comparingLong((TransactionListItem item) -> item.createdAt)
+                .thenComparingInt(item -> item.id).reversed());
+    }
+
+    /** (createdAt, id) comes after (boundCreatedAt, boundId) in newest-first order */
+    private static boolean after(TransactionListItem item, long boundCreatedAt, int boundId) {
+        return item.createdAt < boundCreatedAt || (item.createdAt == boundCreatedAt && item.id < boundId);
+    }
+
+    /** Load pages the way TransactionPager does and hand them in as the loader would */
+    private void loadPages(int pages) {
+        TransactionListItem last = null;
+        for (int i = 0; i < pages; i++) {
+            List<TransactionListItem> page = copy(nextPage(last));
+            rows.addPage(page, i == 0);
+            last = page.get(page.size() - 1);
+        }
+    }
+
+    private List<TransactionListItem> nextPage(TransactionListItem last) {
+        List<TransactionListItem> page = new ArrayList<>();
+        for (TransactionListItem item : ledger) {
+            if (page.size() == PAGE) break;
+            if (last == null || after(item, last.createdAt, last.id)) {
+                page.add(item);
+            }
+        }
+        return page;
+    }
+
+    /** TransactionPager.loadRange over the ledger */
+    private List<TransactionListItem> read(HistoryRows.Refresh refresh) {
+        List<TransactionListItem> window = new ArrayList<>();
+        for (TransactionListItem item : ledger) {
+            if (!after(item, refresh.beforeCreatedAt, refresh.beforeId)) continue;
+            if (after(item, refresh.downToCreatedAt, refresh.downToId)) break;
+            window.add(copy(item));
+        }
+        return window;
+    }
+
+    /** The loaded rows are the newest rows of the ledger, in ledger order */
+    private void assertMatchesLedger() {
+        List<TransactionListItem> view = rows.view();
+        for (int i = 0; i < view.size(); i++) {
+            assertEquals("row " + i, ledger.get(i).id, view.get(i).id);
+            assertEquals("row " + i, ledger.get(i).createdAt, view.get(i).createdAt);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+#
+# Re-export app/schemas/<database>/<N>.json with the Room compiler for every
+# database version from FIRST (default 9) to the current one.
+#
+# Version N is exported from the last commit that still had "version = N"
+# in AppDatabase (the current tree for the newest version), by compiling it
+# with room.schemaLocation pointed at its app/schemas. Needs the Android SDK
+# (local.properties or ANDROID_HOME) and access to Google's Maven repository.
+#
+# Usage: scripts/export-room-schemas.sh [FIRST]
+
+set -euo pipefail
+
+ROOT=$(git rev-parse --show-toplevel)
+DB_FILE=app/src/main/java/com/example/mymoney/database/AppDatabase.java
+SCHEMAS=app/schemas/com.example.mymoney.database.AppDatabase
+FIRST=${1:-9}
+CURRENT=$(sed -n 's/.*version = \([0-9]*\),.*/\1/p' "$ROOT/$DB_FILE")
+
+WORK=$(mktemp -d)
+cleanup() {
+    git -C "$ROOT" worktree remove --force "$WORK/tree" >/dev/null 2>&1 || true
+    rm -rf "$WORK"
+}
+trap cleanup EXIT
+
+# Old commits predate room.schemaLocation in app/build.gradle.kts; pass it to every build
+cat > "$WORK/schema-location.gradle" <<'GRADLE'
+allprojects {
+    tasks.withType(JavaCompile).configureEach {
+        options.compilerArgs += ["-Aroom.schemaLocation=${project.projectDir}/schemas"]
+    }
+}
+GRADLE
+
+export_version() {
+    local version=$1 tree=$2
+    rm -f "$tree/$SCHEMAS/$version.json"
+    (cd "$tree" && ./gradlew -q --init-script "$WORK/schema-location.gradle" \
+        :app:compileDebugJavaWithJavac --rerun-tasks)
+    if [[ "$tree" != "$ROOT" ]]; then
+        mkdir -p "$ROOT/$SCHEMAS"
+        cp "$tree/$SCHEMAS/$version.json" "$ROOT/$SCHEMAS/$version.json"
+    fi
+    echo "Exported $version.json"
+}
+
+for ((version = FIRST; version < CURRENT; version++)); do
+    bump=$(git -C "$ROOT" log --format=%H --reverse -S "version = $((version + 1))," -- "$DB_FILE" | head -1)
+    git -C "$ROOT" worktree add --detach --force "$WORK/tree" "$bump^" >/dev/null
+    [[ -f "$ROOT/local.properties" ]] && cp "$ROOT/local.properties" "$WORK/tree/"
+    export_version "$version" "$WORK/tree"
+    git -C "$ROOT" worktree remove --force "$WORK/tree"
+done
+export_version "$CURRENT" "$ROOT"
+
+git -C "$ROOT" status --short -- "$SCHEMAS"